@@ -23,9 +23,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -93,24 +91,26 @@ public class CollectionUtil {
     }
 
     /**
-     * Distinct the list by comparator.
+     * Distinct the list by the key of elements, the first element of each key is kept.
      *
-     * @param collection        the list will be handled
-     * @param comparator        the function to determine whether the element is equal
+     * @param collection   the list will be handled
+     * @param keyExtractor the function to compute the key of element, the elements with equal keys are duplicate
      */
-    public static void distinctCollection(Collection collection, Function<Object, Integer> comparator) {
+    public static void distinctCollection(Collection collection, Function<Object, ?> keyExtractor) {
         if (collection == null) {
             return;
         }
 
-        Map<Integer, Object> resultValue = new LinkedHashMap(collection.size());
+        DistinctKeySet distinctKeys = new DistinctKeySet(collection.size(), false);
+        List<Object> resultValue = new ArrayList<>(collection.size());
         for (Object element : collection) {
-            Integer comparatorValue = comparator.apply(element);
-            resultValue.putIfAbsent(comparatorValue, element);
+            if (distinctKeys.add(keyExtractor.apply(element))) {
+                resultValue.add(element);
+            }
         }
 
         collection.clear();
-        collection.addAll(resultValue.values());
+        collection.addAll(resultValue);
     }
 
 
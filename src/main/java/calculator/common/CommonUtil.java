@@ -31,6 +31,7 @@ import graphql.language.NamedNode;
 import graphql.language.StringValue;
 import graphql.language.Value;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -103,6 +104,25 @@ public class CommonUtil {
         return (T) parseValue(argument.getValue());
     }
 
+    /**
+     * Get int argument value on directive by argument name, the value out of int range is clamped.
+     *
+     * @param directive    dir
+     * @param argumentName argument name
+     * @return the argument value, null if the argument is not set
+     */
+    public static Integer getIntArgumentFromDirective(Directive directive, String argumentName) {
+        BigInteger value = getArgumentFromDirective(directive, argumentName);
+        if (value == null) {
+            return null;
+        }
+
+        if (value.bitLength() < Integer.SIZE) {
+            return value.intValue();
+        }
+        return value.signum() > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+    }
+
 
     public static Object parseValue(Value value) {
         if (value instanceof StringValue) {
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.common;
+
+/**
+ * The open-addressing hash set which records the distinct keys, and compares the keys by their actual values.
+ *
+ * <p>Integral numbers are stored in a {@code long[]} table and compared by value, as well as floating-point numbers,
+ * so that they are not boxed into the table; the other keys are compared by {@code equals},
+ * or by identity if it's an identity set. The tables are allocated when the first key of its type is added.
+ */
+public class DistinctKeySet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final boolean identity;
+
+    private final int expectedSize;
+
+    private boolean containsNull;
+
+    private LongHashSet integralKeys;
+
+    private LongHashSet floatingKeys;
+
+    private Object[] objectKeys;
+
+    private int objectCount;
+
+    /**
+     * @param expectedSize the expected count of keys
+     * @param identity     whether to compare the keys by identity
+     */
+    public DistinctKeySet(int expectedSize, boolean identity) {
+        this.expectedSize = expectedSize;
+        this.identity = identity;
+    }
+
+    /**
+     * Add the key into set.
+     *
+     * @param key the key, which can be null
+     * @return true if the set didn't contain the key
+     */
+    public boolean add(Object key) {
+        if (key == null) {
+            boolean added = !containsNull;
+            containsNull = true;
+            return added;
+        }
+
+        if (!identity) {
+            if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+                if (integralKeys == null) {
+                    integralKeys = new LongHashSet(expectedSize);
+                }
+                return integralKeys.add(((Number) key).longValue());
+            }
+
+            if (key instanceof Double || key instanceof Float) {
+                if (floatingKeys == null) {
+                    floatingKeys = new LongHashSet(expectedSize);
+                }
+                return floatingKeys.add(Double.doubleToLongBits(((Number) key).doubleValue()));
+            }
+        }
+
+        return addObject(key);
+    }
+
+    private boolean addObject(Object key) {
+        if (objectKeys == null) {
+            objectKeys = new Object[tableSize(expectedSize)];
+        }
+
+        int mask = objectKeys.length - 1;
+        int index = mix(identity ? System.identityHashCode(key) : key.hashCode()) & mask;
+        while (objectKeys[index] != null) {
+            Object existing = objectKeys[index];
+            if (identity ? existing == key : existing.equals(key)) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        objectKeys[index] = key;
+        if (++objectCount * 2 > objectKeys.length) {
+            rehashObjects();
+        }
+        return true;
+    }
+
+    private void rehashObjects() {
+        Object[] oldKeys = objectKeys;
+        objectKeys = new Object[oldKeys.length * 2];
+        int mask = objectKeys.length - 1;
+        for (Object key : oldKeys) {
+            if (key == null) {
+                continue;
+            }
+            int index = mix(identity ? System.identityHashCode(key) : key.hashCode()) & mask;
+            while (objectKeys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            objectKeys[index] = key;
+        }
+    }
+
+    // the power of two which keeps the load factor not more than 0.5.
+    private static int tableSize(int expectedSize) {
+        int size = MIN_CAPACITY;
+        while (size < expectedSize * 2L && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static class LongHashSet {
+
+        // 0 is used to mark empty slot, and is recorded by containsZero.
+        private long[] keys;
+
+        private boolean containsZero;
+
+        private int count;
+
+        LongHashSet(int expectedSize) {
+            this.keys = new long[tableSize(expectedSize)];
+        }
+
+        boolean add(long key) {
+            if (key == 0) {
+                boolean added = !containsZero;
+                containsZero = true;
+                return added;
+            }
+
+            int mask = keys.length - 1;
+            int index = mix(key) & mask;
+            while (keys[index] != 0) {
+                if (keys[index] == key) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = key;
+            if (++count * 2 > keys.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            keys = new long[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (long key : oldKeys) {
+                if (key == 0) {
+                    continue;
+                }
+                int index = mix(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
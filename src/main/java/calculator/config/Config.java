@@ -19,6 +19,8 @@ package calculator.config;
 
 import calculator.engine.ObjectMapper;
 import calculator.engine.annotation.PublicApi;
+import calculator.engine.cache.FieldCache;
+import calculator.engine.metrics.CalculatorMetrics;
 import calculator.engine.script.ScriptEvaluator;
 
 import java.util.concurrent.Executor;
@@ -44,4 +46,32 @@ public interface Config {
      * @return Get the thread pool which used in {@link calculator.engine.ExecutionEngine}.
      */
     Executor getExecutor();
+
+    /**
+     * @return the metrics which calculator reports to, no-op by default.
+     */
+    default CalculatorMetrics getMetrics() {
+        return CalculatorMetrics.NOOP;
+    }
+
+    /**
+     * @return the max ratio of hedged invocations to all invocations of hedged {@code @partition} fields.
+     */
+    default double getHedgeRatio() {
+        return DefaultConfig.DEFAULT_HEDGE_RATIO;
+    }
+
+    /**
+     * @return the min size of list whose {@code @filter}, {@code @sort} and {@code @sortBy} are processed in parallel.
+     */
+    default int getParallelListThreshold() {
+        return DefaultConfig.DEFAULT_PARALLEL_LIST_THRESHOLD;
+    }
+
+    /**
+     * @return the cache of {@code @cached} fields, the fields are not cached if it's null.
+     */
+    default FieldCache getFieldCache() {
+        return null;
+    }
 }
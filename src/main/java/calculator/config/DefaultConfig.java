@@ -19,6 +19,9 @@ package calculator.config;
 import calculator.engine.ObjectMapper;
 import calculator.engine.DefaultObjectMapper;
 import calculator.engine.annotation.PublicApi;
+import calculator.engine.cache.FieldCache;
+import calculator.engine.cache.LruFieldCache;
+import calculator.engine.metrics.CalculatorMetrics;
 import calculator.engine.script.AviatorScriptEvaluator;
 import calculator.engine.script.ScriptEvaluator;
 
@@ -38,6 +41,21 @@ public class DefaultConfig implements Config {
 
     private final ScriptEvaluator scriptEvaluator;
 
+    private final CalculatorMetrics metrics;
+
+    private final double hedgeRatio;
+
+    private final FieldCache fieldCache;
+
+    private final int parallelListThreshold;
+
+    // the defaults of Config, shared with its default methods.
+    static final double DEFAULT_HEDGE_RATIO = 0.05;
+
+    static final int DEFAULT_PARALLEL_LIST_THRESHOLD = 10000;
+
+    private static final int DEFAULT_FIELD_CACHE_SIZE = 10000;
+
     private static final ObjectMapper DEFAULT_MAPPER = new DefaultObjectMapper();
 
     private static final Executor DEFAULT_EXECUTOR = ForkJoinPool.commonPool();
@@ -46,10 +64,18 @@ public class DefaultConfig implements Config {
 
     private DefaultConfig(Executor threadPool,
                           ObjectMapper objectMapper,
-                          ScriptEvaluator scriptEvaluator) {
+                          ScriptEvaluator scriptEvaluator,
+                          CalculatorMetrics metrics,
+                          Double hedgeRatio,
+                          FieldCache fieldCache,
+                          Integer parallelListThreshold) {
         this.threadPool = threadPool != null ? threadPool : DEFAULT_EXECUTOR;
         this.objectMapper = objectMapper != null ? objectMapper : DEFAULT_MAPPER;
         this.scriptEvaluator = scriptEvaluator != null ? scriptEvaluator : DEFAULT_EVALUATOR;
+        this.metrics = metrics != null ? metrics : CalculatorMetrics.NOOP;
+        this.hedgeRatio = hedgeRatio != null ? hedgeRatio : DEFAULT_HEDGE_RATIO;
+        this.fieldCache = fieldCache != null ? fieldCache : new LruFieldCache(DEFAULT_FIELD_CACHE_SIZE);
+        this.parallelListThreshold = parallelListThreshold != null ? parallelListThreshold : DEFAULT_PARALLEL_LIST_THRESHOLD;
     }
 
     @Override
@@ -67,6 +93,26 @@ public class DefaultConfig implements Config {
         return threadPool;
     }
 
+    @Override
+    public CalculatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public double getHedgeRatio() {
+        return hedgeRatio;
+    }
+
+    @Override
+    public FieldCache getFieldCache() {
+        return fieldCache;
+    }
+
+    @Override
+    public int getParallelListThreshold() {
+        return parallelListThreshold;
+    }
+
     public static Builder newConfig() {
         return new Builder();
     }
@@ -79,6 +125,14 @@ public class DefaultConfig implements Config {
 
         private ScriptEvaluator scriptEvaluator;
 
+        private CalculatorMetrics metrics;
+
+        private Double hedgeRatio;
+
+        private FieldCache fieldCache;
+
+        private Integer parallelListThreshold;
+
         public Builder threadPool(Executor threadPool) {
             Objects.requireNonNull(threadPool, "threadPool can not be null.");
             this.threadPool = threadPool;
@@ -97,8 +151,38 @@ public class DefaultConfig implements Config {
             return this;
         }
 
+        public Builder metrics(CalculatorMetrics metrics) {
+            Objects.requireNonNull(metrics, "metrics can not be null.");
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder hedgeRatio(double hedgeRatio) {
+            if (hedgeRatio < 0) {
+                throw new IllegalArgumentException("hedgeRatio can not be negative.");
+            }
+            this.hedgeRatio = hedgeRatio;
+            return this;
+        }
+
+        public Builder fieldCache(FieldCache fieldCache) {
+            Objects.requireNonNull(fieldCache, "fieldCache can not be null.");
+            this.fieldCache = fieldCache;
+            return this;
+        }
+
+        public Builder parallelListThreshold(int parallelListThreshold) {
+            if (parallelListThreshold <= 0) {
+                throw new IllegalArgumentException("parallelListThreshold must be positive.");
+            }
+            this.parallelListThreshold = parallelListThreshold;
+            return this;
+        }
+
         public DefaultConfig build() {
-            return new DefaultConfig(threadPool, objectMapper, scriptEvaluator);
+            return new DefaultConfig(
+                    threadPool, objectMapper, scriptEvaluator, metrics, hedgeRatio, fieldCache, parallelListThreshold
+            );
         }
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.annotation.PublicApi;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.List;
+
+/**
+ * The {@link DataFetcher} of field with {@code @batched}, the fetches of the field in list are collected
+ * and invoked by {@link #batchGet} once.
+ *
+ * <p>{@link #get} is still used when the field is not wrapped by calculator.
+ */
+@PublicApi
+public interface BatchDataFetcher extends DataFetcher<Object> {
+
+    /**
+     * Fetch the values of keys in one invocation.
+     *
+     * @param keys        the distinct keys, which are the values of key argument or source property
+     * @param environment the environment of the first fetch in the batch,
+     *                    the fetches in one batch have the same arguments except for the key argument
+     * @return the values by key, which is {@code Map<Object, Object>} or {@code CompletionStage<Map<Object, Object>>}
+     * @throws Exception exception
+     */
+    Object batchGet(List<Object> keys, DataFetchingEnvironment environment) throws Exception;
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+import calculator.engine.metadata.Directives;
+import graphql.language.StringValue;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLSchemaElement;
+import graphql.schema.GraphQLTypeVisitor;
+import graphql.schema.GraphQLTypeVisitorStub;
+import graphql.schema.PropertyDataFetcher;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Collect the fetches of {@code @batched} field and invoke {@link BatchDataFetcher#batchGet} once.
+ *
+ * <p>{@link calculator.graphql.AsyncExecutionStrategy} opens a batch scope on the current thread when completing
+ * list elements, the fetches in the scope are collected and dispatched when the outermost list is dispatched.
+ * Fetches are grouped by execution and the arguments except for the key argument.
+ * The fetch which is not in list is invoked immediately.
+ */
+@Internal
+public class BatchingDataFetcher implements DataFetcher<Object> {
+
+    private static final ThreadLocal<BatchScope> CURRENT_SCOPE = new ThreadLocal<>();
+
+    private final String key;
+
+    /**
+     * Whether the key is the argument name of field, otherwise the property name of source object.
+     */
+    private final boolean isArgumentKey;
+
+    private final DataFetcher<?> keyFetcher;
+
+    private final BatchDataFetcher delegate;
+
+    private BatchingDataFetcher(String key, boolean isArgumentKey, BatchDataFetcher delegate) {
+        this.key = key;
+        this.isArgumentKey = isArgumentKey;
+        this.keyFetcher = PropertyDataFetcher.fetching(key);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) throws Exception {
+        Object keyValue = isArgumentKey ? environment.getArgument(key) : keyFetcher.get(environment);
+        if (keyValue == null) {
+            return null;
+        }
+
+        BatchScope batchScope = CURRENT_SCOPE.get();
+        if (batchScope == null) {
+            return batchGet(Collections.singletonList(keyValue), environment, keyValue);
+        }
+
+        Map<String, Object> otherArguments = new LinkedHashMap<>(environment.getArguments());
+        if (isArgumentKey) {
+            otherArguments.remove(key);
+        }
+        List<Object> batchKey = Arrays.asList(this, environment.getExecutionId(), otherArguments);
+
+        CompletableFuture<Object> resultFuture = new CompletableFuture<>();
+        batchScope.pendingBatches
+                .computeIfAbsent(batchKey, ignored -> new PendingBatch(this, environment))
+                .add(keyValue, resultFuture);
+        return resultFuture;
+    }
+
+    private Object batchGet(List<Object> keys, DataFetchingEnvironment environment, Object keyValue) throws Exception {
+        Object batchResult = delegate.batchGet(keys, environment);
+        if (batchResult instanceof CompletionStage) {
+            return ((CompletionStage<?>) batchResult).thenApply(valueByKey -> getValue(valueByKey, keyValue));
+        }
+        return getValue(batchResult, keyValue);
+    }
+
+    private static Object getValue(Object valueByKey, Object keyValue) {
+        return valueByKey instanceof Map ? ((Map<?, ?>) valueByKey).get(keyValue) : null;
+    }
+
+    /**
+     * Open batch scope on current thread, the scope can be nested.
+     */
+    public static void enterBatchScope() {
+        BatchScope batchScope = CURRENT_SCOPE.get();
+        if (batchScope == null) {
+            batchScope = new BatchScope();
+            CURRENT_SCOPE.set(batchScope);
+        }
+        batchScope.depth++;
+    }
+
+    /**
+     * Close batch scope on current thread, and dispatch the pending batches if it's the outermost scope.
+     */
+    public static void exitBatchScope() {
+        BatchScope batchScope = CURRENT_SCOPE.get();
+        if (batchScope == null || --batchScope.depth > 0) {
+            return;
+        }
+
+        // the fetches triggered by dispatching will be collected by new scope.
+        CURRENT_SCOPE.remove();
+        for (PendingBatch pendingBatch : batchScope.pendingBatches.values()) {
+            pendingBatch.dispatch();
+        }
+    }
+
+    private static class BatchScope {
+
+        private int depth;
+
+        private final Map<List<Object>, PendingBatch> pendingBatches = new LinkedHashMap<>();
+    }
+
+    private static class PendingBatch {
+
+        private final BatchingDataFetcher dataFetcher;
+
+        private final DataFetchingEnvironment environment;
+
+        private final Set<Object> keys = new LinkedHashSet<>();
+
+        private final List<Object> fetchKeys = new ArrayList<>();
+
+        private final List<CompletableFuture<Object>> fetchFutures = new ArrayList<>();
+
+        PendingBatch(BatchingDataFetcher dataFetcher, DataFetchingEnvironment environment) {
+            this.dataFetcher = dataFetcher;
+            this.environment = environment;
+        }
+
+        void add(Object keyValue, CompletableFuture<Object> fetchFuture) {
+            keys.add(keyValue);
+            fetchKeys.add(keyValue);
+            fetchFutures.add(fetchFuture);
+        }
+
+        void dispatch() {
+            Object batchResult;
+            try {
+                batchResult = dataFetcher.delegate.batchGet(new ArrayList<>(keys), environment);
+            } catch (Throwable e) {
+                fail(e);
+                return;
+            }
+
+            if (batchResult instanceof CompletionStage) {
+                ((CompletionStage<?>) batchResult).whenComplete((valueByKey, exception) -> {
+                    if (exception != null) {
+                        fail(exception);
+                    } else {
+                        scatter(valueByKey);
+                    }
+                });
+            } else {
+                scatter(batchResult);
+            }
+        }
+
+        private void scatter(Object valueByKey) {
+            for (int i = 0; i < fetchFutures.size(); i++) {
+                fetchFutures.get(i).complete(getValue(valueByKey, fetchKeys.get(i)));
+            }
+        }
+
+        private void fail(Throwable exception) {
+            for (CompletableFuture<Object> fetchFuture : fetchFutures) {
+                fetchFuture.completeExceptionally(exception);
+            }
+        }
+    }
+
+    static GraphQLTypeVisitor TYPE_VISITOR = new GraphQLTypeVisitorStub() {
+        @Override
+        public TraversalControl visitGraphQLFieldDefinition(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
+            GraphQLDirective batchedDirective = fieldDefinition.getDirective(Directives.BATCHED.getName());
+            if (batchedDirective == null) {
+                return TraversalControl.CONTINUE;
+            }
+
+            GraphQLCodeRegistry.Builder codeRegistry = context.getVarFromParents(GraphQLCodeRegistry.Builder.class);
+            GraphQLFieldsContainer parent = (GraphQLFieldsContainer) context.getParentNode();
+            DataFetcher<?> originalDataFetcher = codeRegistry.getDataFetcher(parent, fieldDefinition);
+            if (!(originalDataFetcher instanceof BatchDataFetcher)) {
+                return TraversalControl.CONTINUE;
+            }
+
+            String key = ((StringValue) batchedDirective.getArgument("key").getArgumentValue().getValue()).getValue();
+            DataFetcher<?> batching = new BatchingDataFetcher(
+                    key, fieldDefinition.getArgument(key) != null, (BatchDataFetcher) originalDataFetcher
+            );
+            codeRegistry.dataFetcher(parent, fieldDefinition, batching);
+            return TraversalControl.CONTINUE;
+        }
+    };
+}
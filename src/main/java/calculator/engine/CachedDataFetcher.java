@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.config.Config;
+import calculator.engine.annotation.Internal;
+import calculator.engine.cache.FieldCache;
+import calculator.engine.cache.FieldCacheEntry;
+import calculator.engine.metadata.Directives;
+import graphql.execution.DataFetcherResult;
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLSchemaElement;
+import graphql.schema.GraphQLTypeVisitor;
+import graphql.schema.GraphQLTypeVisitorStub;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Return the result of {@code @cached} field from {@link FieldCache} if it's fresh, otherwise invoke the delegate
+ * and cache the result.
+ *
+ * <p>The stale result is returned within staleWhileRevalidate after ttl, and the result is refreshed on executor
+ * at most once at the same time for each key. The result with errors is not cached.
+ */
+@Internal
+public class CachedDataFetcher implements DataFetcher<Object> {
+
+    private final FieldKey fieldKey;
+
+    private final long ttl;
+
+    private final long staleWhileRevalidate;
+
+    private final DataFetcher<?> delegate;
+
+    private final FieldCache fieldCache;
+
+    private final Executor executor;
+
+    private final LongSupplier clock;
+
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+
+    private CachedDataFetcher(String fieldCoordinate,
+                              long ttl,
+                              long staleWhileRevalidate,
+                              String sourceKey,
+                              DataFetcher<?> delegate,
+                              FieldCache fieldCache,
+                              Executor executor,
+                              LongSupplier clock) {
+        this.fieldKey = new FieldKey(fieldCoordinate, sourceKey);
+        this.ttl = ttl;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.delegate = delegate;
+        this.fieldCache = fieldCache;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) throws Exception {
+        String cacheKey = fieldKey.of(environment);
+        FieldCacheEntry entry = fieldCache.get(cacheKey);
+        if (entry != null) {
+            long age = clock.getAsLong() - entry.getWriteTime();
+            if (age < ttl) {
+                return entry.getValue();
+            }
+
+            if (age < ttl + staleWhileRevalidate) {
+                refresh(cacheKey, environment);
+                return entry.getValue();
+            }
+        }
+
+        Object result = delegate.get(environment);
+        if (result instanceof CompletionStage) {
+            return ((CompletionStage<?>) result).whenComplete((value, exception) -> {
+                if (exception == null) {
+                    putIfCacheable(cacheKey, value);
+                }
+            });
+        }
+
+        putIfCacheable(cacheKey, result);
+        return result;
+    }
+
+    private void refresh(String cacheKey, DataFetchingEnvironment environment) {
+        if (!refreshingKeys.add(cacheKey)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                Object result;
+                try {
+                    result = delegate.get(environment);
+                } catch (Throwable e) {
+                    refreshingKeys.remove(cacheKey);
+                    return;
+                }
+
+                if (result instanceof CompletionStage) {
+                    ((CompletionStage<?>) result).whenComplete((value, exception) -> {
+                        if (exception == null) {
+                            putIfCacheable(cacheKey, value);
+                        }
+                        refreshingKeys.remove(cacheKey);
+                    });
+                } else {
+                    putIfCacheable(cacheKey, result);
+                    refreshingKeys.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingKeys.remove(cacheKey);
+        }
+    }
+
+    private void putIfCacheable(String cacheKey, Object value) {
+        if (value instanceof DataFetcherResult && ((DataFetcherResult<?>) value).hasErrors()) {
+            return;
+        }
+        fieldCache.put(cacheKey, new FieldCacheEntry(value, clock.getAsLong()));
+    }
+
+    static GraphQLTypeVisitor TYPE_VISITOR = new GraphQLTypeVisitorStub() {
+        @Override
+        public TraversalControl visitGraphQLFieldDefinition(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
+            GraphQLDirective cachedDirective = fieldDefinition.getDirective(Directives.CACHED.getName());
+            Config config = context.getVarFromParents(Config.class);
+            if (cachedDirective == null || config.getFieldCache() == null) {
+                return TraversalControl.CONTINUE;
+            }
+
+            GraphQLCodeRegistry.Builder codeRegistry = context.getVarFromParents(GraphQLCodeRegistry.Builder.class);
+            GraphQLFieldsContainer parent = (GraphQLFieldsContainer) context.getParentNode();
+            Object staleWhileRevalidate = getArgumentValue(cachedDirective, "staleWhileRevalidate");
+            Object key = getArgumentValue(cachedDirective, "key");
+            DataFetcher<?> cached = newCachedDataFetcher()
+                    .fieldCoordinate(parent.getName() + "." + fieldDefinition.getName())
+                    .ttl(((IntValue) getArgumentValue(cachedDirective, "ttl")).getValue().longValue())
+                    .staleWhileRevalidate(staleWhileRevalidate instanceof IntValue
+                            ? ((IntValue) staleWhileRevalidate).getValue().longValue()
+                            : 0)
+                    .sourceKey(key instanceof StringValue ? ((StringValue) key).getValue() : null)
+                    .delegate(codeRegistry.getDataFetcher(parent, fieldDefinition))
+                    .fieldCache(config.getFieldCache())
+                    .executor(config.getExecutor())
+                    .build();
+            codeRegistry.dataFetcher(parent, fieldDefinition, cached);
+            return TraversalControl.CONTINUE;
+        }
+    };
+
+    private static Object getArgumentValue(GraphQLDirective directive, String argumentName) {
+        GraphQLArgument argument = directive.getArgument(argumentName);
+        return argument != null ? argument.getArgumentValue().getValue() : null;
+    }
+
+    public static Builder newCachedDataFetcher() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private String fieldCoordinate;
+
+        private long ttl;
+
+        private long staleWhileRevalidate;
+
+        private String sourceKey;
+
+        private DataFetcher<?> delegate;
+
+        private FieldCache fieldCache;
+
+        private Executor executor;
+
+        private LongSupplier clock = System::currentTimeMillis;
+
+        public Builder fieldCoordinate(String fieldCoordinate) {
+            this.fieldCoordinate = Objects.requireNonNull(fieldCoordinate);
+            return this;
+        }
+
+        public Builder ttl(long ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public Builder staleWhileRevalidate(long staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+
+        public Builder sourceKey(String sourceKey) {
+            this.sourceKey = sourceKey;
+            return this;
+        }
+
+        public Builder delegate(DataFetcher<?> delegate) {
+            this.delegate = Objects.requireNonNull(delegate);
+            return this;
+        }
+
+        public Builder fieldCache(FieldCache fieldCache) {
+            this.fieldCache = Objects.requireNonNull(fieldCache);
+            return this;
+        }
+
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        public Builder clock(LongSupplier clock) {
+            this.clock = Objects.requireNonNull(clock);
+            return this;
+        }
+
+        public CachedDataFetcher build() {
+            return new CachedDataFetcher(
+                    fieldCoordinate, ttl, staleWhileRevalidate, sourceKey, delegate, fieldCache, executor, clock
+            );
+        }
+    }
+}
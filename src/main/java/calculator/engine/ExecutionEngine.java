@@ -24,9 +24,13 @@ import calculator.engine.decorator.DecorateEnvironment;
 import calculator.engine.handler.DistinctHandler;
 import calculator.engine.handler.FieldValueHandlerComposite;
 import calculator.engine.handler.FilterHandler;
+import calculator.engine.handler.ListPushdown;
 import calculator.engine.handler.HandleEnvironment;
+import calculator.engine.handler.ListPipeline;
+import calculator.engine.handler.ListStage;
 import calculator.engine.handler.SortByHandler;
 import calculator.engine.handler.SortHandler;
+import calculator.engine.handler.SliceHandler;
 import calculator.engine.metadata.FetchSourceTask;
 import calculator.engine.script.ScriptEvaluator;
 import calculator.engine.decorator.ArgumentTransformDecorator;
@@ -35,6 +39,9 @@ import calculator.engine.decorator.FilterDecorator;
 import calculator.engine.decorator.MapDecorator;
 import calculator.engine.decorator.MockDecorator;
 import calculator.engine.decorator.SortByDecorator;
+import calculator.engine.decorator.TopNDecorator;
+import calculator.engine.decorator.SliceDecorator;
+import calculator.engine.decorator.AggregateDecorator;
 import calculator.engine.decorator.SortDecorator;
 import calculator.engine.decorator.DecoratorComposite;
 import graphql.ExecutionResult;
@@ -42,6 +49,7 @@ import graphql.analysis.QueryTraverser;
 import graphql.com.google.common.collect.ImmutableList;
 import graphql.com.google.common.collect.ImmutableMap;
 import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionStepInfo;
 import graphql.execution.ResultPath;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
@@ -69,6 +77,7 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -94,18 +103,23 @@ public class ExecutionEngine extends SimpleInstrumentation {
 
     private final ScriptEvaluator scriptEvaluator;
 
+    private final int parallelListThreshold;
+
     // SoftReference avoid memory leak
     private final List<SoftReference<ConcurrentHashMap<String, PreparsedDocumentEntry>>> documentCache = new ArrayList<>(1);
 
 
-    private ExecutionEngine(Executor executor, ObjectMapper objectMapper, ScriptEvaluator scriptEvaluator) {
+    private ExecutionEngine(Executor executor, ObjectMapper objectMapper, ScriptEvaluator scriptEvaluator, int parallelListThreshold) {
         this.executor = Objects.requireNonNull(executor);
         this.objectMapper = Objects.requireNonNull(objectMapper);
         this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
+        this.parallelListThreshold = parallelListThreshold;
     }
 
     public static ExecutionEngine newInstance(Config config) {
-        return new ExecutionEngine(config.getExecutor(), config.getObjectMapper(), config.getScriptEvaluator());
+        return new ExecutionEngine(
+                config.getExecutor(), config.getObjectMapper(), config.getScriptEvaluator(), config.getParallelListThreshold()
+        );
     }
 
     // ============================================== create InstrumentationState for engine  ==============================================
@@ -127,18 +141,49 @@ public class ExecutionEngine extends SimpleInstrumentation {
             }
         });
 
+        ExecutionEngineState engineState;
         if (documentEntry.hasErrors()) {
-            return ExecutionEngineState.newExecutionState().build();
+            engineState = ExecutionEngineState.newExecutionState().build();
+        } else {
+            QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                    .schema(parameters.getSchema())
+                    .document(documentEntry.getDocument())
+                    .variables(Collections.emptyMap()).build();
+
+            ExecutionEngineStateParser stateParser = new ExecutionEngineStateParser();
+            traverser.visitDepthFirst(stateParser);
+            engineState = stateParser.getExecutionEngineState();
         }
 
-        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
-                .schema(parameters.getSchema())
-                .document(documentEntry.getDocument())
-                .variables(Collections.emptyMap()).build();
+        // make the state visible to DataFetcher and the caller which want to cancel the execution.
+        parameters.getExecutionInput().getGraphQLContext().put(ExecutionEngineState.class, engineState);
+        return engineState;
+    }
+
+
+    // ============================================== cancel the running futures when execution finished  ==============================================
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        if (!(state instanceof ExecutionEngineState)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("state should be ExecutionEngineState, instead of {}", state == null ? null : state.getClass().getName());
+            }
+            return super.beginExecution(parameters, state);
+        }
+
+        ExecutionEngineState engineState = (ExecutionEngineState) state;
+        return new InstrumentationContext<ExecutionResult>() {
+            @Override
+            public void onDispatched(CompletableFuture<ExecutionResult> result) {
+            }
 
-        ExecutionEngineStateParser stateParser = new ExecutionEngineStateParser();
-        traverser.visitDepthFirst(stateParser);
-        return stateParser.getExecutionEngineState();
+            @Override
+            public void onCompleted(ExecutionResult result, Throwable t) {
+                // nobody will consume the value of futures which are still running when execution finished,
+                // e.g. the execution failed or was cancelled, the futures for '@fetchSource' which is not used.
+                engineState.cancel();
+            }
+        };
     }
 
 
@@ -279,6 +324,8 @@ public class ExecutionEngine extends SimpleInstrumentation {
         return new InstrumentationContext<Object>() {
             @Override
             public void onDispatched(CompletableFuture<Object> future) {
+                engineState.trackFuture(future);
+
                 String fieldFullPath = fieldPath(resultPath);
                 FetchSourceTask sourceTask = parseFetchSourceTask(engineState, fieldFullPath);
                 if (sourceTask == null) {
@@ -286,7 +333,7 @@ public class ExecutionEngine extends SimpleInstrumentation {
                 }
 
                 if (sourceTask.isInList()) {
-                    sourceTask.addListElementResultFuture(future);
+                    sourceTask.addListElementResultFuture(listElementIndex(resultPath), future);
                 } else {
                     future.whenComplete((result, ex) -> {
                         if (ex != null) {
@@ -294,6 +341,11 @@ public class ExecutionEngine extends SimpleInstrumentation {
                             return;
                         }
 
+                        // the aggregation is completed by AggregateDecorator, and result may have been dropped.
+                        if (sourceTask.isAggregate()) {
+                            return;
+                        }
+
                         if (sourceTask.getMapper() == null) {
                             sourceTask.getTaskFuture().complete(result);
                         } else {
@@ -325,6 +377,35 @@ public class ExecutionEngine extends SimpleInstrumentation {
         return engineState.getFetchSourceTaskByPath().get(fieldFullPath);
     }
 
+    /**
+     * Get the index of list element which the path is in, or -1 if the path is in nested list.
+     */
+    private static int listElementIndex(ResultPath resultPath) {
+        int index = -1;
+        for (ResultPath path = resultPath; path != null && !path.isRootPath(); path = path.getParent()) {
+            if (path.isListSegment()) {
+                if (index != -1) {
+                    return -1;
+                }
+                index = path.getSegmentIndex();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * The elements of top list are indexed by the position, so that the futures of fields in elements
+     * can be stored in the slots of pre-sized array, except the fields in nested list.
+     */
+    private void presizeListElementFutures(FetchSourceTask sourceTask, int size) {
+        for (FetchSourceTask child : sourceTask.getChildrenTaskList()) {
+            child.presizeListElementFutures(size);
+            if (!child.isListType()) {
+                presizeListElementFutures(child, size);
+            }
+        }
+    }
+
     private void completeChildrenTask(FetchSourceTask sourceTask) {
         for (FetchSourceTask child : sourceTask.getChildrenTaskList()) {
             completeChildrenTask(child);
@@ -333,23 +414,19 @@ public class ExecutionEngine extends SimpleInstrumentation {
                 continue;
             }
 
+            // the value of node which is not annotated is never used.
             if (!child.isAnnotatedNode()) {
                 child.completeWithDummyValue();
+                child.releaseListElementFutures();
+                continue;
             }
 
-            ArrayList<CompletableFuture<Object>> elementResultFuture = child.getListElementFutures();
-            CompletableFuture<Object>[] elementFutureArray = elementResultFuture.toArray(new CompletableFuture[0]);
-            CompletableFuture.allOf(elementFutureArray).whenComplete((ignore, ex) -> {
+            child.accumulateListElementValues().whenComplete((listResult, ex) -> {
                 if (ex != null) {
                     child.getTaskFuture().completeExceptionally(ex);
                     return;
                 }
 
-                ArrayList<Object> listResult = new ArrayList<>(elementResultFuture.size());
-                for (CompletableFuture<Object> elementFuture : elementResultFuture) {
-                    listResult.add(elementFuture.join());
-                }
-
                 if (child.getMapper() == null) {
                     child.getTaskFuture().complete(listResult);
                 } else {
@@ -379,6 +456,9 @@ public class ExecutionEngine extends SimpleInstrumentation {
         strategyComposite.addStrategy(new FilterDecorator());
         strategyComposite.addStrategy(new SortDecorator());
         strategyComposite.addStrategy(new SortByDecorator());
+        strategyComposite.addStrategy(new TopNDecorator());
+        strategyComposite.addStrategy(new SliceDecorator());
+        strategyComposite.addStrategy(new AggregateDecorator());
         strategyComposite.addStrategy(new DistinctDecorator());
         strategyComposite.addStrategy(new MapDecorator());
         strategyComposite.addStrategy(new ArgumentTransformDecorator());
@@ -390,6 +470,7 @@ public class ExecutionEngine extends SimpleInstrumentation {
         fieldValueHandlerComposite.addFieldValueHandler(new DistinctHandler());
         fieldValueHandlerComposite.addFieldValueHandler(new SortHandler());
         fieldValueHandlerComposite.addFieldValueHandler(new SortByHandler());
+        fieldValueHandlerComposite.addFieldValueHandler(new SliceHandler());
     }
 
     @Override
@@ -437,6 +518,16 @@ public class ExecutionEngine extends SimpleInstrumentation {
             return super.beginFieldListComplete(parameters, state);
         }
 
+        FetchSourceTask listTask = parseFetchSourceTask(
+                (ExecutionEngineState) state, fieldPath(parameters.getExecutionStrategyParameters().getPath())
+        );
+        Object listValue = parameters.getFetchedValue();
+        // the size of PartitionedList is unknown until all the partitions are fetched.
+        if (listTask != null && listTask.isTopTask() && !(listValue instanceof PartitionedList)
+                && (listValue instanceof Collection || (listValue != null && listValue.getClass().isArray()))) {
+            presizeListElementFutures(listTask, CollectionUtil.arraySize(listValue));
+        }
+
         return new InstrumentationContext<ExecutionResult>() {
             @Override
             public void onDispatched(CompletableFuture<ExecutionResult> result) {
@@ -466,7 +557,7 @@ public class ExecutionEngine extends SimpleInstrumentation {
 
                 List<Directive> directives = parameters.getExecutionStepInfo().getField().getSingleField().getDirectives();
                 if (directives != null && !directives.isEmpty()) {
-                    transformListResultByDirectives(result, directives, parameters);
+                    transformListResultByDirectives(result, directives, parameters, (ExecutionEngineState) state);
                 }
             }
         };
@@ -474,17 +565,39 @@ public class ExecutionEngine extends SimpleInstrumentation {
 
     private void transformListResultByDirectives(ExecutionResult result,
                                                  List<Directive> directives,
-                                                 InstrumentationFieldCompleteParameters parameters) {
+                                                 InstrumentationFieldCompleteParameters parameters,
+                                                 ExecutionEngineState engineState) {
+        List<ListStage> listStages = new ArrayList<>();
         for (Directive directive : directives) {
-
-            HandleEnvironment handleEnvironment = new HandleEnvironment(
-                    directive, result, parameters, executor, objectMapper, scriptEvaluator
-            );
+            if (isListPushdown(directive, parameters, engineState)) {
+                // the directive has been applied by decorator when fetched.
+                continue;
+            }
 
             if (fieldValueHandlerComposite.supportDirective(directive)) {
-                fieldValueHandlerComposite.transformListResultByDirectives(handleEnvironment);
+                HandleEnvironment handleEnvironment = new HandleEnvironment(
+                        directive, result, parameters, executor, objectMapper, scriptEvaluator, engineState
+                );
+                listStages.add(fieldValueHandlerComposite.createStage(handleEnvironment));
             }
         }
+
+        if (!listStages.isEmpty()) {
+            ListPipeline.compile(listStages).apply(result.getData(), objectMapper, parallelListThreshold, executor);
+        }
+    }
+
+    private boolean isListPushdown(Directive directive, InstrumentationFieldCompleteParameters parameters, ExecutionEngineState engineState) {
+        ExecutionStepInfo executionStepInfo = parameters.getExecutionStepInfo();
+        return ListPushdown.isPushdown(
+                directive,
+                fieldPath(parameters.getExecutionStrategyParameters().getPath()),
+                executionStepInfo.getField().getSingleField(),
+                executionStepInfo.getFieldDefinition(),
+                parameters.getExecutionContext().getGraphQLSchema().getCodeRegistry(),
+                scriptEvaluator,
+                engineState
+        );
     }
 
 }
\ No newline at end of file
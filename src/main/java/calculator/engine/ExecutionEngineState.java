@@ -18,16 +18,29 @@ package calculator.engine;
 
 
 import calculator.engine.annotation.Internal;
+import calculator.engine.handler.ListStage;
 import calculator.engine.metadata.FetchSourceTask;
+import graphql.GraphQLContext;
 import graphql.execution.instrumentation.InstrumentationState;
+import graphql.language.Directive;
+import graphql.schema.GraphQLFieldDefinition;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static calculator.common.GraphQLUtil.PATH_SEPARATOR;
+
 
 @Internal
 public class ExecutionEngineState implements InstrumentationState {
@@ -41,16 +54,178 @@ public class ExecutionEngineState implements InstrumentationState {
     // <sourceName,List<fullFieldPath>>
     private final Map<String, List<String>> queryTaskBySourceName;
 
+    // <sourceName,List<fullFieldPath>>, the fields which depend on the source by 'dependencySources'.
+    private final Map<String, List<String>> consumerBySourceName;
+
+    private volatile List<String> criticalPath;
+
+    private volatile Set<String> sourcePaths;
+
+    // <[fieldFullPath, fieldDefinition, directive], whether the list directive is applied on the fetched list>
+    private final Map<List<Object>, Boolean> listPushdownByKey = new ConcurrentHashMap<>();
+
+    // <directive, the stage parsed from the arguments of directive>
+    private final Map<Directive, ListStage> listStageByDirective = new ConcurrentHashMap<>();
+
+    // the futures created for this execution and still running.
+    private final Set<CompletableFuture<?>> trackedFutures = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled = false;
+
     private ExecutionEngineState(
             boolean containSkipByOrIncludeBy,
             Map<String, FetchSourceTask> fetchSourceTaskByPath,
             Map<String, List<String>> topTaskByNode,
-            Map<String, List<String>> queryTaskByNode
+            Map<String, List<String>> queryTaskByNode,
+            Map<String, List<String>> consumerBySourceName
     ) {
         this.containSkipByOrIncludeBy = containSkipByOrIncludeBy;
         this.fetchSourceTaskByPath = Collections.unmodifiableMap(fetchSourceTaskByPath);
         this.topTaskBySourceName = Collections.unmodifiableMap(topTaskByNode);
         this.queryTaskBySourceName = Collections.unmodifiableMap(queryTaskByNode);
+        this.consumerBySourceName = Collections.unmodifiableMap(consumerBySourceName);
+        for (FetchSourceTask fetchSourceTask : fetchSourceTaskByPath.values()) {
+            trackFuture(fetchSourceTask.getTaskFuture());
+        }
+        for (String sourceName : topTaskBySourceName.keySet()) {
+            completeSourceByPath(sourceName);
+        }
+    }
+
+    /**
+     * The value of source will never be fetched if any field in the path of source is resolved as null or failed,
+     * complete the value with null or the exception at that time, so that the consumers can wait the source without blocking.
+     */
+    private void completeSourceByPath(String sourceName) {
+        List<String> topTaskPathList = topTaskBySourceName.get(sourceName);
+        CompletableFuture<Object> valueFuture = fetchSourceTaskByPath.get(
+                topTaskPathList.get(topTaskPathList.size() - 1)
+        ).getTaskFuture();
+
+        List<String> pathList = new ArrayList<>(queryTaskBySourceName.getOrDefault(sourceName, Collections.emptyList()));
+        pathList.addAll(topTaskPathList.subList(0, topTaskPathList.size() - 1));
+        for (String fieldPath : pathList) {
+            fetchSourceTaskByPath.get(fieldPath).getTaskFuture().whenComplete((result, ex) -> {
+                if (ex != null) {
+                    valueFuture.completeExceptionally(ex);
+                } else if (result == null) {
+                    valueFuture.complete(null);
+                }
+            });
+        }
+    }
+
+    /**
+     * Get a future which is completed when all the sources are completed, normally or exceptionally,
+     * the fields depending on the sources are fetched at that time instead of waiting for the sources on a thread.
+     *
+     * @param sourceNames the names of sources
+     * @return the future completed with null when all the sources are completed
+     */
+    public CompletableFuture<Void> whenSourcesCompleted(List<String> sourceNames) {
+        CompletableFuture<?>[] valueFutures = new CompletableFuture<?>[sourceNames.size()];
+        for (int i = 0; i < sourceNames.size(); i++) {
+            List<String> topTaskPathList = topTaskBySourceName.get(sourceNames.get(i));
+            valueFutures[i] = fetchSourceTaskByPath.get(topTaskPathList.get(topTaskPathList.size() - 1)).getTaskFuture();
+        }
+
+        return CompletableFuture.allOf(valueFutures).handle((ignore, ex) -> null);
+    }
+
+    /**
+     * Whether the list directive on the field is applied on the fetched list before completed, it is decided
+     * once when the field is decorated, and reused when the completed list is transformed by the directives.
+     *
+     * <p>The list directives are never pushed down if there is '@fetchSource' under the field,
+     * whose value is collected from all the elements of list.
+     *
+     * @param fieldFullPath    the full path of list field
+     * @param fieldDefinition  the definition of list field
+     * @param directive        the list directive on field
+     * @param pushdownSupplier whether the directive can be pushed down, only invoked once for the field
+     * @return true if the directive is applied on the fetched list
+     */
+    public boolean isListPushdown(String fieldFullPath,
+                                  GraphQLFieldDefinition fieldDefinition,
+                                  Directive directive,
+                                  Supplier<Boolean> pushdownSupplier) {
+        // the nodes are compared by identity, the fields at the same path may be selected by different fragments.
+        return listPushdownByKey.computeIfAbsent(
+                Arrays.asList(fieldFullPath, fieldDefinition, directive),
+                key -> !hasFetchSourceUnder(fieldFullPath) && pushdownSupplier.get()
+        );
+    }
+
+    /**
+     * Get the stage of list directive which keeps no state for the list, it is created from the arguments of directive
+     * once for the execution, and reused by all the lists which the directive is applied on.
+     *
+     * @param directive    the list directive
+     * @param stageFactory create the stage by the directive, only invoked once for the directive
+     * @return the stage of directive
+     */
+    public ListStage getListStage(Directive directive, Function<Directive, ListStage> stageFactory) {
+        // the directive is compared by identity, each directive in the document is parsed once.
+        return listStageByDirective.computeIfAbsent(directive, stageFactory);
+    }
+
+    private boolean hasFetchSourceUnder(String fieldFullPath) {
+        String pathPrefix = fieldFullPath + PATH_SEPARATOR;
+        for (String taskPath : fetchSourceTaskByPath.keySet()) {
+            if (taskPath.startsWith(pathPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the state of the execution which the context belongs to.
+     *
+     * @param context the context of execution
+     * @return the state of the execution, or null if the execution is not handled by calculator engine
+     */
+    public static ExecutionEngineState getFromContext(GraphQLContext context) {
+        if (context == null) {
+            return null;
+        }
+        return context.get(ExecutionEngineState.class);
+    }
+
+    /**
+     * Track the future created for this execution, the future will be cancelled
+     * if the execution is cancelled before the future completed.
+     *
+     * @param future the future to be tracked
+     * @param <T>    the result type of future
+     * @return the tracked future
+     */
+    public <T> CompletableFuture<T> trackFuture(CompletableFuture<T> future) {
+        if (future == null || future.isDone()) {
+            return future;
+        }
+
+        trackedFutures.add(future);
+        future.whenComplete((ignore, ex) -> trackedFutures.remove(future));
+        // the execution may be cancelled when adding future
+        if (cancelled) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * Cancel all the tracked futures which are still running, and the future tracked later will be cancelled immediately.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (CompletableFuture<?> future : trackedFutures) {
+            future.cancel(true);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
     }
 
     public boolean isContainSkipByOrIncludeBy() {
@@ -69,6 +244,98 @@ public class ExecutionEngineState implements InstrumentationState {
         return queryTaskBySourceName;
     }
 
+    public Map<String, List<String>> getConsumerBySourceName() {
+        return consumerBySourceName;
+    }
+
+    /**
+     * Get the paths from root to the sources which have consumers, the fields on these paths are dispatched
+     * before their sibling fields, so that the sources are fetched as early as possible.
+     *
+     * @return the full paths of fields on the way to the sources which have consumers
+     */
+    public Set<String> getSourcePaths() {
+        if (sourcePaths == null) {
+            Set<String> paths = new HashSet<>();
+            for (String sourceName : consumerBySourceName.keySet()) {
+                paths.addAll(queryTaskBySourceName.getOrDefault(sourceName, Collections.emptyList()));
+                paths.addAll(topTaskBySourceName.getOrDefault(sourceName, Collections.emptyList()));
+            }
+            sourcePaths = Collections.unmodifiableSet(paths);
+        }
+        return sourcePaths;
+    }
+
+    /**
+     * Get the longest chain of sources in the operation, in which each source is fetched by a field whose path
+     * contains a consumer of the previous source, so that the sources in the chain can only be fetched one by one.
+     *
+     * @return the names of sources on the critical path in dependency order, empty if there are no dependent sources
+     */
+    public List<String> getCriticalPath() {
+        if (criticalPath == null) {
+            criticalPath = Collections.unmodifiableList(computeCriticalPath());
+        }
+        return criticalPath;
+    }
+
+    private List<String> computeCriticalPath() {
+        // <sourceName, the sources fetched after it>
+        Map<String, List<String>> downstreamBySourceName = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : consumerBySourceName.entrySet()) {
+            List<String> downstreamSources = new ArrayList<>();
+            for (String sourceName : topTaskBySourceName.keySet()) {
+                List<String> sourcePathList = new ArrayList<>(queryTaskBySourceName.getOrDefault(sourceName, Collections.emptyList()));
+                sourcePathList.addAll(topTaskBySourceName.get(sourceName));
+                if (!Objects.equals(sourceName, entry.getKey())
+                        && entry.getValue().stream().anyMatch(sourcePathList::contains)) {
+                    downstreamSources.add(sourceName);
+                }
+            }
+            downstreamBySourceName.put(entry.getKey(), downstreamSources);
+        }
+
+        Map<String, List<String>> longestPathBySourceName = new LinkedHashMap<>();
+        List<String> criticalPath = Collections.emptyList();
+        for (String sourceName : consumerBySourceName.keySet()) {
+            List<String> longestPath = longestPath(sourceName, downstreamBySourceName, longestPathBySourceName, new HashSet<>());
+            if (longestPath.size() > criticalPath.size()) {
+                criticalPath = longestPath;
+            }
+        }
+        return criticalPath;
+    }
+
+    private List<String> longestPath(String sourceName,
+                                     Map<String, List<String>> downstreamBySourceName,
+                                     Map<String, List<String>> longestPathBySourceName,
+                                     Set<String> visiting) {
+        List<String> cachedPath = longestPathBySourceName.get(sourceName);
+        if (cachedPath != null) {
+            return cachedPath;
+        }
+
+        // circular dependency is rejected by validation, just stop here.
+        if (!visiting.add(sourceName)) {
+            return Collections.emptyList();
+        }
+
+        List<String> longestDownstreamPath = Collections.emptyList();
+        for (String downstreamSource : downstreamBySourceName.getOrDefault(sourceName, Collections.emptyList())) {
+            List<String> downstreamPath = longestPath(downstreamSource, downstreamBySourceName, longestPathBySourceName, visiting);
+            if (downstreamPath.size() > longestDownstreamPath.size()) {
+                longestDownstreamPath = downstreamPath;
+            }
+        }
+        visiting.remove(sourceName);
+
+        List<String> path = new ArrayList<>(longestDownstreamPath.size() + 1);
+        path.add(sourceName);
+        path.addAll(longestDownstreamPath);
+        longestPathBySourceName.put(sourceName, path);
+        return path;
+    }
+
     public static Builder newExecutionState() {
         return new Builder();
     }
@@ -83,6 +350,8 @@ public class ExecutionEngineState implements InstrumentationState {
 
         private Map<String, List<String>> queryTaskBySourceName = new LinkedHashMap<>();
 
+        private Map<String, List<String>> consumerBySourceName = new LinkedHashMap<>();
+
 
         public Builder containSkipByOrIncludeBy() {
             containSkipByOrIncludeBy = true;
@@ -125,8 +394,18 @@ public class ExecutionEngineState implements InstrumentationState {
             return this;
         }
 
+        public Builder consumer(String sourceName, String fieldFullPath) {
+            List<String> consumers = consumerBySourceName.computeIfAbsent(sourceName, key -> new ArrayList<>());
+            if (!consumers.contains(fieldFullPath)) {
+                consumers.add(fieldFullPath);
+            }
+            return this;
+        }
+
         public ExecutionEngineState build() {
-            return new ExecutionEngineState(containSkipByOrIncludeBy, fetchSourceTaskByPath, topTaskBySourceName, queryTaskBySourceName);
+            return new ExecutionEngineState(
+                    containSkipByOrIncludeBy, fetchSourceTaskByPath, topTaskBySourceName, queryTaskBySourceName, consumerBySourceName
+            );
         }
     }
 }
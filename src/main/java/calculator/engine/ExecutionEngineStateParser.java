@@ -34,6 +34,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static calculator.common.CommonUtil.getDependenceSourceFromDirective;
 import static calculator.common.GraphQLUtil.isInList;
 import static calculator.common.GraphQLUtil.isListNode;
 import static calculator.common.GraphQLUtil.parentPathList;
@@ -57,6 +58,7 @@ public class ExecutionEngineStateParser implements QueryVisitor {
             return;
         }
         determineContainSkipByOrIncludeBy(environment.getField().getDirectives());
+        parseConsumerInfo(environment);
 
         List<Directive> directives = environment.getField().getDirectives(Directives.FETCH_SOURCE.getName());
         if (directives != null && !directives.isEmpty()) {
@@ -67,12 +69,45 @@ public class ExecutionEngineStateParser implements QueryVisitor {
 
             ArrayList<String> topTaskPathList = new ArrayList<>();
             ArrayList<String> queryTaskPathList = new ArrayList<>();
-            parseFetchSourceInfo(sourceName, true, sourceConvert, environment, topTaskPathList, queryTaskPathList);
+            parseFetchSourceInfo(sourceName, true, sourceConvert, false, environment, topTaskPathList, queryTaskPathList);
             // traverserContext is shared in a visitor-operation.
             environment.getTraverserContext().setAccumulate(null);
             engineStateBuilder.topTaskList(sourceName, topTaskPathList);
             engineStateBuilder.queryTaskList(sourceName, queryTaskPathList);
         }
+
+        // the aggregation of list is used as the value of source, @aggregate is not in list.
+        List<Directive> aggregateDirectives = environment.getField().getDirectives(Directives.AGGREGATE.getName());
+        if (aggregateDirectives != null && !aggregateDirectives.isEmpty()) {
+            String sourceName = getArgumentFromDirective(aggregateDirectives.get(0), "name");
+
+            ArrayList<String> topTaskPathList = new ArrayList<>();
+            ArrayList<String> queryTaskPathList = new ArrayList<>();
+            parseFetchSourceInfo(sourceName, true, null, true, environment, topTaskPathList, queryTaskPathList);
+            environment.getTraverserContext().setAccumulate(null);
+            engineStateBuilder.topTaskList(sourceName, topTaskPathList);
+            engineStateBuilder.queryTaskList(sourceName, queryTaskPathList);
+        }
+    }
+
+    /**
+     * 保存 source 到依赖该 source 的字段的边，用于在 source 完成时触发依赖字段的执行、以及计算请求的关键路径。
+     */
+    private void parseConsumerInfo(QueryVisitorFieldEnvironment environment) {
+        String fieldFullPath = null;
+        for (Directive directive : environment.getField().getDirectives()) {
+            List<String> dependencySources = getDependenceSourceFromDirective(directive);
+            if (dependencySources == null || dependencySources.isEmpty()) {
+                continue;
+            }
+
+            if (fieldFullPath == null) {
+                fieldFullPath = pathForTraverse(environment);
+            }
+            for (String sourceName : dependencySources) {
+                engineStateBuilder.consumer(sourceName, fieldFullPath);
+            }
+        }
     }
 
     /**
@@ -83,6 +118,7 @@ public class ExecutionEngineStateParser implements QueryVisitor {
      *
      * @param isAnnotatedNode   是否是递归调用该方法，即是否是被 @fetchSource 注解的节点
      * @param sourceConvert     获取 fetchSource 后进行数据转换的表达式
+     * @param isAggregate       是否是 @aggregate 注解的节点，其值为列表的聚合结果
      * @param visitorEnv        请求变量
      * @param topTaskPathList   @fetchSource 注解的节点完成所依赖的顶层节点。
      * @param queryTaskPathList 顶层节点的父亲节点。这部分节点如果解析失败，则获取@fetchSource值的异步任务不会执行。
@@ -90,6 +126,7 @@ public class ExecutionEngineStateParser implements QueryVisitor {
     private void parseFetchSourceInfo(String sourceName,
                                       boolean isAnnotatedNode,
                                       String sourceConvert,
+                                      boolean isAggregate,
                                       QueryVisitorFieldEnvironment visitorEnv,
                                       ArrayList<String> topTaskPathList,
                                       ArrayList<String> queryTaskPathList) {
@@ -111,6 +148,7 @@ public class ExecutionEngineStateParser implements QueryVisitor {
                         .taskFuture(new CompletableFuture<>())
                         .mapper(sourceConvert)
                         .resultKey(visitorEnv.getField().getResultKey())
+                        .isAggregate(isAggregate)
                         .build();
                 visitorEnv.getTraverserContext().setAccumulate(task);
                 engineStateBuilder.fetchSourceTask(fieldFullPath, task);
@@ -136,7 +174,7 @@ public class ExecutionEngineStateParser implements QueryVisitor {
         // 先递归解析父节点的原因：在创建自节点对应的NodeTask时需要设置parentTask，
         // 并将当前节点代表的任务设置为parentTask的子任务。
         parseFetchSourceInfo(
-                null, false, null,
+                null, false, null, false,
                 visitorEnv.getParentEnvironment(), topTaskPathList, queryTaskPathList
         );
         // 递归执行该逻辑，因此 topTaskPathList 中的节点顺序也是从上到下的
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.PropertyDataFetcher;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Build the key of field fetch from field coordinate, the normalized arguments and the property of source object,
+ * the fetches with same key get the same result.
+ */
+@Internal
+class FieldKey {
+
+    private final String fieldCoordinate;
+
+    // fetch the property of source object which is part of key, may be null.
+    private final DataFetcher<?> sourceKeyFetcher;
+
+    FieldKey(String fieldCoordinate, String sourceKey) {
+        this.fieldCoordinate = fieldCoordinate;
+        this.sourceKeyFetcher = sourceKey != null ? PropertyDataFetcher.fetching(sourceKey) : null;
+    }
+
+    String getFieldCoordinate() {
+        return fieldCoordinate;
+    }
+
+    /**
+     * Encode the key as string, which is used by the String-keyed {@link calculator.engine.cache.FieldCache}.
+     *
+     * <p>Each part is length-prefixed and tagged with its type, so that the different keys never have the same
+     * encoding, e.g. the string argument containing separators, or {@code "1"}, {@code 1} and {@code 1L}.
+     */
+    String of(DataFetchingEnvironment environment) throws Exception {
+        StringBuilder key = new StringBuilder();
+        appendString(key, fieldCoordinate);
+        if (sourceKeyFetcher != null) {
+            appendValue(key, sourceKeyFetcher.get(environment));
+        }
+        appendValue(key, environment.getArguments());
+        return key.toString();
+    }
+
+    // the entries of input object are sorted, so that the argument values in different order has same key.
+    private static void appendValue(StringBuilder key, Object value) {
+        if (value == null) {
+            key.append('n');
+            return;
+        }
+
+        if (value instanceof String) {
+            key.append('s');
+            appendString(key, (String) value);
+            return;
+        }
+
+        if (value instanceof Map) {
+            Map<String, Object> sortedMap = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sortedMap.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            key.append('m').append(sortedMap.size()).append('{');
+            for (Map.Entry<String, Object> entry : sortedMap.entrySet()) {
+                appendString(key, entry.getKey());
+                appendValue(key, entry.getValue());
+            }
+            key.append('}');
+            return;
+        }
+
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            key.append('l').append(collection.size()).append('[');
+            for (Object element : collection) {
+                appendValue(key, element);
+            }
+            key.append(']');
+            return;
+        }
+
+        // number, boolean, enum and the other scalar values.
+        key.append('o');
+        appendString(key, value.getClass().getName());
+        appendString(key, value.toString());
+    }
+
+    private static void appendString(StringBuilder key, String value) {
+        key.append(value.length()).append(':').append(value);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The token bucket which limits the extra load of hedged partition invocations, shared by all the
+ * {@code @partition} fields of a schema.
+ *
+ * <p>Each primary invocation deposits {@code ratio} token, and each hedged invocation takes one token,
+ * so that hedged invocations are at most {@code ratio} of primary invocations.
+ */
+@Internal
+public class HedgeBudget {
+
+    // tokens are stored as thousandths.
+    private static final long TOKEN_UNIT = 1000;
+
+    private static final long MAX_TOKENS = 100 * TOKEN_UNIT;
+
+    private final long depositPerInvocation;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    public HedgeBudget(double ratio) {
+        this.depositPerInvocation = (long) (ratio * TOKEN_UNIT);
+    }
+
+    public void deposit() {
+        if (depositPerInvocation <= 0) {
+            return;
+        }
+        tokens.accumulateAndGet(depositPerInvocation, (current, deposit) -> Math.min(MAX_TOKENS, current + deposit));
+    }
+
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN_UNIT) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN_UNIT));
+        return true;
+    }
+}
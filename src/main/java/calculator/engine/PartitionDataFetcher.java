@@ -17,9 +17,13 @@
 
 package calculator.engine;
 
+import calculator.config.Config;
 import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.Directives;
+import graphql.language.BooleanValue;
+import graphql.language.FloatValue;
 import graphql.language.IntValue;
+import graphql.language.StringValue;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.DataFetchingEnvironmentImpl;
@@ -36,11 +40,17 @@ import graphql.util.TraverserContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 @Internal
@@ -50,14 +60,69 @@ public class PartitionDataFetcher implements DataFetcher<Object> {
 
     private final int partitionSize;
 
+    /**
+     * The max count of partitions which are invoking at the same time,
+     * partitions are invoked one by one on the calling thread if it's not positive.
+     */
+    private final int concurrency;
+
     private final String argumentName;
 
     private final DataFetcher<Object> delegate;
 
-    private PartitionDataFetcher(int partitionSize, String argumentName, DataFetcher<Object> delegate) {
+    private final Executor executor;
+
+    /**
+     * Adjust partition size by the latency of partitions, null if partition size is fixed.
+     */
+    private final PartitionSizeController sizeController;
+
+    /**
+     * Whether remove the duplicate argument values before partitioning.
+     */
+    private final boolean deduplicate;
+
+    /**
+     * The key of result element which is equal to argument value, used to restore
+     * the order and multiplicity of original argument values, nullable.
+     */
+    private final String resultKey;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Return {@link PartitionedList} for async partitions, so that the elements of
+     * finished partitions can be completed before all partitions finished.
+     */
+    private final boolean stream;
+
+    /**
+     * Hedge the slow async partitions, null if hedging is disabled.
+     */
+    private final PartitionHedger hedger;
+
+    private PartitionDataFetcher(int partitionSize,
+                                 int concurrency,
+                                 String argumentName,
+                                 DataFetcher<Object> delegate,
+                                 Executor executor,
+                                 PartitionSizeController sizeController,
+                                 boolean deduplicate,
+                                 String resultKey,
+                                 ObjectMapper objectMapper,
+                                 boolean stream,
+                                 PartitionHedger hedger) {
         this.partitionSize = partitionSize;
+        this.concurrency = concurrency;
         this.argumentName = argumentName;
         this.delegate = delegate;
+        this.executor = executor;
+        this.sizeController = sizeController;
+        this.deduplicate = deduplicate;
+        this.resultKey = resultKey;
+        this.objectMapper = objectMapper;
+        this.stream = stream;
+        this.hedger = hedger;
     }
 
     @Override
@@ -68,37 +133,275 @@ public class PartitionDataFetcher implements DataFetcher<Object> {
             return delegate.get(environment);
         }
 
-        List result = new ArrayList<>();
-        boolean isAsyncResult = false;
-        for (int i = 0; i < argumentValue.size(); i += partitionSize) {
-            int toIndex = Math.min((i + 1) * partitionSize, argumentValue.size());
-            List<Object> partitionArgumentValue = argumentValue.subList(i, toIndex);
+        if (deduplicate) {
+            List<Object> distinctArgumentValue = distinctArgumentValue(argumentValue);
+            if (distinctArgumentValue.size() < argumentValue.size()) {
+                Object result = partitionGet(environment, distinctArgumentValue);
+                if (resultKey == null) {
+                    return result;
+                }
+
+                // result can only be fanned out when all partitions are finished.
+                if (result instanceof PartitionedList) {
+                    result = flatFutureList(((PartitionedList) result).getPartitions());
+                }
+
+                if (result instanceof CompletableFuture) {
+                    return ((CompletableFuture<List<Object>>) result).thenApply(
+                            distinctResult -> fanOutResult(argumentValue, distinctResult)
+                    );
+                }
+                return fanOutResult(argumentValue, (List<Object>) result);
+            }
+        }
+
+        return partitionGet(environment, argumentValue);
+    }
+
+    private List<Object> distinctArgumentValue(List<Object> argumentValue) {
+        Map<Object, Object> argumentByKey = new LinkedHashMap<>(argumentValue.size() * 2);
+        for (Object value : argumentValue) {
+            argumentByKey.putIfAbsent(normalizeKey(value), value);
+        }
+        return new ArrayList<>(argumentByKey.values());
+    }
+
+    /**
+     * Restore the order and multiplicity of original argument values,
+     * the argument value which has no result element is skipped.
+     */
+    private List<Object> fanOutResult(List<Object> argumentValue, List<Object> distinctResult) {
+        if (distinctResult == null) {
+            return null;
+        }
+
+        Map<Object, Object> elementByKey = new LinkedHashMap<>(distinctResult.size() * 2);
+        for (Object element : distinctResult) {
+            if (element != null) {
+                elementByKey.putIfAbsent(normalizeKey(getResultKey(element)), element);
+            }
+        }
 
-            Map<String, Object> newArguments = new LinkedHashMap<>(environment.getArguments());
-            newArguments.put(argumentName, partitionArgumentValue);
+        List<Object> result = new ArrayList<>(argumentValue.size());
+        for (Object value : argumentValue) {
+            Object element = elementByKey.get(normalizeKey(value));
+            if (element != null) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    private Object getResultKey(Object element) {
+        Object elementInfo = element instanceof Map ? element : objectMapper.toSimpleCollection(element);
+        if (elementInfo instanceof Map) {
+            return ((Map<?, ?>) elementInfo).get(resultKey);
+        }
+        return null;
+    }
+
+    // argument value and result key may be different integral type, e.g. Integer and Long.
+    private static Object normalizeKey(Object key) {
+        if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        if (key instanceof BigInteger && ((BigInteger) key).bitLength() < 64) {
+            return ((BigInteger) key).longValue();
+        }
+        return key;
+    }
 
-            DataFetchingEnvironment partitionEnv = DataFetchingEnvironmentImpl
-                    .newDataFetchingEnvironment(environment)
-                    .arguments(newArguments)
-                    .build();
+    private Object partitionGet(DataFetchingEnvironment environment, List<Object> argumentValue) throws Exception {
+        ExecutionEngineState engineState = ExecutionEngineState.getFromContext(environment.getGraphQlContext());
+        int size = sizeController != null ? sizeController.getCurrentSize() : partitionSize;
+        int partitionCount = (argumentValue.size() + size - 1) / size;
+        if (concurrency > 0 && partitionCount > 1) {
+            List<CompletableFuture<List<Object>>> partitionFutures = concurrentGet(
+                    environment, argumentValue, size, partitionCount, engineState
+            );
+            return stream ? new PartitionedList(partitionFutures) : flatFutureList(partitionFutures);
+        }
 
-            Object delegateResult = delegate.get(partitionEnv);
+        List<CompletableFuture<List<Object>>> partitionFutures = new ArrayList<>(partitionCount);
+        boolean isAsyncResult = false;
+        for (int i = 0; i < partitionCount; i++) {
+            Object delegateResult = invokeDelegate(partitionEnvironment(environment, argumentValue, size, i));
             if (delegateResult instanceof CompletableFuture) {
                 isAsyncResult = true;
-                result.add(delegateResult);
-            } else if (delegateResult instanceof List) {
-                result.addAll((List) delegateResult);
-            } else if (delegateResult != null) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("unexpected result type: {}", delegateResult.getClass().getName());
+                if (engineState != null) {
+                    engineState.trackFuture((CompletableFuture<?>) delegateResult);
+                }
+                CompletableFuture<Object> delegateFuture = (CompletableFuture<Object>) delegateResult;
+                CompletableFuture<List<Object>> partitionFuture = delegateFuture.thenApply(this::toPartitionResult);
+                partitionFuture.whenComplete((ignored, exception) -> {
+                    if (partitionFuture.isCancelled()) {
+                        delegateFuture.cancel(true);
+                    }
+                });
+                partitionFutures.add(partitionFuture);
+            } else {
+                partitionFutures.add(CompletableFuture.completedFuture(toPartitionResult(delegateResult)));
+            }
+        }
+
+        if (isAsyncResult) {
+            return stream ? new PartitionedList(partitionFutures) : flatFutureList(partitionFutures);
+        }
+
+        List<Object> result = new ArrayList<>(argumentValue.size());
+        for (CompletableFuture<List<Object>> partitionFuture : partitionFutures) {
+            result.addAll(partitionFuture.join());
+        }
+        return result;
+    }
+
+    private List<Object> toPartitionResult(Object delegateResult) {
+        if (delegateResult instanceof List) {
+            return (List<Object>) delegateResult;
+        }
+
+        if (delegateResult != null && logger.isDebugEnabled()) {
+            logger.debug("unexpected result type: {}", delegateResult.getClass().getName());
+        }
+        return Collections.emptyList();
+    }
+
+    private Object invokeDelegate(DataFetchingEnvironment partitionEnvironment) throws Exception {
+        Object delegateResult = invokeDelegateWithStatistics(partitionEnvironment);
+        if (hedger != null && delegateResult instanceof CompletableFuture) {
+            return hedger.hedge((CompletableFuture<Object>) delegateResult, () -> delegate.get(partitionEnvironment));
+        }
+        return delegateResult;
+    }
+
+    private Object invokeDelegateWithStatistics(DataFetchingEnvironment partitionEnvironment) throws Exception {
+        if (sizeController == null) {
+            return delegate.get(partitionEnvironment);
+        }
+
+        long startTime = System.nanoTime();
+        Object delegateResult;
+        try {
+            delegateResult = delegate.get(partitionEnvironment);
+        } catch (Exception e) {
+            sizeController.record(System.nanoTime() - startTime, true);
+            throw e;
+        }
+
+        if (delegateResult instanceof CompletableFuture) {
+            ((CompletableFuture<?>) delegateResult).whenComplete((ignored, exception) -> {
+                // cancellation is not the fault of downstream service.
+                if (!((CompletableFuture<?>) delegateResult).isCancelled()) {
+                    sizeController.record(System.nanoTime() - startTime, exception != null);
+                }
+            });
+        } else {
+            sizeController.record(System.nanoTime() - startTime, false);
+        }
+        return delegateResult;
+    }
+
+    private DataFetchingEnvironment partitionEnvironment(DataFetchingEnvironment environment,
+                                                         List<Object> argumentValue,
+                                                         int size,
+                                                         int partitionIndex) {
+        int fromIndex = partitionIndex * size;
+        int toIndex = Math.min(fromIndex + size, argumentValue.size());
+        List<Object> partitionArgumentValue = argumentValue.subList(fromIndex, toIndex);
+
+        Map<String, Object> newArguments = new LinkedHashMap<>(environment.getArguments());
+        newArguments.put(argumentName, partitionArgumentValue);
+
+        return DataFetchingEnvironmentImpl
+                .newDataFetchingEnvironment(environment)
+                .arguments(newArguments)
+                .build();
+    }
+
+    /**
+     * Invoke partitions on executor, at most {@code concurrency} partitions are in flight.
+     * Each worker takes the next partition when the previous one is finished.
+     *
+     * <p>If any partition failed, the partitions which are not finished will be failed with the same exception.
+     */
+    private List<CompletableFuture<List<Object>>> concurrentGet(DataFetchingEnvironment environment,
+                                                                List<Object> argumentValue,
+                                                                int size,
+                                                                int partitionCount,
+                                                                ExecutionEngineState engineState) {
+        List<CompletableFuture<List<Object>>> partitionFutures = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitionFutures.add(new CompletableFuture<>());
+        }
+        AtomicInteger nextPartition = new AtomicInteger();
+
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                int partitionIndex;
+                while ((partitionIndex = nextPartition.getAndIncrement()) < partitionCount) {
+                    CompletableFuture<List<Object>> partitionFuture = partitionFutures.get(partitionIndex);
+                    // cancelled or failed.
+                    if (partitionFuture.isDone()) {
+                        continue;
+                    }
+
+                    Object delegateResult;
+                    try {
+                        delegateResult = invokeDelegate(partitionEnvironment(environment, argumentValue, size, partitionIndex));
+                    } catch (Throwable e) {
+                        failPartitions(partitionFutures, e);
+                        return;
+                    }
+
+                    if (delegateResult instanceof CompletableFuture) {
+                        CompletableFuture<?> delegateFuture = (CompletableFuture<?>) delegateResult;
+                        if (engineState != null) {
+                            engineState.trackFuture(delegateFuture);
+                        }
+                        partitionFuture.whenComplete((ignored, exception) -> {
+                            if (exception != null) {
+                                delegateFuture.cancel(true);
+                            }
+                        });
+
+                        Runnable nextWorker = this;
+                        delegateFuture.whenComplete((partitionResult, exception) -> {
+                            if (exception != null) {
+                                failPartitions(partitionFutures, exception);
+                                return;
+                            }
+                            partitionFuture.complete(toPartitionResult(partitionResult));
+                            if (nextPartition.get() < partitionCount) {
+                                try {
+                                    executor.execute(nextWorker);
+                                } catch (Throwable e) {
+                                    failPartitions(partitionFutures, e);
+                                }
+                            }
+                        });
+                        return;
+                    }
+
+                    partitionFuture.complete(toPartitionResult(delegateResult));
                 }
             }
+        };
+
+        int workerCount = Math.min(concurrency, partitionCount);
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                executor.execute(worker);
+            }
+        } catch (Throwable e) {
+            failPartitions(partitionFutures, e);
         }
+        return partitionFutures;
+    }
 
-        if(isAsyncResult){
-            return flatFutureList(result);
-        }else{
-            return result;
+    private static void failPartitions(List<CompletableFuture<List<Object>>> partitionFutures, Throwable exception) {
+        for (CompletableFuture<List<Object>> partitionFuture : partitionFutures) {
+            partitionFuture.completeExceptionally(exception);
         }
     }
 
@@ -115,12 +418,20 @@ public class PartitionDataFetcher implements DataFetcher<Object> {
                     List<Object> results = new ArrayList<>(arrayOfFutures.length);
                     for (CompletableFuture<List<Object>> future : arrayOfFutures) {
                         List<Object> joinResult = future.join();
-                        if (joinResult != null || !joinResult.isEmpty()) {
+                        if (joinResult != null && !joinResult.isEmpty()) {
                             results.addAll(joinResult);
                         }
                     }
                     resultFuture.complete(results);
                 });
+        // the partitions which are still running is useless if the result is cancelled.
+        resultFuture.whenComplete((ignored, exception) -> {
+            if (resultFuture.isCancelled()) {
+                for (CompletableFuture<List<Object>> future : arrayOfFutures) {
+                    future.cancel(true);
+                }
+            }
+        });
         return resultFuture;
     }
 
@@ -131,6 +442,7 @@ public class PartitionDataFetcher implements DataFetcher<Object> {
             for (GraphQLArgument argument : fieldDefinition.getArguments()) {
                 if (argument.getDirective(Directives.PARTITION.getName()) != null) {
                     GraphQLCodeRegistry.Builder codeRegistry = context.getVarFromParents(GraphQLCodeRegistry.Builder.class);
+                    Config config = context.getVarFromParents(Config.class);
                     GraphQLFieldsContainer parent = (GraphQLFieldsContainer) context.getParentNode();
                     DataFetcher originalDataFetcher = codeRegistry.getDataFetcher(parent, fieldDefinition);
 
@@ -138,9 +450,24 @@ public class PartitionDataFetcher implements DataFetcher<Object> {
 
                     GraphQLArgument directiveArgument = partitionDirective.getArgument("size");
                     IntValue intValue = (IntValue) directiveArgument.getArgumentValue().getValue();
-                    DataFetcher<?> partition = new PartitionDataFetcher(
-                            intValue.getValue().intValue(), argument.getName(), originalDataFetcher
-                    );
+                    int partitionSize = intValue.getValue().intValue();
+                    DataFetcher<?> partition = newPartitionDataFetcher()
+                            .partitionSize(partitionSize)
+                            .concurrency(getIntArgument(partitionDirective, "concurrency", 0))
+                            .argumentName(argument.getName())
+                            .delegate(originalDataFetcher)
+                            .executor(config.getExecutor())
+                            .sizeController(createSizeController(parent, fieldDefinition, partitionDirective, partitionSize, config))
+                            .deduplicate(getArgumentValue(partitionDirective, "deduplicate") instanceof BooleanValue
+                                    && ((BooleanValue) getArgumentValue(partitionDirective, "deduplicate")).isValue())
+                            .resultKey(getArgumentValue(partitionDirective, "resultKey") instanceof StringValue
+                                    ? ((StringValue) getArgumentValue(partitionDirective, "resultKey")).getValue()
+                                    : null)
+                            .objectMapper(config.getObjectMapper())
+                            .stream(getArgumentValue(partitionDirective, "stream") instanceof BooleanValue
+                                    && ((BooleanValue) getArgumentValue(partitionDirective, "stream")).isValue())
+                            .hedger(createHedger(parent, fieldDefinition, partitionDirective, context.getVarFromParents(HedgeBudget.class), config))
+                            .build();
 
                     codeRegistry.dataFetcher(parent, fieldDefinition, partition);
                 }
@@ -149,4 +476,160 @@ public class PartitionDataFetcher implements DataFetcher<Object> {
             return TraversalControl.CONTINUE;
         }
     };
+
+    // partition size is adaptive if targetLatency is set.
+    private static PartitionSizeController createSizeController(GraphQLFieldsContainer parent,
+                                                                GraphQLFieldDefinition fieldDefinition,
+                                                                GraphQLDirective partitionDirective,
+                                                                int partitionSize,
+                                                                Config config) {
+        int targetLatency = getIntArgument(partitionDirective, "targetLatency", 0);
+        if (targetLatency <= 0) {
+            return null;
+        }
+
+        return new PartitionSizeController(
+                parent.getName() + "." + fieldDefinition.getName(),
+                partitionSize,
+                getIntArgument(partitionDirective, "minSize", 1),
+                getIntArgument(partitionDirective, "maxSize", partitionSize),
+                TimeUnit.MILLISECONDS.toNanos(targetLatency),
+                getRatioArgument(partitionDirective, "maxFailureRatio", PartitionSizeController.DEFAULT_MAX_FAILURE_RATIO),
+                config.getMetrics()
+        );
+    }
+
+    private static PartitionHedger createHedger(GraphQLFieldsContainer parent,
+                                                GraphQLFieldDefinition fieldDefinition,
+                                                GraphQLDirective partitionDirective,
+                                                HedgeBudget hedgeBudget,
+                                                Config config) {
+        int hedgeAfterPercentile = getIntArgument(partitionDirective, "hedgeAfterPercentile", 0);
+        if (hedgeAfterPercentile <= 0 || hedgeBudget == null) {
+            return null;
+        }
+
+        return new PartitionHedger(
+                parent.getName() + "." + fieldDefinition.getName(),
+                hedgeAfterPercentile,
+                hedgeBudget,
+                config.getExecutor(),
+                config.getMetrics()
+        );
+    }
+
+    private static int getIntArgument(GraphQLDirective partitionDirective, String argumentName, int defaultValue) {
+        Object argumentValue = getArgumentValue(partitionDirective, argumentName);
+        if (!(argumentValue instanceof IntValue)) {
+            return defaultValue;
+        }
+        return ((IntValue) argumentValue).getValue().intValue();
+    }
+
+    private static double getRatioArgument(GraphQLDirective partitionDirective, String argumentName, double defaultValue) {
+        Object argumentValue = getArgumentValue(partitionDirective, argumentName);
+        if (argumentValue instanceof FloatValue) {
+            return ((FloatValue) argumentValue).getValue().doubleValue();
+        }
+        if (argumentValue instanceof IntValue) {
+            return ((IntValue) argumentValue).getValue().doubleValue();
+        }
+        return defaultValue;
+    }
+
+    private static Object getArgumentValue(GraphQLDirective partitionDirective, String argumentName) {
+        GraphQLArgument argument = partitionDirective.getArgument(argumentName);
+        return argument != null ? argument.getArgumentValue().getValue() : null;
+    }
+
+    public static Builder newPartitionDataFetcher() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int partitionSize;
+
+        private int concurrency;
+
+        private String argumentName;
+
+        private DataFetcher<Object> delegate;
+
+        private Executor executor;
+
+        private PartitionSizeController sizeController;
+
+        private boolean deduplicate;
+
+        private String resultKey;
+
+        private ObjectMapper objectMapper;
+
+        private boolean stream;
+
+        private PartitionHedger hedger;
+
+        public Builder partitionSize(int partitionSize) {
+            this.partitionSize = partitionSize;
+            return this;
+        }
+
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder argumentName(String argumentName) {
+            this.argumentName = Objects.requireNonNull(argumentName);
+            return this;
+        }
+
+        public Builder delegate(DataFetcher<Object> delegate) {
+            this.delegate = Objects.requireNonNull(delegate);
+            return this;
+        }
+
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        public Builder sizeController(PartitionSizeController sizeController) {
+            this.sizeController = sizeController;
+            return this;
+        }
+
+        public Builder deduplicate(boolean deduplicate) {
+            this.deduplicate = deduplicate;
+            return this;
+        }
+
+        public Builder resultKey(String resultKey) {
+            this.resultKey = resultKey;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = Objects.requireNonNull(objectMapper);
+            return this;
+        }
+
+        public Builder stream(boolean stream) {
+            this.stream = stream;
+            return this;
+        }
+
+        public Builder hedger(PartitionHedger hedger) {
+            this.hedger = hedger;
+            return this;
+        }
+
+        public PartitionDataFetcher build() {
+            return new PartitionDataFetcher(
+                    partitionSize, concurrency, argumentName, delegate, executor,
+                    sizeController, deduplicate, resultKey, objectMapper, stream, hedger
+            );
+        }
+    }
 }
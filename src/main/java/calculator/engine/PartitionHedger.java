@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+import calculator.engine.metrics.CalculatorMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issue a duplicate invocation for the async partition which runs longer than the
+ * {@code percentile} latency of recent partitions, the first finished one is used and the other is cancelled.
+ *
+ * <p>Partition is not hedged until there are enough latency samples, or if the {@link HedgeBudget} is exhausted.
+ */
+@Internal
+public class PartitionHedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionHedger.class);
+
+    static final int MIN_SAMPLES = 20;
+
+    private static final int WINDOW_SIZE = 128;
+
+    // recompute hedge delay every 16 samples.
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private static final ScheduledExecutorService HEDGE_TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "calculator-partition-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String fieldCoordinate;
+
+    private final int percentile;
+
+    private final HedgeBudget budget;
+
+    private final Executor executor;
+
+    private final CalculatorMetrics metrics;
+
+    private final long[] latencyWindow = new long[WINDOW_SIZE];
+
+    private long sampleCount;
+
+    private volatile long hedgeDelayNanos = -1;
+
+    PartitionHedger(String fieldCoordinate, int percentile, HedgeBudget budget,
+                    Executor executor, CalculatorMetrics metrics) {
+        this.fieldCoordinate = fieldCoordinate;
+        this.percentile = percentile;
+        this.budget = budget;
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    public CompletableFuture<Object> hedge(CompletableFuture<Object> primaryFuture, Callable<Object> hedgeInvocation) {
+        long startTime = System.nanoTime();
+        budget.deposit();
+
+        CompletableFuture<Object> resultFuture = new CompletableFuture<>();
+        primaryFuture.whenComplete((result, exception) -> {
+            if (exception != null) {
+                resultFuture.completeExceptionally(exception);
+            } else {
+                resultFuture.complete(result);
+            }
+        });
+
+        long delay = hedgeDelayNanos;
+        ScheduledFuture<?> hedgeTimer = null;
+        if (delay > 0 && !resultFuture.isDone()) {
+            hedgeTimer = HEDGE_TIMER.schedule(
+                    () -> issueHedge(primaryFuture, resultFuture, hedgeInvocation), delay, TimeUnit.NANOSECONDS
+            );
+        }
+
+        ScheduledFuture<?> finalHedgeTimer = hedgeTimer;
+        resultFuture.whenComplete((result, exception) -> {
+            if (finalHedgeTimer != null) {
+                finalHedgeTimer.cancel(false);
+            }
+            if (resultFuture.isCancelled()) {
+                primaryFuture.cancel(true);
+            } else {
+                record(System.nanoTime() - startTime);
+            }
+        });
+        return resultFuture;
+    }
+
+    private void issueHedge(CompletableFuture<Object> primaryFuture,
+                            CompletableFuture<Object> resultFuture,
+                            Callable<Object> hedgeInvocation) {
+        if (resultFuture.isDone() || !budget.tryAcquire()) {
+            return;
+        }
+        metrics.hedgeIssued(fieldCoordinate);
+
+        executor.execute(() -> {
+            if (resultFuture.isDone()) {
+                return;
+            }
+
+            Object hedgeResult;
+            try {
+                hedgeResult = hedgeInvocation.call();
+            } catch (Throwable e) {
+                // the primary invocation is still running.
+                if (logger.isDebugEnabled()) {
+                    logger.debug("hedged invocation of {} failed.", fieldCoordinate, e);
+                }
+                return;
+            }
+
+            if (!(hedgeResult instanceof CompletableFuture)) {
+                completeByHedge(primaryFuture, resultFuture, hedgeResult);
+                return;
+            }
+
+            CompletableFuture<?> hedgeFuture = (CompletableFuture<?>) hedgeResult;
+            resultFuture.whenComplete((ignored, exception) -> hedgeFuture.cancel(true));
+            hedgeFuture.whenComplete((result, exception) -> {
+                if (exception == null) {
+                    completeByHedge(primaryFuture, resultFuture, result);
+                }
+            });
+        });
+    }
+
+    private void completeByHedge(CompletableFuture<Object> primaryFuture, CompletableFuture<Object> resultFuture, Object result) {
+        if (resultFuture.complete(result)) {
+            metrics.hedgeWon(fieldCoordinate);
+            primaryFuture.cancel(true);
+        }
+    }
+
+    private synchronized void record(long latencyNanos) {
+        latencyWindow[(int) (sampleCount % WINDOW_SIZE)] = latencyNanos;
+        sampleCount++;
+        if (sampleCount < MIN_SAMPLES || (sampleCount % RECOMPUTE_INTERVAL != 0 && hedgeDelayNanos > 0)) {
+            return;
+        }
+
+        int size = (int) Math.min(sampleCount, WINDOW_SIZE);
+        long[] sortedLatency = Arrays.copyOf(latencyWindow, size);
+        Arrays.sort(sortedLatency);
+        hedgeDelayNanos = sortedLatency[Math.max(0, (int) Math.ceil(size * percentile / 100.0) - 1)];
+    }
+
+    long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+import calculator.engine.metrics.CalculatorMetrics;
+
+import java.util.Arrays;
+
+/**
+ * Adjust the partition size of adaptive {@code @partition} field by AIMD(additive increase, multiplicative decrease).
+ *
+ * <p>The latency and failure of every partition invocation are recorded in a sample window, when the window is full:
+ * the size is halved if the ratio of failed invocations exceeds maxFailureRatio or the p99 latency exceeds the target
+ * latency, otherwise the size is increased by a tenth of it(at least 1). The size is always in [minSize, maxSize].
+ *
+ * <p>The p99 latency is the nearest-rank percentile of the window, i.e. the largest latency is excluded.
+ */
+@Internal
+public class PartitionSizeController {
+
+    static final int WINDOW_SIZE = 100;
+
+    static final double DEFAULT_MAX_FAILURE_RATIO = 0.1;
+
+    private final String fieldCoordinate;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final long targetLatencyNanos;
+
+    private final double maxFailureRatio;
+
+    private final CalculatorMetrics metrics;
+
+    private final long[] latencyWindow = new long[WINDOW_SIZE];
+
+    private int sampleCount;
+
+    private int failureCount;
+
+    private volatile int currentSize;
+
+    PartitionSizeController(String fieldCoordinate, int initialSize, int minSize, int maxSize,
+                            long targetLatencyNanos, double maxFailureRatio, CalculatorMetrics metrics) {
+        this.fieldCoordinate = fieldCoordinate;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.maxFailureRatio = maxFailureRatio;
+        this.metrics = metrics;
+        this.currentSize = Math.max(minSize, Math.min(maxSize, initialSize));
+    }
+
+    public int getCurrentSize() {
+        return currentSize;
+    }
+
+    public synchronized void record(long latencyNanos, boolean failed) {
+        latencyWindow[sampleCount++] = latencyNanos;
+        if (failed) {
+            failureCount++;
+        }
+
+        if (sampleCount < WINDOW_SIZE) {
+            return;
+        }
+
+        long[] sortedLatency = Arrays.copyOf(latencyWindow, sampleCount);
+        Arrays.sort(sortedLatency);
+        long p99Latency = sortedLatency[(int) Math.ceil(sampleCount * 0.99) - 1];
+
+        int size = currentSize;
+        int newSize;
+        if (failureCount > sampleCount * maxFailureRatio || p99Latency > targetLatencyNanos) {
+            newSize = Math.max(minSize, size / 2);
+        } else {
+            newSize = Math.min(maxSize, size + Math.max(1, size / 10));
+        }
+        sampleCount = 0;
+        failureCount = 0;
+
+        if (newSize != size) {
+            currentSize = newSize;
+            metrics.partitionSize(fieldCoordinate, newSize);
+        }
+    }
+}
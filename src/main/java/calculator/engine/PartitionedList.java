@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The result of streaming {@code @partition} field, which is composed of the partition results in order.
+ *
+ * <p>{@link calculator.graphql.AsyncExecutionStrategy} completes the elements of the finished partitions
+ * before the others are finished, by {@link #getPartitions()} without blocking.
+ *
+ * <p>It's intended to be consumed by {@link calculator.graphql.AsyncExecutionStrategy} only. The {@link java.util.List}
+ * methods, e.g. {@link #get(int)} and {@link #size()}, block the calling thread until all the partitions are finished,
+ * so other consumers should use {@link #getPartitions()} instead. {@code BasicRule} rejects the list directives
+ * and {@code @fetchSource} which read the list before completed on or under the streaming field.
+ */
+@Internal
+public class PartitionedList extends AbstractList<Object> {
+
+    private final List<CompletableFuture<List<Object>>> partitions;
+
+    private volatile List<Object> joinedList;
+
+    public PartitionedList(List<CompletableFuture<List<Object>>> partitions) {
+        this.partitions = partitions;
+    }
+
+    public List<CompletableFuture<List<Object>>> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Block until all the partitions are finished, see the class comment.
+     */
+    @Override
+    public Object get(int index) {
+        return joinedList().get(index);
+    }
+
+    /**
+     * Block until all the partitions are finished, see the class comment.
+     */
+    @Override
+    public int size() {
+        return joinedList().size();
+    }
+
+    private List<Object> joinedList() {
+        List<Object> result = joinedList;
+        if (result == null) {
+            result = new ArrayList<>();
+            for (CompletableFuture<List<Object>> partition : partitions) {
+                result.addAll(partition.join());
+            }
+            joinedList = result;
+        }
+        return result;
+    }
+}
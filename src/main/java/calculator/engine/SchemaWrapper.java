@@ -28,8 +28,10 @@ import graphql.schema.GraphQLSchema;
 import graphql.schema.SchemaTraverser;
 import graphql.util.TraverserResult;
 
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static calculator.engine.metadata.Directives.ARGUMENT_TRANSFORM_TYPE;
@@ -55,10 +57,19 @@ public class SchemaWrapper {
 
         SchemaTraverser schemaTraverser = new SchemaTraverser();
         GraphQLCodeRegistry.Builder codeRegistry = GraphQLCodeRegistry.newCodeRegistry(resultSchema.getCodeRegistry());
+        Map<Class<?>, Object> rootVars = new LinkedHashMap<>();
+        rootVars.put(GraphQLCodeRegistry.Builder.class, codeRegistry);
+        rootVars.put(Config.class, config);
+        rootVars.put(HedgeBudget.class, new HedgeBudget(config.getHedgeRatio()));
         TraverserResult traverserResult = schemaTraverser.depthFirstFullSchema(
-                Collections.singletonList(PartitionDataFetcher.TYPE_VISITOR),
+                Arrays.asList(
+                        PartitionDataFetcher.TYPE_VISITOR,
+                        BatchingDataFetcher.TYPE_VISITOR,
+                        SingleFlightDataFetcher.TYPE_VISITOR,
+                        CachedDataFetcher.TYPE_VISITOR
+                ),
                 resultSchema,
-                Collections.singletonMap(GraphQLCodeRegistry.Builder.class, codeRegistry)
+                rootVars
         );
 
         return resultSchema.transform(builder -> builder.codeRegistry(codeRegistry.build()));
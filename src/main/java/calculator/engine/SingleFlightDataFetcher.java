@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.config.Config;
+import calculator.engine.annotation.Internal;
+import calculator.engine.metadata.Directives;
+import calculator.engine.metrics.CalculatorMetrics;
+import graphql.language.StringValue;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLSchemaElement;
+import graphql.schema.GraphQLTypeVisitor;
+import graphql.schema.GraphQLTypeVisitorStub;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Coalesce the concurrent fetches of {@code @singleFlight} field with same key into one invocation of delegate,
+ * the fetches across requests share the result of the in-flight invocation.
+ *
+ * <p>Every fetch gets its own dependent future of the shared one, so that cancelling a request
+ * doesn't cancel the invocation which other requests are waiting for.
+ */
+@Internal
+public class SingleFlightDataFetcher implements DataFetcher<Object> {
+
+    private final FieldKey fieldKey;
+
+    private final DataFetcher<?> delegate;
+
+    private final CalculatorMetrics metrics;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlightFetches = new ConcurrentHashMap<>();
+
+    SingleFlightDataFetcher(FieldKey fieldKey, DataFetcher<?> delegate, CalculatorMetrics metrics) {
+        this.fieldKey = fieldKey;
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) throws Exception {
+        String key = fieldKey.of(environment);
+        CompletableFuture<Object> sharedFuture = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightFuture = inFlightFetches.putIfAbsent(key, sharedFuture);
+        if (inFlightFuture != null) {
+            metrics.singleFlightFetch(fieldKey.getFieldCoordinate(), true);
+            return inFlightFuture.thenApply(Function.identity());
+        }
+
+        metrics.singleFlightFetch(fieldKey.getFieldCoordinate(), false);
+        Object result;
+        try {
+            result = delegate.get(environment);
+        } catch (Throwable e) {
+            inFlightFetches.remove(key, sharedFuture);
+            sharedFuture.completeExceptionally(e);
+            throw e;
+        }
+
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, exception) -> {
+                inFlightFetches.remove(key, sharedFuture);
+                if (exception != null) {
+                    sharedFuture.completeExceptionally(exception);
+                } else {
+                    sharedFuture.complete(value);
+                }
+            });
+            return sharedFuture.thenApply(Function.identity());
+        }
+
+        inFlightFetches.remove(key, sharedFuture);
+        sharedFuture.complete(result);
+        return result;
+    }
+
+    static GraphQLTypeVisitor TYPE_VISITOR = new GraphQLTypeVisitorStub() {
+        @Override
+        public TraversalControl visitGraphQLFieldDefinition(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
+            GraphQLDirective singleFlightDirective = fieldDefinition.getDirective(Directives.SINGLE_FLIGHT.getName());
+            if (singleFlightDirective == null) {
+                return TraversalControl.CONTINUE;
+            }
+
+            GraphQLCodeRegistry.Builder codeRegistry = context.getVarFromParents(GraphQLCodeRegistry.Builder.class);
+            Config config = context.getVarFromParents(Config.class);
+            GraphQLFieldsContainer parent = (GraphQLFieldsContainer) context.getParentNode();
+            GraphQLArgument keyArgument = singleFlightDirective.getArgument("key");
+            Object key = keyArgument != null ? keyArgument.getArgumentValue().getValue() : null;
+            FieldKey fieldKey = new FieldKey(
+                    parent.getName() + "." + fieldDefinition.getName(),
+                    key instanceof StringValue ? ((StringValue) key).getValue() : null
+            );
+            DataFetcher<?> singleFlight = new SingleFlightDataFetcher(
+                    fieldKey, codeRegistry.getDataFetcher(parent, fieldDefinition), config.getMetrics()
+            );
+            codeRegistry.dataFetcher(parent, fieldDefinition, singleFlight);
+            return TraversalControl.CONTINUE;
+        }
+    };
+}
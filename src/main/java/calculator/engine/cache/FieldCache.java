@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.cache;
+
+import calculator.engine.annotation.PublicApi;
+
+/**
+ * The cache of field results which is shared by requests, used by {@code @cached} field.
+ *
+ * <p>The key is built from the field coordinate, the normalized arguments and the value of
+ * {@code @cached(key:)} on source object. Implementations must be thread safe and should not block.
+ */
+@PublicApi
+public interface FieldCache {
+
+    /**
+     * @param key the cache key
+     * @return the cached entry, or null if there is no entry for the key
+     */
+    FieldCacheEntry get(String key);
+
+    /**
+     * Put the entry into cache, the implementation can evict entries to keep cache bounded.
+     *
+     * @param key   the cache key
+     * @param entry the entry to be cached
+     */
+    void put(String key, FieldCacheEntry entry);
+
+    /**
+     * @param key the cache key which will be removed from cache
+     */
+    void invalidate(String key);
+}
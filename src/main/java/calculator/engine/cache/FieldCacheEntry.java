@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.cache;
+
+import calculator.engine.annotation.PublicApi;
+
+/**
+ * The field result cached in {@link FieldCache} and the time it was fetched.
+ */
+@PublicApi
+public final class FieldCacheEntry {
+
+    private final Object value;
+
+    private final long writeTime;
+
+    public FieldCacheEntry(Object value, long writeTime) {
+        this.value = value;
+        this.writeTime = writeTime;
+    }
+
+    /**
+     * @return the result of field, which may be null
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * @return the time in milliseconds when the result was fetched
+     */
+    public long getWriteTime() {
+        return writeTime;
+    }
+}
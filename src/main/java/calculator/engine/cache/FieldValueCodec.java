@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.cache;
+
+import calculator.engine.annotation.Internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compact binary encoding of the results which are made up of {@code ObjectMapper#toSimpleCollection} shapes:
+ * null, boolean, number, string, list and map.
+ *
+ * <p>Each value is written as one tag byte followed by its payload, integers and lengths are written as varint.
+ * Enum is encoded as its name. Other objects are rejected rather than converted by {@code toSimpleCollection},
+ * because the converted map can't be serialized as custom scalar.
+ */
+@Internal
+class FieldValueCodec {
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte BIG_INTEGER = 9;
+    private static final byte BIG_DECIMAL = 10;
+    private static final byte STRING = 11;
+    private static final byte LIST = 12;
+    private static final byte MAP = 13;
+
+    /**
+     * @throws IllegalArgumentException if the value contains the object which is not simple shape
+     */
+    static byte[] encode(Object value) {
+        Output output = new Output();
+        write(output, value);
+        return output.toByteArray();
+    }
+
+    static Object decode(byte[] bytes) {
+        Input input = new Input(bytes);
+        Object value = read(input);
+        if (input.position != bytes.length) {
+            throw new IllegalArgumentException("unexpected trailing bytes.");
+        }
+        return value;
+    }
+
+    private static void write(Output output, Object value) {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Byte) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT);
+            output.writeVarLong(zigZag((Short) value));
+        } else if (value instanceof Integer) {
+            output.writeByte(INT);
+            output.writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeVarLong(zigZag((Long) value));
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFixed(Float.floatToIntBits((Float) value), 4);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeFixed(Double.doubleToLongBits((Double) value), 8);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BIG_INTEGER);
+            output.writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(BIG_DECIMAL);
+            output.writeVarLong(zigZag(((BigDecimal) value).scale()));
+            output.writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            output.writeByte(STRING);
+            output.writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Enum) {
+            output.writeByte(STRING);
+            output.writeBytes(((Enum<?>) value).name().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            output.writeByte(LIST);
+            output.writeVarLong(collection.size());
+            for (Object element : collection) {
+                write(output, element);
+            }
+        } else if (value instanceof Object[]) {
+            write(output, Arrays.asList((Object[]) value));
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            output.writeByte(MAP);
+            output.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(output, entry.getKey());
+                write(output, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("unsupported type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object read(Input input) {
+        byte tag = input.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTE:
+                return input.readByte();
+            case SHORT:
+                return (short) unZigZag(input.readVarLong());
+            case INT:
+                return (int) unZigZag(input.readVarLong());
+            case LONG:
+                return unZigZag(input.readVarLong());
+            case FLOAT:
+                return Float.intBitsToFloat((int) input.readFixed(4));
+            case DOUBLE:
+                return Double.longBitsToDouble(input.readFixed(8));
+            case BIG_INTEGER:
+                return new BigInteger(input.readBytes());
+            case BIG_DECIMAL:
+                int scale = (int) unZigZag(input.readVarLong());
+                return new BigDecimal(new BigInteger(input.readBytes()), scale);
+            case STRING:
+                return new String(input.readBytes(), StandardCharsets.UTF_8);
+            case LIST:
+                int size = (int) input.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(input));
+                }
+                return list;
+            case MAP:
+                int entryCount = (int) input.readVarLong();
+                Map<Object, Object> map = new LinkedHashMap<>((int) (entryCount / 0.75f) + 1);
+                for (int i = 0; i < entryCount; i++) {
+                    Object key = read(input);
+                    map.put(key, read(input));
+                }
+                return map;
+            default:
+                throw new IllegalArgumentException("unknown tag: " + tag);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Output {
+
+        private byte[] buffer = new byte[256];
+
+        private int position;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeFixed(long value, int byteCount) {
+            ensureCapacity(byteCount);
+            for (int i = byteCount - 1; i >= 0; i--) {
+                buffer[position++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static class Input {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        Input(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("malformed varint.");
+        }
+
+        long readFixed(int byteCount) {
+            long value = 0;
+            for (int i = 0; i < byteCount; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] readBytes() {
+            int length = (int) readVarLong();
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.cache;
+
+import calculator.engine.annotation.PublicApi;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link FieldCache} which stores the encoded results in direct {@link ByteBuffer} slabs, so that large results
+ * don't add to GC pause time.
+ *
+ * <p>The slabs are divided into fixed size blocks, and each result is stored in as many blocks as it needs.
+ * Slabs are allocated lazily until the capacity is reached, then the least recently used results are evicted.
+ * The results are decoded on each read, only null, boolean, number, string, enum, list and map can be stored,
+ * {@link #put} ignores the other results and the results larger than capacity.
+ */
+@PublicApi
+public class OffHeapFieldCache implements FieldCache {
+
+    private static final int DEFAULT_BLOCK_SIZE = 8 * 1024;
+
+    private static final int MAX_SLAB_SIZE = 64 * 1024 * 1024;
+
+    private final int blockSize;
+
+    private final int blocksPerSlab;
+
+    private final int maxBlockCount;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+
+    private final Deque<Integer> freeBlocks = new ArrayDeque<>();
+
+    // the count of blocks in allocated slabs.
+    private int allocatedBlockCount;
+
+    private final LinkedHashMap<String, StoredEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long usedBytes;
+
+    public OffHeapFieldCache(long capacity) {
+        this(capacity, DEFAULT_BLOCK_SIZE);
+    }
+
+    public OffHeapFieldCache(long capacity, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive.");
+        }
+        if (capacity < blockSize) {
+            throw new IllegalArgumentException("capacity must not be less than blockSize.");
+        }
+
+        this.blockSize = blockSize;
+        this.blocksPerSlab = Math.max(1, MAX_SLAB_SIZE / blockSize);
+        this.maxBlockCount = (int) Math.min(Integer.MAX_VALUE, capacity / blockSize);
+    }
+
+    @Override
+    public FieldCacheEntry get(String key) {
+        byte[] bytes;
+        long writeTime;
+        synchronized (this) {
+            StoredEntry storedEntry = entries.get(key);
+            if (storedEntry == null) {
+                return null;
+            }
+            bytes = read(storedEntry);
+            writeTime = storedEntry.writeTime;
+        }
+        return new FieldCacheEntry(FieldValueCodec.decode(bytes), writeTime);
+    }
+
+    @Override
+    public void put(String key, FieldCacheEntry entry) {
+        byte[] bytes;
+        try {
+            bytes = FieldValueCodec.encode(entry.getValue());
+        } catch (IllegalArgumentException e) {
+            invalidate(key);
+            return;
+        }
+        put(key, bytes, entry.getWriteTime());
+    }
+
+    /**
+     * Put the encoded result into cache.
+     *
+     * @return false if the result is larger than capacity
+     */
+    synchronized boolean put(String key, byte[] bytes, long writeTime) {
+        removeEntry(key);
+
+        int blockCount = Math.max(1, (bytes.length + blockSize - 1) / blockSize);
+        if (blockCount > maxBlockCount) {
+            return false;
+        }
+
+        Iterator<StoredEntry> eldestEntries = entries.values().iterator();
+        while (availableBlockCount() < blockCount) {
+            StoredEntry eldest = eldestEntries.next();
+            eldestEntries.remove();
+            release(eldest);
+        }
+
+        int[] blocks = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            blocks[i] = allocateBlock();
+        }
+
+        StoredEntry storedEntry = new StoredEntry(blocks, bytes.length, writeTime);
+        write(storedEntry, bytes);
+        entries.put(key, storedEntry);
+        usedBytes += bytes.length;
+        return true;
+    }
+
+    @Override
+    public synchronized void invalidate(String key) {
+        removeEntry(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the encoded bytes of the cached results
+     */
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private void removeEntry(String key) {
+        StoredEntry storedEntry = entries.remove(key);
+        if (storedEntry != null) {
+            release(storedEntry);
+        }
+    }
+
+    private int availableBlockCount() {
+        return freeBlocks.size() + maxBlockCount - allocatedBlockCount;
+    }
+
+    private int allocateBlock() {
+        if (freeBlocks.isEmpty()) {
+            int slabBlockCount = Math.min(blocksPerSlab, maxBlockCount - allocatedBlockCount);
+            int firstBlock = slabs.size() * blocksPerSlab;
+            slabs.add(ByteBuffer.allocateDirect(slabBlockCount * blockSize));
+            allocatedBlockCount += slabBlockCount;
+            for (int i = 0; i < slabBlockCount; i++) {
+                freeBlocks.add(firstBlock + i);
+            }
+        }
+        return freeBlocks.pop();
+    }
+
+    private void release(StoredEntry storedEntry) {
+        for (int block : storedEntry.blocks) {
+            freeBlocks.push(block);
+        }
+        usedBytes -= storedEntry.length;
+    }
+
+    private void write(StoredEntry storedEntry, byte[] bytes) {
+        int offset = 0;
+        for (int block : storedEntry.blocks) {
+            int length = Math.min(blockSize, bytes.length - offset);
+            ByteBuffer slab = slabs.get(block / blocksPerSlab);
+            ((Buffer) slab).position((block % blocksPerSlab) * blockSize);
+            slab.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private byte[] read(StoredEntry storedEntry) {
+        byte[] bytes = new byte[storedEntry.length];
+        int offset = 0;
+        for (int block : storedEntry.blocks) {
+            int length = Math.min(blockSize, bytes.length - offset);
+            ByteBuffer slab = slabs.get(block / blocksPerSlab);
+            ((Buffer) slab).position((block % blocksPerSlab) * blockSize);
+            slab.get(bytes, offset, length);
+            offset += length;
+        }
+        return bytes;
+    }
+
+    private static class StoredEntry {
+
+        private final int[] blocks;
+
+        private final int length;
+
+        private final long writeTime;
+
+        StoredEntry(int[] blocks, int length, long writeTime) {
+            this.blocks = blocks;
+            this.length = length;
+            this.writeTime = writeTime;
+        }
+    }
+}
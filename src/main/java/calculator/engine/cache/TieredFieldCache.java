@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.cache;
+
+import calculator.engine.annotation.PublicApi;
+import graphql.execution.DataFetcherResult;
+
+import java.util.Objects;
+
+/**
+ * The {@link FieldCache} which keeps small results in heap cache, and moves the results whose encoded size is not
+ * less than offHeapThreshold into {@link OffHeapFieldCache}.
+ *
+ * <p>{@code DataFetcherResult} and the results which can't be encoded are always kept in heap cache.
+ */
+@PublicApi
+public class TieredFieldCache implements FieldCache {
+
+    private final FieldCache heapCache;
+
+    private final OffHeapFieldCache offHeapCache;
+
+    private final int offHeapThreshold;
+
+    public TieredFieldCache(FieldCache heapCache, OffHeapFieldCache offHeapCache, int offHeapThreshold) {
+        this.heapCache = Objects.requireNonNull(heapCache, "heapCache can not be null.");
+        this.offHeapCache = Objects.requireNonNull(offHeapCache, "offHeapCache can not be null.");
+        this.offHeapThreshold = offHeapThreshold;
+    }
+
+    @Override
+    public FieldCacheEntry get(String key) {
+        FieldCacheEntry entry = heapCache.get(key);
+        return entry != null ? entry : offHeapCache.get(key);
+    }
+
+    @Override
+    public void put(String key, FieldCacheEntry entry) {
+        if (!(entry.getValue() instanceof DataFetcherResult)) {
+            byte[] bytes;
+            try {
+                bytes = FieldValueCodec.encode(entry.getValue());
+            } catch (IllegalArgumentException e) {
+                bytes = null;
+            }
+
+            if (bytes != null && bytes.length >= offHeapThreshold
+                    && offHeapCache.put(key, bytes, entry.getWriteTime())) {
+                heapCache.invalidate(key);
+                return;
+            }
+        }
+
+        offHeapCache.invalidate(key);
+        heapCache.put(key, entry);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        heapCache.invalidate(key);
+        offHeapCache.invalidate(key);
+    }
+}
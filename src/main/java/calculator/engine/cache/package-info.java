@@ -18,15 +18,15 @@
 /**
  * 用于实现缓存指令。
  *
- * kp：缓存并不涉及到数据的计算、好像不应该在这个项目中实现、而且最优的实现方式应该是 自定义指令+自定义DataFetcher；
- *     但是 自定义指令+自定义DataFetcher 对于入门开发者来说也有很大学习和试错成本，因此在此项目进行一些探索、实现
- *     仍然含有很大意义。
+ * cached(ttl:Int!,staleWhileRevalidate:Int,key:String)
  *
- * cache(cacheName:String,maxSize:Int,refreshAfterWrite:Int,expireAfterWrite:Int,expireAfterAccess:Int,ext:String)
+ * - ttl：缓存结果的有效时间(毫秒)；
+ * - staleWhileRevalidate：缓存过期后仍可返回旧结果的时间(毫秒)，返回旧结果时在线程池中异步刷新缓存；
+ * - key：父节点对象中参与缓存key计算的字段名称。
  *
- * - cacheName：使用的缓存名称
- * - ext: 额外配置；
- * - 其他：同guava；
+ * 缓存key由字段坐标、归一化后的参数和key对应的值组成，缓存的存储由 {@link calculator.engine.cache.FieldCache} 实现、
+ * 通过 {@code Config#getFieldCache} 配置，默认为按LRU淘汰的 {@link calculator.engine.cache.LruFieldCache}。
+ * 较大的结果可以通过 {@link calculator.engine.cache.TieredFieldCache} 编码后存储在堆外内存中。
  */
 
 @Beta
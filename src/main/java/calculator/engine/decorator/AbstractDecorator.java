@@ -22,11 +22,13 @@ import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.FetchSourceTask;
 import graphql.execution.DataFetcherResult;
 import graphql.execution.ValueUnboxer;
+import graphql.schema.DataFetcher;
 
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 import static java.util.stream.Collectors.toList;
 
@@ -47,6 +49,21 @@ public abstract class AbstractDecorator implements Decorator {
         return valueUnboxer.unbox(fetchData);
     }
 
+    /**
+     * Apply {@code transform} to the result of original fetcher. The {@link CompletionStage} returned
+     * by sync fetcher is transformed without blocking the calling thread, because it may be completed
+     * by the calling thread later, e.g. the result of {@code @batched} field.
+     */
+    protected Object transformOriginalResult(Object originalResult, boolean isAsyncFetcher, Function<Object, Object> transform) {
+        if (originalResult instanceof CompletionStage) {
+            if (!isAsyncFetcher) {
+                return ((CompletionStage<?>) originalResult).thenApply(transform);
+            }
+            originalResult = ((CompletionStage<?>) originalResult).toCompletableFuture().join();
+        }
+        return transform.apply(originalResult);
+    }
+
     protected Object wrapResult(Object originalResult, Object data) {
         if (originalResult instanceof DataFetcherResult) {
             return DataFetcherResult.newResult()
@@ -59,6 +76,68 @@ public abstract class AbstractDecorator implements Decorator {
         return data;
     }
 
+    /**
+     * Use {@code inlineDataFetcher} on the calling thread if all the dependency sources have been completed,
+     * otherwise fallback to {@code asyncDataFetcher}, which will be invoked when the dependency sources are completed.
+     *
+     * <p>It's common that sources are fetched by top fields, and the list elements depending on them
+     * are completed after the sources, so that context switch and task submission for each element can be avoided.
+     */
+    protected DataFetcher<?> inlineIfSourcesCompleted(DataFetcher<?> inlineDataFetcher,
+                                                     DataFetcher<?> asyncDataFetcher,
+                                                     ExecutionEngineState engineState,
+                                                     List<String> dependencySources) {
+        DataFetcher<?> dependentDataFetcher = afterSourcesCompleted(asyncDataFetcher, engineState, dependencySources);
+        return fetchingEnvironment -> {
+            if (isDependencySourcesCompleted(engineState, dependencySources)) {
+                return inlineDataFetcher.get(fetchingEnvironment);
+            }
+            return dependentDataFetcher.get(fetchingEnvironment);
+        };
+    }
+
+    /**
+     * Invoke {@code asyncDataFetcher} once all the dependency sources are completed, rather than invoking it
+     * immediately and waiting for the sources on a thread of executor, which is occupied for the whole time
+     * of fetching sources and may starve the fetchers of sources themselves.
+     */
+    protected DataFetcher<?> afterSourcesCompleted(DataFetcher<?> asyncDataFetcher,
+                                                  ExecutionEngineState engineState,
+                                                  List<String> dependencySources) {
+        return fetchingEnvironment -> engineState.whenSourcesCompleted(dependencySources).thenCompose(ignore -> {
+            try {
+                Object result = asyncDataFetcher.get(fetchingEnvironment);
+                if (result instanceof CompletionStage) {
+                    return (CompletionStage<Object>) result;
+                }
+                return CompletableFuture.completedFuture(result);
+            } catch (Throwable t) {
+                CompletableFuture<Object> failedFuture = new CompletableFuture<>();
+                failedFuture.completeExceptionally(t);
+                return failedFuture;
+            }
+        });
+    }
+
+    /**
+     * Whether {@link #getFetchSourceFromState} can get all the dependency sources without blocking.
+     */
+    protected boolean isDependencySourcesCompleted(ExecutionEngineState engineState, List<String> dependencySources) {
+        for (String sourceName : dependencySources) {
+            if (!isSourceCompleted(engineState, sourceName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the value future is also completed when any field on the path of source is resolved as null or failed.
+    private boolean isSourceCompleted(ExecutionEngineState engineState, String sourceName) {
+        List<String> topTaskNameList = engineState.getTopTaskBySourceName().get(sourceName);
+        FetchSourceTask valueTask = engineState.getFetchSourceTaskByPath().get(topTaskNameList.get(topTaskNameList.size() - 1));
+        return valueTask.getTaskFuture().isDone();
+    }
+
     protected FetchSourceTask getFetchSourceFromState(ExecutionEngineState engineState, String sourceName) {
         Map<String, FetchSourceTask> fetchSourceTaskByPath = engineState.getFetchSourceTaskByPath();
         Map<String, List<String>> queryTaskBySourceName = engineState.getQueryTaskBySourceName();
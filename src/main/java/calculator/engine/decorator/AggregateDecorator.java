@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.decorator;
+
+import calculator.common.CollectionUtil;
+import calculator.common.GraphQLUtil;
+import calculator.engine.annotation.Internal;
+import calculator.engine.handler.ListAggregator;
+import calculator.engine.metadata.DataFetcherDefinition;
+import calculator.engine.metadata.FetchSourceTask;
+import graphql.language.Directive;
+import graphql.schema.DataFetcher;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+
+import static calculator.common.CommonUtil.fieldPath;
+import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static calculator.engine.metadata.Directives.AGGREGATE;
+import static graphql.schema.AsyncDataFetcher.async;
+
+/**
+ * Aggregate the fetched list and complete the source of {@code @aggregate} with the aggregation,
+ * the list is replaced by empty list if 'dropList' is true, so that the elements are never completed.
+ */
+@Internal
+public class AggregateDecorator extends AbstractDecorator {
+
+    @Override
+    public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
+        return Objects.equals(AGGREGATE.getName(), environment.getDirective().getName());
+    }
+
+    @Override
+    public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
+        ListAggregator.Op op = ListAggregator.Op.valueOf(getArgumentFromDirective(directive, "op"));
+        String key = getArgumentFromDirective(directive, "key");
+        String groupBy = getArgumentFromDirective(directive, "groupBy");
+        Boolean dropList = getArgumentFromDirective(directive, "dropList");
+        boolean finalDropList = dropList != null
+                ? dropList
+                : (Boolean) AGGREGATE.getArgument("dropList").getArgumentDefaultValue().getValue();
+
+        DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
+                environment.getOriginalDataFetcher()
+        );
+
+        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> transformOriginalResult(
+                dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment),
+                dataFetcherDefinition.isAsyncFetcher(),
+                originalResult -> {
+                    Object unWrappedData = unWrapDataFetcherResult(originalResult, environment.getValueUnboxer());
+                    Collection<Object> listResult = unWrappedData == null
+                            ? Collections.emptyList()
+                            : CollectionUtil.arrayToList(unWrappedData);
+
+                    FetchSourceTask aggregateTask = environment.getEngineState().getFetchSourceTaskByPath().get(
+                            fieldPath(fetchingEnvironment.getExecutionStepInfo().getPath())
+                    );
+                    if (aggregateTask != null) {
+                        try {
+                            aggregateTask.getTaskFuture().complete(
+                                    ListAggregator.aggregate(listResult, op, key, groupBy, environment.getObjectMapper())
+                            );
+                        } catch (RuntimeException e) {
+                            aggregateTask.getTaskFuture().completeExceptionally(e);
+                            throw e;
+                        }
+                    }
+
+                    if (finalDropList && unWrappedData != null) {
+                        return wrapResult(originalResult, Collections.emptyList());
+                    }
+                    return originalResult;
+                }
+        );
+
+        if (dataFetcherDefinition.isAsyncFetcher()) {
+            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+        }
+
+        return wrappedDataFetcher;
+    }
+}
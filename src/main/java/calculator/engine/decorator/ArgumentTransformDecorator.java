@@ -95,13 +95,7 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
                 newArguments.put(argumentName, argument);
                 DataFetchingEnvironment newEnvironment = DataFetchingEnvironmentImpl
                         .newDataFetchingEnvironment(fetchingEnvironment).arguments(newArguments).build();
-                Object innerResult = dataFetcherDefinition.getActionFetcher().get(newEnvironment);
-                if (innerResult instanceof CompletionStage
-                        && (dataFetcherDefinition.isAsyncFetcher() || (dependencySources != null && dependencySources.size() > 0))
-                ) {
-                    return ((CompletionStage<?>) innerResult).toCompletableFuture().join();
-                }
-                return innerResult;
+                return dataFetcherDefinition.getActionFetcher().get(newEnvironment);
             }
 
             // map each element of list argument
@@ -123,13 +117,7 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
                 DataFetchingEnvironment newEnvironment = DataFetchingEnvironmentImpl
                         .newDataFetchingEnvironment(fetchingEnvironment).arguments(newArguments).build();
 
-                Object innerResult = dataFetcherDefinition.getActionFetcher().get(newEnvironment);
-                if (innerResult instanceof CompletionStage
-                        && (dataFetcherDefinition.isAsyncFetcher() || (dependencySources != null && dependencySources.size() > 0))
-                ) {
-                    return ((CompletionStage<?>) innerResult).toCompletableFuture().join();
-                }
-                return innerResult;
+                return dataFetcherDefinition.getActionFetcher().get(newEnvironment);
             }
 
             // map argument by expression
@@ -145,25 +133,37 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
                 DataFetchingEnvironment newEnvironment = DataFetchingEnvironmentImpl
                         .newDataFetchingEnvironment(fetchingEnvironment).arguments(newArguments).build();
 
-                Object innerResult = dataFetcherDefinition.getActionFetcher().get(newEnvironment);
-                if (innerResult instanceof CompletionStage
-                        && (dataFetcherDefinition.isAsyncFetcher() || (dependencySources != null && dependencySources.size() > 0))
-                ) {
-                    return ((CompletionStage<?>) innerResult).toCompletableFuture().join();
-                }
-                return innerResult;
+                return dataFetcherDefinition.getActionFetcher().get(newEnvironment);
             }
 
             throw new RuntimeException("can not invoke here.");
         };
 
+        // the result of original fetcher should not be wrapped in another future when running in async fetcher.
+        DataFetcher<?> joinedDataFetcher = fetchingEnvironment -> {
+            Object innerResult = wrappedDataFetcher.get(fetchingEnvironment);
+            if (innerResult instanceof CompletionStage) {
+                return ((CompletionStage<?>) innerResult).toCompletableFuture().join();
+            }
+            return innerResult;
+        };
+
         if (dataFetcherDefinition.isAsyncFetcher()) {
-            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+            if (dependencySources != null && dependencySources.size() > 0) {
+                return afterSourcesCompleted(
+                        async(joinedDataFetcher, dataFetcherDefinition.getExecutor()),
+                        environment.getEngineState(), dependencySources
+                );
+            }
+            return async(joinedDataFetcher, dataFetcherDefinition.getExecutor());
         }
 
         // e.g. PropertyDataFetcher with @map, and dependencies is not empty.
         if (dependencySources != null && dependencySources.size() > 0) {
-            return async(wrappedDataFetcher, environment.getExecutor());
+            return inlineIfSourcesCompleted(
+                    wrappedDataFetcher, async(joinedDataFetcher, environment.getExecutor()),
+                    environment.getEngineState(), dependencySources
+            );
         }
 
         return wrappedDataFetcher;
@@ -26,7 +26,6 @@ import graphql.schema.DataFetcher;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletionStage;
 
 import static calculator.engine.metadata.Directives.DISTINCT;
 import static graphql.schema.AsyncDataFetcher.async;
@@ -46,19 +45,19 @@ public class DistinctDecorator extends AbstractDecorator {
                 environment.getOriginalDataFetcher()
         );
 
-        DataFetcher<?> wrappedFetcher = fetchingEnvironment -> {
-            Object originalResult = dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment);
-            if (originalResult instanceof CompletionStage) {
-                originalResult = ((CompletionStage<?>) originalResult).toCompletableFuture().join();
-            }
-            Object unWrappedData = unWrapDataFetcherResult(originalResult, environment.getValueUnboxer());
-            if (CollectionUtil.arraySize(unWrappedData) == 0) {
-                return originalResult;
-            }
+        DataFetcher<?> wrappedFetcher = fetchingEnvironment -> transformOriginalResult(
+                dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment),
+                dataFetcherDefinition.isAsyncFetcher(),
+                originalResult -> {
+                    Object unWrappedData = unWrapDataFetcherResult(originalResult, environment.getValueUnboxer());
+                    if (CollectionUtil.arraySize(unWrappedData) == 0) {
+                        return originalResult;
+                    }
 
-            List<Object> listResult = CollectionUtil.arrayToList(unWrappedData);
-            return wrapResult(originalResult, listResult);
-        };
+                    List<Object> listResult = CollectionUtil.arrayToList(unWrappedData);
+                    return wrapResult(originalResult, listResult);
+                }
+        );
 
         if (dataFetcherDefinition.isAsyncFetcher()) {
             return async(wrappedFetcher, dataFetcherDefinition.getExecutor());
@@ -20,14 +20,16 @@ package calculator.engine.decorator;
 import calculator.common.CollectionUtil;
 import calculator.common.GraphQLUtil;
 import calculator.engine.annotation.Internal;
+import calculator.engine.handler.ListPushdown;
 import calculator.engine.metadata.DataFetcherDefinition;
 import graphql.language.Directive;
 import graphql.schema.DataFetcher;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletionStage;
 
+import static calculator.common.CommonUtil.fieldPath;
+import static calculator.common.CommonUtil.getArgumentFromDirective;
 import static calculator.engine.metadata.Directives.FILTER;
 import static graphql.schema.AsyncDataFetcher.async;
 
@@ -39,25 +41,48 @@ public class FilterDecorator extends AbstractDecorator {
         return Objects.equals(FILTER.getName(), environment.getDirective().getName());
     }
 
+    /**
+     * Filter the fetched list if the predicate can be pushed down, so that the filtered-out elements
+     * never trigger the data fetchers of their sub-fields, otherwise the list is filtered by
+     * {@link calculator.engine.handler.FilterHandler} after completed.
+     */
     @Override
     public DataFetcher<?> decorate(Directive directive, DecorateEnvironment wrapperEnvironment) {
         DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
                 wrapperEnvironment.getOriginalDataFetcher()
         );
 
-        DataFetcher<?> wrappedFetcher = (DataFetcher<Object>) environment -> {
-            Object originalResult = dataFetcherDefinition.getActionFetcher().get(environment);
-            if (originalResult instanceof CompletionStage) {
-                originalResult = ((CompletionStage<?>) originalResult).toCompletableFuture().join();
-            }
-            Object unWrappedData = unWrapDataFetcherResult(originalResult, wrapperEnvironment.getValueUnboxer());
-            if (CollectionUtil.arraySize(unWrappedData) == 0) {
-                return originalResult;
-            }
+        String predicate = getArgumentFromDirective(directive, "predicate");
+        boolean isPushdown = ListPushdown.isPushdown(
+                directive,
+                fieldPath(wrapperEnvironment.getEnvironment().getExecutionStepInfo().getPath()),
+                wrapperEnvironment.getField(),
+                wrapperEnvironment.getFieldDefinition(),
+                wrapperEnvironment.getEnvironment().getGraphQLSchema().getCodeRegistry(),
+                wrapperEnvironment.getScriptEvaluator(),
+                wrapperEnvironment.getEngineState()
+        );
+
+        DataFetcher<?> wrappedFetcher = environment -> transformOriginalResult(
+                dataFetcherDefinition.getActionFetcher().get(environment),
+                dataFetcherDefinition.isAsyncFetcher(),
+                originalResult -> {
+                    Object unWrappedData = unWrapDataFetcherResult(originalResult, wrapperEnvironment.getValueUnboxer());
+                    if (CollectionUtil.arraySize(unWrappedData) == 0) {
+                        return originalResult;
+                    }
 
-            List<Object> listResult = CollectionUtil.arrayToList(unWrappedData);
-            return wrapResult(originalResult, listResult);
-        };
+                    List<Object> listResult = CollectionUtil.arrayToList(unWrappedData);
+                    if (isPushdown) {
+                        listResult = ListPushdown.filter(
+                                listResult, predicate, environment,
+                                wrapperEnvironment.getScriptEvaluator(),
+                                wrapperEnvironment.getValueUnboxer()
+                        );
+                    }
+                    return wrapResult(originalResult, listResult);
+                }
+        );
 
         if (dataFetcherDefinition.isAsyncFetcher()) {
             return async(wrappedFetcher, dataFetcherDefinition.getExecutor());
@@ -31,6 +31,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
 import static calculator.common.CommonUtil.getDependenceSourceFromDirective;
@@ -80,13 +81,19 @@ public class MapDecorator extends AbstractDecorator {
             return environment.getScriptEvaluator().evaluate(mapper, expEnv);
         };
 
-        if (dataFetcherDefinition.isAsyncFetcher()) {
-            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+        // mapper never invoke the original fetcher, so it can be evaluated inline
+        // if the dependency sources have been completed.
+        if (dependencySources != null && dependencySources.size() > 0) {
+            Executor executor = dataFetcherDefinition.isAsyncFetcher()
+                    ? dataFetcherDefinition.getExecutor()
+                    : environment.getExecutor();
+            return inlineIfSourcesCompleted(
+                    wrappedDataFetcher, async(wrappedDataFetcher, executor), environment.getEngineState(), dependencySources
+            );
         }
 
-        // e.g. PropertyDataFetcher with @map, and dependencies is not empty.
-        if (dependencySources != null && dependencySources.size() > 0) {
-            return async(wrappedDataFetcher, environment.getExecutor());
+        if (dataFetcherDefinition.isAsyncFetcher()) {
+            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
         }
 
         return wrappedDataFetcher;
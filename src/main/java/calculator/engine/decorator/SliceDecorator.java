@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.decorator;
+
+import calculator.common.CollectionUtil;
+import calculator.common.GraphQLUtil;
+import calculator.engine.annotation.Internal;
+import calculator.engine.handler.ListPushdown;
+import calculator.engine.metadata.DataFetcherDefinition;
+import graphql.language.Directive;
+import graphql.schema.DataFetcher;
+
+import java.util.List;
+import java.util.Objects;
+
+import static calculator.common.CommonUtil.fieldPath;
+import static calculator.common.CommonUtil.getIntArgumentFromDirective;
+import static calculator.engine.metadata.Directives.SLICE;
+import static graphql.schema.AsyncDataFetcher.async;
+
+@Internal
+public class SliceDecorator extends AbstractDecorator {
+
+    @Override
+    public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
+        return Objects.equals(SLICE.getName(), environment.getDirective().getName());
+    }
+
+    /**
+     * Slice the fetched list if the list directives before {@code @slice} are applied when fetched,
+     * so that the dropped elements are never completed, otherwise the list is sliced by
+     * {@link calculator.engine.handler.SliceHandler} after completed.
+     */
+    @Override
+    public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
+        DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
+                environment.getOriginalDataFetcher()
+        );
+
+        Integer offset = getIntArgumentFromDirective(directive, "offset");
+        int finalOffset = offset != null ? offset : (Integer) SLICE.getArgument("offset").getArgumentDefaultValue().getValue();
+        int limit = getIntArgumentFromDirective(directive, "limit");
+        boolean isPushdown = ListPushdown.isPushdown(
+                directive,
+                fieldPath(environment.getEnvironment().getExecutionStepInfo().getPath()),
+                environment.getField(),
+                environment.getFieldDefinition(),
+                environment.getEnvironment().getGraphQLSchema().getCodeRegistry(),
+                environment.getScriptEvaluator(),
+                environment.getEngineState()
+        );
+
+        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> transformOriginalResult(
+                dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment),
+                dataFetcherDefinition.isAsyncFetcher(),
+                originalResult -> {
+                    Object unWrappedData = unWrapDataFetcherResult(originalResult, environment.getValueUnboxer());
+                    if (CollectionUtil.arraySize(unWrappedData) == 0) {
+                        return originalResult;
+                    }
+
+                    List<Object> listResult = CollectionUtil.arrayToList(unWrappedData);
+                    if (isPushdown) {
+                        listResult = ListPushdown.slice(listResult, finalOffset, limit);
+                    }
+                    return wrapResult(originalResult, listResult);
+                }
+        );
+
+        if (dataFetcherDefinition.isAsyncFetcher()) {
+            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+        }
+
+        return wrappedDataFetcher;
+    }
+}
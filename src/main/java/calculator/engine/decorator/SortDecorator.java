@@ -25,7 +25,6 @@ import graphql.language.Directive;
 import graphql.schema.DataFetcher;
 
 import java.util.Objects;
-import java.util.concurrent.CompletionStage;
 
 import static calculator.engine.metadata.Directives.SORT;
 import static graphql.schema.AsyncDataFetcher.async;
@@ -44,20 +43,19 @@ public class SortDecorator extends AbstractDecorator {
                 environment.getOriginalDataFetcher()
         );
 
-        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> {
-            Object originalResult = dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment);
-            if (originalResult instanceof CompletionStage) {
-                originalResult = ((CompletionStage<?>) originalResult).toCompletableFuture().join();
-            }
+        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> transformOriginalResult(
+                dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment),
+                dataFetcherDefinition.isAsyncFetcher(),
+                originalResult -> {
+                    Object unWrappedData = unWrapDataFetcherResult(originalResult, environment.getValueUnboxer());
+                    if (CollectionUtil.arraySize(unWrappedData) == 0) {
+                        return originalResult;
+                    }
 
-            Object unWrappedData = unWrapDataFetcherResult(originalResult, environment.getValueUnboxer());
-            if (CollectionUtil.arraySize(unWrappedData) == 0) {
-                return originalResult;
-            }
-
-            Object listOrArray = CollectionUtil.collectionToListOrArray(unWrappedData);
-            return wrapResult(originalResult, listOrArray);
-        };
+                    Object listOrArray = CollectionUtil.collectionToListOrArray(unWrappedData);
+                    return wrapResult(originalResult, listOrArray);
+                }
+        );
 
         if (dataFetcherDefinition.isAsyncFetcher()) {
             return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
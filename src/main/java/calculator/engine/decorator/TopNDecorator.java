@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.decorator;
+
+import calculator.common.CollectionUtil;
+import calculator.common.GraphQLUtil;
+import calculator.engine.annotation.Internal;
+import calculator.engine.handler.ListElement;
+import calculator.engine.handler.TopNSelector;
+import calculator.engine.metadata.DataFetcherDefinition;
+import graphql.language.Directive;
+import graphql.schema.DataFetcher;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static calculator.common.CommonUtil.getIntArgumentFromDirective;
+import static calculator.engine.metadata.Directives.TOP_N;
+import static graphql.schema.AsyncDataFetcher.async;
+
+/**
+ * Select the top n elements of the fetched list, the dropped elements are never completed,
+ * so that the data fetchers of their sub-fields will not be invoked.
+ */
+@Internal
+public class TopNDecorator extends AbstractDecorator {
+
+    @Override
+    public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
+        return Objects.equals(TOP_N.getName(), environment.getDirective().getName());
+    }
+
+    @Override
+    public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
+        String comparatorExpression = getArgumentFromDirective(directive, "comparator");
+        int n = getIntArgumentFromDirective(directive, "n");
+        Boolean reversed = getArgumentFromDirective(directive, "reversed");
+        boolean finalReversed = reversed != null
+                ? reversed
+                : (Boolean) TOP_N.getArgument("reversed").getArgumentDefaultValue().getValue();
+
+        Function<ListElement, Object> keyExtractor = listElement -> environment.getScriptEvaluator().evaluate(
+                comparatorExpression, listElement.newScriptArguments()
+        );
+
+        DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
+                environment.getOriginalDataFetcher()
+        );
+
+        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> transformOriginalResult(
+                dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment),
+                dataFetcherDefinition.isAsyncFetcher(),
+                originalResult -> {
+                    Object unWrappedData = unWrapDataFetcherResult(originalResult, environment.getValueUnboxer());
+                    if (CollectionUtil.arraySize(unWrappedData) == 0) {
+                        return originalResult;
+                    }
+
+                    List<Object> listResult = CollectionUtil.arrayToList(unWrappedData);
+                    List<Object> topElements = TopNSelector.select(
+                            listResult, environment.getObjectMapper(), keyExtractor, n, finalReversed
+                    );
+                    return wrapResult(originalResult, topElements);
+                }
+        );
+
+        if (dataFetcherDefinition.isAsyncFetcher()) {
+            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+        }
+
+        return wrappedDataFetcher;
+    }
+}
@@ -18,51 +18,62 @@
 package calculator.engine.handler;
 
 import calculator.common.CollectionUtil;
+import calculator.common.DistinctKeySet;
 import calculator.engine.annotation.Internal;
 import graphql.language.Directive;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
 import static calculator.engine.metadata.Directives.DISTINCT;
 
 @Internal
 public class DistinctHandler implements FieldValueHandler {
 
+    // the key of null elements, which is different from the null key evaluated by comparator.
+    private static final Object NULL_ELEMENT_KEY = new Object();
+
     @Override
     public boolean supportDirective(Directive directive) {
         return Objects.equals(DISTINCT.getName(), directive.getName());
     }
 
     @Override
-    public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
+    public ListStage createStage(HandleEnvironment handleEnvironment) {
         String comparatorExpression = getArgumentFromDirective(handleEnvironment.getDirective(), "comparator");
         boolean emptyComparator = comparatorExpression == null;
 
-        Function<Object, Integer> comparator = ele -> {
+        Function<ListElement, Object> keyExtractor = listElement -> {
+            Object ele = listElement.getElement();
             if (ele == null) {
-                return 0;
+                return NULL_ELEMENT_KEY;
             }
 
             if (emptyComparator) {
-                return System.identityHashCode(ele);
+                return ele;
             }
 
-            Map<String, Object> scriptEnv = new LinkedHashMap<>();
-            Map<String, Object> calMap = (Map<String, Object>) getScriptEnv(handleEnvironment.getObjectMapper(),ele);
-            if (calMap != null) {
-                scriptEnv.putAll(calMap);
-            }
-            Object evaluate = handleEnvironment.getScriptEvaluator().evaluate(comparatorExpression, scriptEnv);
-            return Objects.hashCode(evaluate);
+            return handleEnvironment.getScriptEvaluator().evaluate(comparatorExpression, listElement.newScriptArguments());
         };
 
-        CollectionUtil.distinctCollection(handleEnvironment.getResult().getData(), comparator);
+        // compare elements by identity if comparator not set.
+        DistinctKeySet distinctKeys = new DistinctKeySet(
+                handleEnvironment.getResult() != null ? CollectionUtil.arraySize(handleEnvironment.getResult().getData()) : 0,
+                emptyComparator
+        );
+
+        return new ListStage() {
+            @Override
+            public Kind getKind() {
+                return Kind.DISTINCT;
+            }
 
+            @Override
+            public boolean keep(ListElement element) {
+                return distinctKeys.add(keyExtractor.apply(element));
+            }
+        };
     }
 
 }
@@ -26,6 +26,12 @@ public interface FieldValueHandler {
 
     boolean supportDirective(Directive directive);
 
-    void transformListResultByDirectives(HandleEnvironment handleEnvironment);
+    /**
+     * Create the stage of {@link ListPipeline} for the directive of handleEnvironment.
+     *
+     * @param handleEnvironment the environment of directive and list result
+     * @return the stage of list pipeline
+     */
+    ListStage createStage(HandleEnvironment handleEnvironment);
 
 }
@@ -44,9 +44,9 @@ public class FieldValueHandlerComposite implements FieldValueHandler {
     }
 
     @Override
-    public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
+    public ListStage createStage(HandleEnvironment handleEnvironment) {
         FieldValueHandler fieldValueHandler = getFieldValueHandler(handleEnvironment.getDirective());
-        fieldValueHandler.transformListResultByDirectives(handleEnvironment);
+        return fieldValueHandler.createStage(handleEnvironment);
     }
 
 
@@ -17,17 +17,12 @@
 
 package calculator.engine.handler;
 
-import calculator.common.CollectionUtil;
 import calculator.engine.annotation.Internal;
 import graphql.language.Directive;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.function.Predicate;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
 import static calculator.engine.metadata.Directives.FILTER;
 
 @Internal
@@ -39,16 +34,20 @@ public class FilterHandler implements FieldValueHandler{
     }
 
     @Override
-    public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
+    public ListStage createStage(HandleEnvironment handleEnvironment) {
         String predicate = getArgumentFromDirective(handleEnvironment.getDirective(), "predicate");
 
-        Predicate<Object> willKeep = ele -> {
-            Map<String, Object> sourceEnv = new LinkedHashMap<>();
-            sourceEnv.putAll((Map)getScriptEnv(handleEnvironment.getObjectMapper(), ele));
-            return (Boolean) handleEnvironment.getScriptEvaluator().evaluate(predicate, sourceEnv);
-        };
+        return new ListStage() {
+            @Override
+            public Kind getKind() {
+                return Kind.FILTER;
+            }
 
-        CollectionUtil.filterCollection(handleEnvironment.getResult().getData(), willKeep);
+            @Override
+            public boolean keep(ListElement element) {
+                return (Boolean) handleEnvironment.getScriptEvaluator().evaluate(predicate, element.newScriptArguments());
+            }
+        };
     }
 
 }
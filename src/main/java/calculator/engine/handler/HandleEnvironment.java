@@ -17,6 +17,7 @@
 
 package calculator.engine.handler;
 
+import calculator.engine.ExecutionEngineState;
 import calculator.engine.ObjectMapper;
 import calculator.engine.annotation.Internal;
 import calculator.engine.script.ScriptEvaluator;
@@ -35,19 +36,22 @@ public class HandleEnvironment {
     private final Executor executor;
     private final ObjectMapper objectMapper;
     private final ScriptEvaluator scriptEvaluator;
+    private final ExecutionEngineState engineState;
 
     public HandleEnvironment(Directive directive,
                              ExecutionResult result,
                              InstrumentationFieldCompleteParameters parameters,
                              Executor executor,
                              ObjectMapper objectMapper,
-                             ScriptEvaluator scriptEvaluator) {
+                             ScriptEvaluator scriptEvaluator,
+                             ExecutionEngineState engineState) {
         this.directive = directive;
         this.result = result;
         this.parameters = parameters;
         this.executor = executor;
         this.objectMapper = objectMapper;
         this.scriptEvaluator = scriptEvaluator;
+        this.engineState = engineState;
     }
 
     public Directive getDirective() {
@@ -73,4 +77,8 @@ public class HandleEnvironment {
     public ScriptEvaluator getScriptEvaluator() {
         return scriptEvaluator;
     }
+
+    public ExecutionEngineState getEngineState() {
+        return engineState;
+    }
 }
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Sort list elements by decorate-sort-undecorate: the sort key of each element is computed once, and an index array
+ * is sorted by the keys and used to reorder the elements.
+ *
+ * <p>The keys are kept in {@code long[]} if they are all integral numbers, in {@code double[]} if they are all
+ * floating-point numbers, otherwise in {@code Object[]} and compared as {@code Comparable}.
+ * Null keys are sorted last unless nullsFirst is specified, and the sort is stable.
+ *
+ * <p>When sorted by several keys, each key is extracted once into its own column, and the columns are compared in order
+ * until one of them is not equal, the comparator of each column is specialized by its key type as above.
+ *
+ * <p>If pool is provided, the keys are computed in parallel and the index array is sorted by parallel merge sort,
+ * the result is the same as the sequential sort.
+ */
+@Internal
+class IndexSorter {
+
+    // the ranges not longer than this are sorted by insertion sort.
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    // the ranges not longer than this are sorted sequentially in parallel merge sort.
+    private static final int PARALLEL_SORT_GRANULARITY = 4096;
+
+    interface IndexComparator {
+        int compare(int index1, int index2);
+    }
+
+    static void sort(List<ListElement> elements, Function<ListElement, Object> keyExtractor, boolean reversed, ForkJoinPool pool) {
+        sort(elements, Collections.singletonList(keyExtractor), new boolean[]{reversed}, new boolean[]{false}, pool);
+    }
+
+    static void sort(List<ListElement> elements,
+                     List<Function<ListElement, Object>> keyExtractors,
+                     boolean[] descending,
+                     boolean[] nullsFirst,
+                     ForkJoinPool pool) {
+        int size = elements.size();
+        if (size < 2) {
+            return;
+        }
+
+        int keyCount = keyExtractors.size();
+        Object[][] columns = new Object[keyCount][size];
+        IntConsumer extractor = i -> {
+            ListElement element = elements.get(i);
+            for (int k = 0; k < keyCount; k++) {
+                columns[k][i] = keyExtractors.get(k).apply(element);
+            }
+        };
+        if (pool != null) {
+            pool.submit(() -> IntStream.range(0, size).parallel().forEach(extractor)).join();
+        } else {
+            for (int i = 0; i < size; i++) {
+                extractor.accept(i);
+            }
+        }
+
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        IndexComparator comparator = columnsComparator(columns, descending, nullsFirst);
+        if (pool != null) {
+            pool.invoke(new ParallelMergeSort(indexes, new int[size], 0, size, comparator));
+        } else {
+            mergeSort(indexes, new int[size], 0, size, comparator);
+        }
+
+        Object[] sortedElements = new Object[size];
+        for (int i = 0; i < size; i++) {
+            sortedElements[i] = elements.get(indexes[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            elements.set(i, (ListElement) sortedElements[i]);
+        }
+    }
+
+    static IndexComparator columnsComparator(Object[][] columns, boolean[] descending, boolean[] nullsFirst) {
+        if (columns.length == 1) {
+            return keyComparator(columns[0], descending[0], nullsFirst[0]);
+        }
+
+        IndexComparator[] comparators = new IndexComparator[columns.length];
+        for (int k = 0; k < columns.length; k++) {
+            comparators[k] = keyComparator(columns[k], descending[k], nullsFirst[k]);
+        }
+        return (index1, index2) -> {
+            for (IndexComparator comparator : comparators) {
+                int result = comparator.compare(index1, index2);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    static IndexComparator keyComparator(Object[] keys, boolean reversed) {
+        return keyComparator(keys, reversed, false);
+    }
+
+    static IndexComparator keyComparator(Object[] keys, boolean reversed, boolean nullsFirst) {
+        int size = keys.length;
+        boolean[] nullKeys = new boolean[size];
+        boolean allIntegral = true;
+        boolean allFloating = true;
+        for (int i = 0; i < size; i++) {
+            Object key = keys[i];
+            if (key == null) {
+                nullKeys[i] = true;
+                continue;
+            }
+            allIntegral &= key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte;
+            allFloating &= key instanceof Double || key instanceof Float;
+        }
+
+        IndexComparator nonNullComparator;
+        if (allIntegral) {
+            long[] longKeys = new long[size];
+            for (int i = 0; i < size; i++) {
+                longKeys[i] = nullKeys[i] ? 0 : ((Number) keys[i]).longValue();
+            }
+            nonNullComparator = (index1, index2) -> Long.compare(longKeys[index1], longKeys[index2]);
+        } else if (allFloating) {
+            double[] doubleKeys = new double[size];
+            for (int i = 0; i < size; i++) {
+                doubleKeys[i] = nullKeys[i] ? 0 : ((Number) keys[i]).doubleValue();
+            }
+            nonNullComparator = (index1, index2) -> Double.compare(doubleKeys[index1], doubleKeys[index2]);
+        } else {
+            nonNullComparator = (index1, index2) -> ((Comparable<Object>) keys[index1]).compareTo(keys[index2]);
+        }
+
+        return (index1, index2) -> {
+            if (nullKeys[index1] || nullKeys[index2]) {
+                // the direction of nulls is not affected by reversed
+                return nullsFirst
+                        ? Boolean.compare(nullKeys[index2], nullKeys[index1])
+                        : Boolean.compare(nullKeys[index1], nullKeys[index2]);
+            }
+            return reversed ? nonNullComparator.compare(index2, index1) : nonNullComparator.compare(index1, index2);
+        };
+    }
+
+    /**
+     * Stable merge sort of indexes[from, to), buffer has the same length as indexes.
+     */
+    static void mergeSort(int[] indexes, int[] buffer, int from, int to, IndexComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(indexes, from, to, comparator);
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        mergeSort(indexes, buffer, from, middle, comparator);
+        mergeSort(indexes, buffer, middle, to, comparator);
+        merge(indexes, buffer, from, middle, to, comparator);
+    }
+
+    static void merge(int[] indexes, int[] buffer, int from, int middle, int to, IndexComparator comparator) {
+        if (comparator.compare(indexes[middle - 1], indexes[middle]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(indexes, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(buffer[left], buffer[right]) <= 0)) {
+                indexes[i] = buffer[left++];
+            } else {
+                indexes[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static class ParallelMergeSort extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] indexes;
+
+        private final int[] buffer;
+
+        private final int from;
+
+        private final int to;
+
+        // the task is never serialized.
+        private final transient IndexComparator comparator;
+
+        ParallelMergeSort(int[] indexes, int[] buffer, int from, int to, IndexComparator comparator) {
+            this.indexes = indexes;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SORT_GRANULARITY) {
+                mergeSort(indexes, buffer, from, to, comparator);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ParallelMergeSort(indexes, buffer, from, middle, comparator),
+                    new ParallelMergeSort(indexes, buffer, middle, to, comparator)
+            );
+            merge(indexes, buffer, from, middle, to, comparator);
+        }
+    }
+
+    private static void insertionSort(int[] indexes, int from, int to, IndexComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int index = indexes[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(indexes[j], index) > 0) {
+                indexes[j + 1] = indexes[j];
+                j--;
+            }
+            indexes[j + 1] = index;
+        }
+    }
+}
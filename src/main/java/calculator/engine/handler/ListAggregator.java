@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.ObjectMapper;
+import calculator.engine.annotation.Internal;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregate the list in one pass, the numbers are accumulated in primitive {@code long} and {@code double}.
+ *
+ * <p>The elements are converted to script environment only if key or groupBy is set, and the value of key
+ * is the property of converted element, the element itself is aggregated if key is not set. Null values are ignored.
+ */
+@Internal
+public class ListAggregator {
+
+    public enum Op {
+        COUNT, SUM, AVG, MIN, MAX
+    }
+
+    public static boolean isValidOp(String op) {
+        for (Op value : Op.values()) {
+            if (value.name().equals(op)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the aggregation of elements, or the {@code LinkedHashMap} of group and its aggregation if groupBy is set,
+     * the groups are in the order of their first element.
+     */
+    public static Object aggregate(Collection<?> elements, Op op, String key, String groupBy, ObjectMapper objectMapper) {
+        if (groupBy == null) {
+            Accumulator accumulator = new Accumulator(op);
+            for (Object element : elements) {
+                accumulator.add(key == null ? element : property(element, key, objectMapper));
+            }
+            return accumulator.result();
+        }
+
+        Map<Object, Accumulator> accumulatorByGroup = new LinkedHashMap<>();
+        for (Object element : elements) {
+            Map<String, Object> scriptEnv = new ListElement(element, objectMapper).getScriptEnv();
+            Object group = scriptEnv == null ? null : scriptEnv.get(groupBy);
+            Object value = key == null ? element : (scriptEnv == null ? null : scriptEnv.get(key));
+            accumulatorByGroup.computeIfAbsent(group, ignored -> new Accumulator(op)).add(value);
+        }
+
+        Map<Object, Object> aggregationByGroup = new LinkedHashMap<>();
+        for (Map.Entry<Object, Accumulator> entry : accumulatorByGroup.entrySet()) {
+            aggregationByGroup.put(entry.getKey(), entry.getValue().result());
+        }
+        return aggregationByGroup;
+    }
+
+    private static Object property(Object element, String key, ObjectMapper objectMapper) {
+        Map<String, Object> scriptEnv = new ListElement(element, objectMapper).getScriptEnv();
+        return scriptEnv == null ? null : scriptEnv.get(key);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static class Accumulator {
+
+        private final Op op;
+
+        private long count;
+
+        private long longSum;
+
+        private double doubleSum;
+
+        private boolean floating;
+
+        private Object extremum;
+
+        Accumulator(Op op) {
+            this.op = op;
+        }
+
+        void add(Object value) {
+            if (value == null) {
+                return;
+            }
+            count++;
+
+            switch (op) {
+                case SUM:
+                case AVG:
+                    if (isIntegral(value)) {
+                        longSum += ((Number) value).longValue();
+                    } else if (value instanceof Number) {
+                        floating = true;
+                        doubleSum += ((Number) value).doubleValue();
+                    } else {
+                        throw new IllegalArgumentException("can not " + op + " non-number value " + value);
+                    }
+                    break;
+                case MIN:
+                    if (extremum == null || compare(value, extremum) < 0) {
+                        extremum = value;
+                    }
+                    break;
+                case MAX:
+                    if (extremum == null || compare(value, extremum) > 0) {
+                        extremum = value;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Object result() {
+            switch (op) {
+                case COUNT:
+                    return count;
+                case SUM:
+                    return floating ? doubleSum + longSum : (Object) longSum;
+                case AVG:
+                    return count == 0 ? null : (doubleSum + longSum) / count;
+                default:
+                    return extremum;
+            }
+        }
+
+        private static int compare(Object value1, Object value2) {
+            if (isIntegral(value1) && isIntegral(value2)) {
+                return Long.compare(((Number) value1).longValue(), ((Number) value2).longValue());
+            }
+            if (value1 instanceof Number && value2 instanceof Number) {
+                return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+            }
+            return ((Comparable<Object>) value1).compareTo(value2);
+        }
+    }
+}
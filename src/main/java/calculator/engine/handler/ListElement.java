@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.common.CommonUtil;
+import calculator.engine.ObjectMapper;
+import calculator.engine.annotation.Internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The element of list in {@link ListPipeline}, which converts the element to script environment at most once.
+ */
+@Internal
+public class ListElement {
+
+    private final Object element;
+
+    private final ObjectMapper objectMapper;
+
+    private boolean converted;
+
+    private Map<String, Object> scriptEnv;
+
+    ListElement(Object element, ObjectMapper objectMapper) {
+        this.element = element;
+        this.objectMapper = objectMapper;
+    }
+
+    public Object getElement() {
+        return element;
+    }
+
+    /**
+     * @return the converted element which should not be modified, null if the element is null.
+     */
+    public Map<String, Object> getScriptEnv() {
+        if (!converted) {
+            scriptEnv = (Map<String, Object>) CommonUtil.getScriptEnv(objectMapper, element);
+            converted = true;
+        }
+        return scriptEnv;
+    }
+
+    /**
+     * @return a new copy of script environment which can be passed to {@code ScriptEvaluator}.
+     */
+    public Map<String, Object> newScriptArguments() {
+        Map<String, Object> scriptArguments = new LinkedHashMap<>();
+        Map<String, Object> scriptEnv = getScriptEnv();
+        if (scriptEnv != null) {
+            scriptArguments.putAll(scriptEnv);
+        }
+        return scriptArguments;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.ObjectMapper;
+import calculator.engine.annotation.Internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Apply the list directives of field in one pipeline: each element is converted to script environment at most once,
+ * and the filter, distinct and slice stages between sorts are applied in a single pass.
+ *
+ * <p>Filter stages are moved before the sorts preceding them, which doesn't change the result because sort is stable,
+ * so the survivors of filter are sorted. The other stages keep the order of directives on field.
+ *
+ * <p>If the list is not smaller than parallelThreshold, the leading filters of each pass are evaluated in parallel
+ * and the sorts are parallel merge sorts, on the executor if it's a {@link ForkJoinPool}, otherwise on the common pool.
+ */
+@Internal
+public class ListPipeline {
+
+    private final List<ListStage> stages;
+
+    private ListPipeline(List<ListStage> stages) {
+        this.stages = stages;
+    }
+
+    public static ListPipeline compile(List<ListStage> stages) {
+        List<ListStage> compiledStages = new ArrayList<>(stages.size());
+        for (ListStage stage : stages) {
+            int index = compiledStages.size();
+            if (stage.getKind() == ListStage.Kind.FILTER) {
+                while (index > 0 && compiledStages.get(index - 1).getKind() == ListStage.Kind.SORT) {
+                    index--;
+                }
+            }
+            compiledStages.add(index, stage);
+        }
+        return new ListPipeline(compiledStages);
+    }
+
+    public void apply(Object listOrArray, ObjectMapper objectMapper, int parallelThreshold, Executor executor) {
+        Collection<Object> collection = listOrArray instanceof Collection ? (Collection<Object>) listOrArray : null;
+        Object[] array = listOrArray instanceof Object[] ? (Object[]) listOrArray : null;
+        if (collection == null && array == null) {
+            throw new IllegalArgumentException("Unsupported object type: " + listOrArray.getClass().getName());
+        }
+
+        List<ListElement> elements = new ArrayList<>(collection != null ? collection.size() : array.length);
+        for (Object element : collection != null ? collection : Arrays.asList(array)) {
+            elements.add(new ListElement(element, objectMapper));
+        }
+
+        int stageIndex = 0;
+        while (stageIndex < stages.size()) {
+            int sortIndex = stageIndex;
+            while (sortIndex < stages.size() && stages.get(sortIndex).getKind() != ListStage.Kind.SORT) {
+                sortIndex++;
+            }
+
+            if (sortIndex > stageIndex) {
+                elements = keepElements(elements, stages.subList(stageIndex, sortIndex), parallelPool(elements, parallelThreshold, executor));
+            }
+            if (sortIndex < stages.size()) {
+                stages.get(sortIndex).sort(elements, parallelPool(elements, parallelThreshold, executor));
+            }
+            stageIndex = sortIndex + 1;
+        }
+
+        if (collection != null) {
+            collection.clear();
+            for (ListElement element : elements) {
+                collection.add(element.getElement());
+            }
+            return;
+        }
+
+        if (elements.size() != array.length) {
+            throw new IllegalArgumentException("Unsupported object type: " + listOrArray.getClass().getName());
+        }
+        for (int i = 0; i < array.length; i++) {
+            array[i] = elements.get(i).getElement();
+        }
+    }
+
+    private static ForkJoinPool parallelPool(List<ListElement> elements, int parallelThreshold, Executor executor) {
+        if (elements.size() < parallelThreshold) {
+            return null;
+        }
+        return executor instanceof ForkJoinPool ? (ForkJoinPool) executor : ForkJoinPool.commonPool();
+    }
+
+    private static List<ListElement> keepElements(List<ListElement> elements, List<ListStage> keepStages, ForkJoinPool pool) {
+        // the filters before the first distinct are independent of the other elements.
+        int filterCount = 0;
+        while (pool != null && filterCount < keepStages.size() && keepStages.get(filterCount).getKind() == ListStage.Kind.FILTER) {
+            filterCount++;
+        }
+
+        boolean[] filtered = new boolean[elements.size()];
+        if (filterCount > 0) {
+            List<ListStage> filterStages = keepStages.subList(0, filterCount);
+            pool.submit(() -> IntStream.range(0, elements.size()).parallel().forEach(index ->
+                    filtered[index] = !keep(elements.get(index), filterStages)
+            )).join();
+        }
+
+        List<ListStage> sequentialStages = keepStages.subList(filterCount, keepStages.size());
+        List<ListElement> keptElements = new ArrayList<>(elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            if (!filtered[i] && keep(elements.get(i), sequentialStages)) {
+                keptElements.add(elements.get(i));
+            }
+        }
+        return keptElements;
+    }
+
+    private static boolean keep(ListElement element, List<ListStage> keepStages) {
+        for (ListStage keepStage : keepStages) {
+            if (!keepStage.keep(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.ExecutionEngineState;
+import calculator.engine.annotation.Internal;
+import calculator.engine.script.ScriptEvaluator;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.ValueUnboxer;
+import graphql.language.Directive;
+import graphql.language.Field;
+import graphql.language.Selection;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.PropertyDataFetcher;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static calculator.common.CommonUtil.findNodeByName;
+import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static calculator.engine.metadata.Directives.FILTER;
+import static calculator.engine.metadata.Directives.INCLUDE_BY;
+import static calculator.engine.metadata.Directives.PARTITION;
+import static calculator.engine.metadata.Directives.SKIP_BY;
+import static calculator.engine.metadata.Directives.SLICE;
+import static calculator.engine.metadata.Directives.SORT;
+import static calculator.engine.metadata.Directives.SORT_BY;
+import static calculator.engine.metadata.Directives.TOP_N;
+
+/**
+ * Apply the list directives on the fetched list before the elements are completed,
+ * so that the sub-fields of dropped elements are never resolved.
+ *
+ * <p>The predicate of {@code @filter} is pushed down only if the result is the same as filtering the completed list,
+ * that is, each variable of predicate is a selected leaf field without alias, arguments and directives,
+ * whose data fetcher is the {@code PropertyDataFetcher} of the same name. The variables are fetched by that
+ * data fetcher and serialized by the field type, which are the values of the sub-fields in completed list.
+ *
+ * <p>{@code @slice} is pushed down only if the list directives before it are pushed down too.
+ *
+ * <p>Nothing is pushed down if there is {@code @fetchSource} under the list, whose value is collected from all the elements.
+ */
+@Internal
+public class ListPushdown {
+
+    // the directives which keep the same result if the list is filtered before completed.
+    private static final List<String> FILTER_COMPATIBLE_DIRECTIVES = Arrays.asList(
+            FILTER.getName(), SORT.getName(), SORT_BY.getName(), SLICE.getName(), SKIP_BY.getName(), INCLUDE_BY.getName()
+    );
+
+    // the directives which keep the same result if the list is sliced before completed.
+    private static final List<String> SLICE_COMPATIBLE_DIRECTIVES = Arrays.asList(
+            FILTER.getName(), TOP_N.getName(), SLICE.getName(), SKIP_BY.getName(), INCLUDE_BY.getName()
+    );
+
+    /**
+     * Whether the list directive is applied on the fetched list, which is decided once for the field
+     * and carried in the state of execution, so that the decorator and the handler of directive always agree.
+     *
+     * @param directive     the list directive on field
+     * @param fieldFullPath the full path of list field
+     * @param engineState   the state of execution
+     * @return true if the directive is applied by decorator when fetched
+     */
+    public static boolean isPushdown(Directive directive,
+                                     String fieldFullPath,
+                                     Field field,
+                                     GraphQLFieldDefinition fieldDefinition,
+                                     GraphQLCodeRegistry codeRegistry,
+                                     ScriptEvaluator scriptEvaluator,
+                                     ExecutionEngineState engineState) {
+        if (Objects.equals(directive.getName(), FILTER.getName())) {
+            String predicate = getArgumentFromDirective(directive, "predicate");
+            return engineState.isListPushdown(fieldFullPath, fieldDefinition, directive,
+                    () -> isFilterPushdown(field, fieldDefinition, codeRegistry, predicate, scriptEvaluator)
+            );
+        }
+
+        if (Objects.equals(directive.getName(), SLICE.getName())) {
+            // @slice is pushed down only if the @filter on the field is pushed down too.
+            Directive filterDirective = findNodeByName(field.getDirectives(), FILTER.getName());
+            boolean isFilterPushdown = filterDirective == null || isPushdown(
+                    filterDirective, fieldFullPath, field, fieldDefinition, codeRegistry, scriptEvaluator, engineState
+            );
+            return engineState.isListPushdown(fieldFullPath, fieldDefinition, directive,
+                    () -> isFilterPushdown && isSlicePushdown(field, fieldDefinition)
+            );
+        }
+        return false;
+    }
+
+    private static boolean isFilterPushdown(Field field,
+                                            GraphQLFieldDefinition fieldDefinition,
+                                            GraphQLCodeRegistry codeRegistry,
+                                            String predicate,
+                                            ScriptEvaluator scriptEvaluator) {
+        if (!onlyDirectives(field, FILTER_COMPATIBLE_DIRECTIVES) || isPartitioned(fieldDefinition)) {
+            return false;
+        }
+
+        GraphQLType listType = GraphQLTypeUtil.unwrapNonNull(fieldDefinition.getType());
+        if (!GraphQLTypeUtil.isList(listType)) {
+            return false;
+        }
+        GraphQLType elementType = GraphQLTypeUtil.unwrapNonNull(((GraphQLList) listType).getWrappedType());
+        if (!(elementType instanceof GraphQLObjectType) || field.getSelectionSet() == null) {
+            return false;
+        }
+
+        List<String> variables = scriptEvaluator.getScriptArgument(predicate);
+        if (variables == null) {
+            return false;
+        }
+        for (String variable : variables) {
+            if (!isPropertyField(variable, field, (GraphQLObjectType) elementType, codeRegistry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSlicePushdown(Field field, GraphQLFieldDefinition fieldDefinition) {
+        return onlyDirectives(field, SLICE_COMPATIBLE_DIRECTIVES) && !isPartitioned(fieldDefinition);
+    }
+
+    private static boolean onlyDirectives(Field field, List<String> directiveNames) {
+        for (Directive directive : field.getDirectives()) {
+            if (!directiveNames.contains(directive.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the streaming partitions are completed as soon as they are fetched.
+    private static boolean isPartitioned(GraphQLFieldDefinition fieldDefinition) {
+        return fieldDefinition.getArguments().stream()
+                .anyMatch(argument -> argument.getDirective(PARTITION.getName()) != null);
+    }
+
+    private static boolean isPropertyField(String resultKey,
+                                           Field field,
+                                           GraphQLObjectType elementType,
+                                           GraphQLCodeRegistry codeRegistry) {
+        boolean selected = false;
+        for (Selection<?> selection : field.getSelectionSet().getSelections()) {
+            if (!(selection instanceof Field) || !resultKey.equals(((Field) selection).getResultKey())) {
+                continue;
+            }
+
+            Field subField = (Field) selection;
+            if (subField.getAlias() != null || !subField.getArguments().isEmpty() || !subField.getDirectives().isEmpty()) {
+                return false;
+            }
+            selected = true;
+        }
+        if (!selected) {
+            return false;
+        }
+
+        GraphQLFieldDefinition subFieldDefinition = elementType.getFieldDefinition(resultKey);
+        if (subFieldDefinition == null || !GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(subFieldDefinition.getType()))) {
+            return false;
+        }
+
+        DataFetcher<?> dataFetcher = codeRegistry.getDataFetcher(
+                FieldCoordinates.coordinates(elementType, subFieldDefinition), subFieldDefinition
+        );
+        return dataFetcher instanceof PropertyDataFetcher
+                && resultKey.equals(((PropertyDataFetcher<?>) dataFetcher).getPropertyName());
+    }
+
+    /**
+     * Filter the fetched elements by predicate, each variable of predicate is resolved by the data fetcher
+     * of the sub-field and serialized by its type, as what it would be in the completed list.
+     */
+    public static List<Object> filter(List<Object> elements,
+                                      String predicate,
+                                      DataFetchingEnvironment environment,
+                                      ScriptEvaluator scriptEvaluator,
+                                      ValueUnboxer valueUnboxer) {
+        GraphQLType listType = GraphQLTypeUtil.unwrapNonNull(environment.getFieldType());
+        GraphQLObjectType elementType = (GraphQLObjectType) GraphQLTypeUtil.unwrapNonNull(((GraphQLList) listType).getWrappedType());
+        GraphQLCodeRegistry codeRegistry = environment.getGraphQLSchema().getCodeRegistry();
+        List<GraphQLFieldDefinition> variableFields = new ArrayList<>();
+        for (String variable : scriptEvaluator.getScriptArgument(predicate)) {
+            variableFields.add(elementType.getFieldDefinition(variable));
+        }
+
+        List<Object> result = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            Object fetchedValue = element instanceof DataFetcherResult
+                    ? ((DataFetcherResult<?>) element).getData()
+                    : element;
+            fetchedValue = valueUnboxer.unbox(fetchedValue);
+
+            Map<String, Object> scriptArguments = new LinkedHashMap<>();
+            if (fetchedValue != null) {
+                for (GraphQLFieldDefinition variableField : variableFields) {
+                    DataFetchingEnvironment propertyEnvironment = DataFetchingEnvironmentImpl
+                            .newDataFetchingEnvironment(environment)
+                            .source(fetchedValue)
+                            .fieldDefinition(variableField)
+                            .fieldType(variableField.getType())
+                            .parentType(elementType)
+                            .build();
+                    Object propertyValue;
+                    try {
+                        propertyValue = codeRegistry.getDataFetcher(elementType, variableField).get(propertyEnvironment);
+                    } catch (Exception e) {
+                        propertyValue = null;
+                    }
+                    scriptArguments.put(variableField.getName(), serialize(variableField.getType(), propertyValue, valueUnboxer));
+                }
+            }
+            if ((Boolean) scriptEvaluator.evaluate(predicate, scriptArguments)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    // serialize the leaf value as it is completed, the value which can not be serialized is resolved as null.
+    private static Object serialize(GraphQLType type, Object value, ValueUnboxer valueUnboxer) {
+        Object unboxedValue = valueUnboxer.unbox(value);
+        if (unboxedValue == null) {
+            return null;
+        }
+
+        GraphQLType nullableType = GraphQLTypeUtil.unwrapNonNull(type);
+        if (nullableType instanceof GraphQLList) {
+            GraphQLType wrappedType = ((GraphQLList) nullableType).getWrappedType();
+            List<Object> serializedList = new ArrayList<>();
+            if (unboxedValue instanceof Iterable) {
+                for (Object item : (Iterable<?>) unboxedValue) {
+                    serializedList.add(serialize(wrappedType, item, valueUnboxer));
+                }
+            } else if (unboxedValue.getClass().isArray()) {
+                for (int i = 0; i < Array.getLength(unboxedValue); i++) {
+                    serializedList.add(serialize(wrappedType, Array.get(unboxedValue, i), valueUnboxer));
+                }
+            } else {
+                return null;
+            }
+            return serializedList;
+        }
+
+        try {
+            if (nullableType instanceof GraphQLEnumType) {
+                return ((GraphQLEnumType) nullableType).serialize(unboxedValue);
+            }
+            return ((GraphQLScalarType) nullableType).getCoercing().serialize(unboxedValue);
+        } catch (CoercingSerializeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the elements in range [offset, offset + limit)
+     */
+    public static List<Object> slice(List<Object> elements, int offset, int limit) {
+        int from = Math.min(offset, elements.size());
+        int to = (int) Math.min((long) from + limit, elements.size());
+        return new ArrayList<>(elements.subList(from, to));
+    }
+}
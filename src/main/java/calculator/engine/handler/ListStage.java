@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The stage of {@link ListPipeline} created by {@link FieldValueHandler} for a list directive.
+ */
+@Internal
+public interface ListStage {
+
+    enum Kind {
+        /**
+         * Keep or drop each element independently.
+         */
+        FILTER,
+
+        /**
+         * Keep or drop each element depending on the elements before it.
+         */
+        DISTINCT,
+
+        /**
+         * Keep the elements in a range of positions of the elements reaching this stage.
+         */
+        SLICE,
+
+        /**
+         * Reorder all elements.
+         */
+        SORT
+    }
+
+    Kind getKind();
+
+    /**
+     * Whether to keep the element, invoked in list order for the elements reaching this stage.
+     *
+     * @param element the element of list
+     * @return true if the element is kept
+     */
+    default boolean keep(ListElement element) {
+        return true;
+    }
+
+    /**
+     * Sort the elements, only invoked for {@link Kind#SORT} stage.
+     *
+     * @param elements the elements reaching this stage
+     * @param pool     the pool to sort elements in parallel, null if the list is not large enough
+     */
+    default void sort(List<ListElement> elements, ForkJoinPool pool) {
+    }
+}
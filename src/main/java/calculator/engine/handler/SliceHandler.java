@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.annotation.Internal;
+import graphql.language.Directive;
+
+import java.util.Objects;
+
+import static calculator.common.CommonUtil.getIntArgumentFromDirective;
+import static calculator.engine.metadata.Directives.SLICE;
+
+@Internal
+public class SliceHandler implements FieldValueHandler {
+
+    @Override
+    public boolean supportDirective(Directive directive) {
+        return Objects.equals(SLICE.getName(), directive.getName());
+    }
+
+    @Override
+    public ListStage createStage(HandleEnvironment handleEnvironment) {
+        Integer offset = getIntArgumentFromDirective(handleEnvironment.getDirective(), "offset");
+        int finalOffset = offset != null ? offset : (Integer) SLICE.getArgument("offset").getArgumentDefaultValue().getValue();
+        long end = (long) finalOffset + getIntArgumentFromDirective(handleEnvironment.getDirective(), "limit");
+
+        return new ListStage() {
+
+            private int position;
+
+            @Override
+            public Kind getKind() {
+                return Kind.SLICE;
+            }
+
+            @Override
+            public boolean keep(ListElement element) {
+                int currentPosition = position++;
+                return currentPosition >= finalOffset && currentPosition < end;
+            }
+        };
+    }
+}
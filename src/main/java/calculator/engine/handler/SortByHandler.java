@@ -17,19 +17,17 @@
 
 package calculator.engine.handler;
 
-import calculator.common.CollectionUtil;
 import calculator.engine.annotation.Internal;
+import calculator.engine.script.ScriptEvaluator;
 import graphql.language.Directive;
 
-import java.util.Comparator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
 import static calculator.engine.metadata.Directives.SORT_BY;
-import static java.util.Comparator.nullsLast;
 
 @Internal
 public class SortByHandler implements FieldValueHandler {
@@ -40,35 +38,36 @@ public class SortByHandler implements FieldValueHandler {
     }
 
     @Override
-    public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
-        String comparatorExpression = getArgumentFromDirective(handleEnvironment.getDirective(), "comparator");
-        Boolean reversed = getArgumentFromDirective(handleEnvironment.getDirective(), "reversed");
+    public ListStage createStage(HandleEnvironment handleEnvironment) {
+        // the stage keeps no state for the list, read the arguments once for the directive.
+        return handleEnvironment.getEngineState().getListStage(
+                handleEnvironment.getDirective(),
+                directive -> createSortByStage(directive, handleEnvironment.getScriptEvaluator())
+        );
+    }
+
+    private static ListStage createSortByStage(Directive directive, ScriptEvaluator scriptEvaluator) {
+        String comparatorExpression = getArgumentFromDirective(directive, "comparator");
+        Boolean reversed = getArgumentFromDirective(directive, "reversed");
         final boolean finalReversed = reversed != null
                 ? reversed
                 : (Boolean) SORT_BY.getArgument("reversed").getArgumentDefaultValue().getValue();
 
-
-        Comparator<Object> comparator = Comparator.comparing(
-                ele -> {
-                    Map<String, Object> scriptEnv = new LinkedHashMap<>();
-                    Map<String, Object> calMap = (Map<String, Object>) getScriptEnv(handleEnvironment.getObjectMapper(), ele);
-                    if (calMap != null) {
-                        scriptEnv.putAll(calMap);
-                    }
-                    return (Comparable<Object>) handleEnvironment.getScriptEvaluator().evaluate(comparatorExpression, scriptEnv);
-                },
-                // always nullLast
-                nullsLast((v1, v2) -> {
-                            if (finalReversed) {
-                                return v2.compareTo(v1);
-                            } else {
-                                return v1.compareTo(v2);
-                            }
-                        }
-                )
+        Function<ListElement, Object> keyExtractor = listElement -> scriptEvaluator.evaluate(
+                comparatorExpression, listElement.newScriptArguments()
         );
 
-        CollectionUtil.sortListOrArray(handleEnvironment.getResult().getData(), comparator);
+        return new ListStage() {
+            @Override
+            public Kind getKind() {
+                return Kind.SORT;
+            }
+
+            @Override
+            public void sort(List<ListElement> elements, ForkJoinPool pool) {
+                IndexSorter.sort(elements, keyExtractor, finalReversed, pool);
+            }
+        };
     }
 
 }
@@ -17,19 +17,20 @@
 
 package calculator.engine.handler;
 
-import calculator.common.CollectionUtil;
 import calculator.engine.annotation.Internal;
 import graphql.language.Directive;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
 import static calculator.engine.metadata.Directives.SORT;
-import static java.util.Comparator.nullsLast;
 
 @Internal
 public class SortHandler implements FieldValueHandler{
@@ -40,29 +41,67 @@ public class SortHandler implements FieldValueHandler{
     }
 
     @Override
-    public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
+    public ListStage createStage(HandleEnvironment handleEnvironment) {
+        // the stage keeps no state for the list, parse the keys once for the directive.
+        return handleEnvironment.getEngineState().getListStage(handleEnvironment.getDirective(), SortHandler::createSortStage);
+    }
+
+    private static ListStage createSortStage(Directive directive) {
         Supplier<Boolean> defaultReversed = () -> (Boolean) SORT.getArgument("reversed").getArgumentDefaultValue().getValue();
-        String sortKey = getArgumentFromDirective(handleEnvironment.getDirective(), "key");
-        Boolean reversed = getArgumentFromDirective(handleEnvironment.getDirective(), "reversed");
+        Boolean reversed = getArgumentFromDirective(directive, "reversed");
         final boolean finalReversed = reversed != null ? reversed : defaultReversed.get();
 
-        Comparator<Object> comparator = Comparator.comparing(
-                ele -> {
-                    Map<String, Comparable<Object>> calMap = (Map<String, Comparable<Object>>) getScriptEnv(handleEnvironment.getObjectMapper(), ele);
-                    return calMap.get(sortKey);
-                },
-                // always nullLast
-                nullsLast((v1, v2) -> {
-                            if (finalReversed) {
-                                return v2.compareTo(v1);
-                            } else {
-                                return v1.compareTo(v2);
-                            }
-                        }
-                )
-        );
+        // the comparator is specialized by the extracted key columns when sorting.
+        List<SortKey> sortKeys = getSortKeys(directive);
+        List<Function<ListElement, Object>> keyExtractors = new ArrayList<>(sortKeys.size());
+        boolean[] descending = new boolean[sortKeys.size()];
+        boolean[] nullsFirst = new boolean[sortKeys.size()];
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey sortKey = sortKeys.get(i);
+            keyExtractors.add(listElement -> {
+                Map<String, Object> calMap = listElement.getScriptEnv();
+                return calMap.get(sortKey.getKey());
+            });
+            descending[i] = sortKey.isDescending() != finalReversed;
+            nullsFirst[i] = sortKey.isNullsFirst();
+        }
+
+        return new ListStage() {
+            @Override
+            public Kind getKind() {
+                return Kind.SORT;
+            }
 
-        CollectionUtil.sortListOrArray(handleEnvironment.getResult().getData(), comparator);
+            @Override
+            public void sort(List<ListElement> elements, ForkJoinPool pool) {
+                IndexSorter.sort(elements, keyExtractors, descending, nullsFirst, pool);
+            }
+        };
     }
 
+    /**
+     * Get the sort keys of @sort, the argument 'key' may be a single key or a list of keys.
+     *
+     * @param directive @sort
+     * @return the sort keys, null if any key is invalid
+     */
+    public static List<SortKey> getSortKeys(Directive directive) {
+        Object keyArgument = getArgumentFromDirective(directive, "key");
+        List<String> keySpecs = keyArgument instanceof String
+                ? Collections.singletonList((String) keyArgument)
+                : (List<String>) keyArgument;
+        if (keySpecs == null) {
+            return null;
+        }
+
+        List<SortKey> sortKeys = new ArrayList<>(keySpecs.size());
+        for (String keySpec : keySpecs) {
+            SortKey sortKey = SortKey.parse(keySpec);
+            if (sortKey == null) {
+                return null;
+            }
+            sortKeys.add(sortKey);
+        }
+        return sortKeys;
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * One key of {@code @sort}, in the form of {@code "<key> [asc|desc] [nullsFirst|nullsLast]"},
+ * the key is sorted in ascending order and with nulls last by default.
+ */
+@Internal
+public class SortKey {
+
+    private final String key;
+
+    private final boolean descending;
+
+    private final boolean nullsFirst;
+
+    private SortKey(String key, boolean descending, boolean nullsFirst) {
+        this.key = key;
+        this.descending = descending;
+        this.nullsFirst = nullsFirst;
+    }
+
+    /**
+     * Parse the sort key spec.
+     *
+     * @param spec sort key spec
+     * @return the sort key, or null if spec is invalid
+     */
+    public static SortKey parse(String spec) {
+        if (spec == null) {
+            return null;
+        }
+
+        String[] tokens = spec.trim().split("\\s+");
+        if (tokens.length == 0 || tokens.length > 3 || tokens[0].isEmpty()) {
+            return null;
+        }
+
+        Boolean descending = null;
+        Boolean nullsFirst = null;
+        for (int i = 1; i < tokens.length; i++) {
+            String token = tokens[i].toLowerCase(Locale.ROOT);
+            if (descending == null && nullsFirst == null && (token.equals("asc") || token.equals("desc"))) {
+                descending = token.equals("desc");
+            } else if (nullsFirst == null && (token.equals("nullsfirst") || token.equals("nullslast"))) {
+                nullsFirst = token.equals("nullsfirst");
+            } else {
+                return null;
+            }
+        }
+
+        return new SortKey(tokens[0], Objects.equals(descending, true), Objects.equals(nullsFirst, true));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public boolean isNullsFirst() {
+        return nullsFirst;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.ObjectMapper;
+import calculator.engine.annotation.Internal;
+import calculator.engine.handler.IndexSorter.IndexComparator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Select the first n elements of the list in sorted order by a bounded heap, which costs O(size * log(n))
+ * instead of sorting the whole list.
+ *
+ * <p>The order of the selected elements is the same as {@link IndexSorter}: null keys are always last,
+ * and the elements with equal keys keep their original order.
+ */
+@Internal
+public class TopNSelector {
+
+    public static List<Object> select(List<Object> elements,
+                                      ObjectMapper objectMapper,
+                                      Function<ListElement, Object> keyExtractor,
+                                      int n,
+                                      boolean reversed) {
+        Object[] array = elements.toArray();
+        Object[] keys = new Object[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = keyExtractor.apply(new ListElement(array[i], objectMapper));
+        }
+
+        int[] indexes = topIndexes(keys, n, reversed);
+        List<Object> result = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            result.add(array[index]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the indexes of the first n keys in sorted order.
+     */
+    static int[] topIndexes(Object[] keys, int n, boolean reversed) {
+        IndexComparator keyComparator = IndexSorter.keyComparator(keys, reversed);
+        // break ties by index, so that the selection is stable.
+        IndexComparator comparator = (index1, index2) -> {
+            int result = keyComparator.compare(index1, index2);
+            return result != 0 ? result : Integer.compare(index1, index2);
+        };
+
+        // max-heap whose root is the last one of the selected elements.
+        int heapSize = Math.min(n, keys.length);
+        int[] heap = new int[heapSize];
+        for (int i = 0; i < keys.length; i++) {
+            if (i < heapSize) {
+                heap[i] = i;
+                siftUp(heap, i, comparator);
+            } else if (heapSize > 0 && comparator.compare(i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(heap, heapSize, comparator);
+            }
+        }
+
+        IndexSorter.mergeSort(heap, new int[heapSize], 0, heapSize, comparator);
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int position, IndexComparator comparator) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (comparator.compare(heap[parent], index) >= 0) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = index;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, IndexComparator comparator) {
+        int index = heap[0];
+        int position = 0;
+        int half = heapSize >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < heapSize && comparator.compare(heap[right], heap[child]) > 0) {
+                child = right;
+            }
+            if (comparator.compare(index, heap[child]) >= 0) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = index;
+    }
+}
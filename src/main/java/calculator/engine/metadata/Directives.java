@@ -29,10 +29,12 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static graphql.Scalars.GraphQLBoolean;
+import static graphql.Scalars.GraphQLFloat;
 import static graphql.Scalars.GraphQLInt;
 import static graphql.Scalars.GraphQLString;
 import static graphql.introspection.Introspection.DirectiveLocation.ARGUMENT_DEFINITION;
 import static graphql.introspection.Introspection.DirectiveLocation.FIELD;
+import static graphql.introspection.Introspection.DirectiveLocation.FIELD_DEFINITION;
 import static graphql.introspection.Introspection.DirectiveLocation.FRAGMENT_SPREAD;
 import static graphql.introspection.Introspection.DirectiveLocation.INLINE_FRAGMENT;
 
@@ -113,15 +115,15 @@ public class Directives {
             .build();
 
 
-    // directive @sort(key: String!,reversed: Boolean = false) on FIELD
+    // directive @sort(key: [String!]!,reversed: Boolean = false) on FIELD
     public final static GraphQLDirective SORT = GraphQLDirective.newDirective()
             .name("sort")
-            .description("sort the list by specified key.")
+            .description("sort the list by specified keys, each key is in the form of '<key> [asc|desc] [nullsFirst|nullsLast]'.")
             .validLocation(FIELD)
             .argument(GraphQLArgument
                     .newArgument()
                     .name("key")
-                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+                    .type(GraphQLNonNull.nonNull(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString)))))
             .argument(GraphQLArgument
                     .newArgument()
                     .name("reversed")
@@ -146,6 +148,78 @@ public class Directives {
                     .type(GraphQLBoolean))
             .build();
 
+    // directive @topN(comparator: String!, n: Int!, reversed: Boolean = false) on FIELD
+    public final static GraphQLDirective TOP_N = GraphQLDirective.newDirective()
+            .name("topN")
+            .description("returns the first n elements of the list sorted by expression result, the others are dropped before completed.")
+            .validLocation(FIELD)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("comparator")
+                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("n")
+                    .description("the max count of the returned elements, must be positive.")
+                    .type(GraphQLNonNull.nonNull(GraphQLInt)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("reversed")
+                    .defaultValue(false)
+                    .type(GraphQLBoolean))
+            .build();
+
+    // directive @slice(offset: Int = 0, limit: Int!) on FIELD
+    public final static GraphQLDirective SLICE = GraphQLDirective.newDirective()
+            .name("slice")
+            .description("returns the elements of list in range [offset, offset + limit).")
+            .validLocation(FIELD)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("offset")
+                    .description("the count of skipped elements, must not be negative.")
+                    .defaultValue(0)
+                    .type(GraphQLInt))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("limit")
+                    .description("the max count of the returned elements, must be positive.")
+                    .type(GraphQLNonNull.nonNull(GraphQLInt)))
+            .build();
+
+    // directive @aggregate(name: String!, op: String!, key: String, groupBy: String, dropList: Boolean = false) on FIELD
+    public final static GraphQLDirective AGGREGATE = GraphQLDirective.newDirective()
+            .name("aggregate")
+            .description("aggregate the fetched list in one pass, the aggregation can be used as the fetched source.")
+            .validLocation(FIELD)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("name")
+                    .description("the source name of the aggregation.")
+                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("op")
+                    .description("the aggregate operation, one of 'COUNT', 'SUM', 'AVG', 'MIN' and 'MAX'.")
+                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("key")
+                    .description("the property name of element to be aggregated, the element itself is aggregated if key not set.")
+                    .type(GraphQLString))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("groupBy")
+                    .description("the property name of element to group the elements, the aggregation is a map of group and its aggregation if set.")
+                    .type(GraphQLString))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("dropList")
+                    .description("whether to return empty list instead of completing the elements of annotated list.")
+                    .defaultValue(false)
+                    .type(GraphQLBoolean))
+            .build();
+
     // directive @map(mapper:String!, dependencySource:String) on FIELD
     public final static GraphQLDirective MAP = GraphQLDirective.newDirective()
             .name("map")
@@ -242,7 +316,7 @@ public class Directives {
                     .type(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString))))
             .build();
 
-    // directive @partition(size: Int!) on ARGUMENT_DEFINITION
+    // directive @partition(size: Int!, concurrency: Int, targetLatency: Int, minSize: Int, maxSize: Int, maxFailureRatio: Float, deduplicate: Boolean, resultKey: String, stream: Boolean, hedgeAfterPercentile: Int) on ARGUMENT_DEFINITION
     public final static GraphQLDirective PARTITION = GraphQLDirective.newDirective()
             .name("partition")
             .description("divide argument list into multiple part and invoke DataFetcher.")
@@ -251,6 +325,101 @@ public class Directives {
                     .newArgument()
                     .name("size")
                     .type(GraphQLNonNull.nonNull(GraphQLInt)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("concurrency")
+                    .description("the max count of partitions invoked concurrently on executor, "
+                            + "partitions are invoked one by one on the calling thread if it's not set.")
+                    .type(GraphQLInt))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("targetLatency")
+                    .description("the target p99 latency in milliseconds of each partition, "
+                            + "partition size is adjusted between minSize and maxSize if it's set.")
+                    .type(GraphQLInt))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("minSize")
+                    .description("the min partition size of adaptive partition, default 1.")
+                    .type(GraphQLInt))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("maxSize")
+                    .description("the max partition size of adaptive partition, default is size.")
+                    .type(GraphQLInt))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("maxFailureRatio")
+                    .description("the max ratio of failed partitions in the sample window of adaptive partition "
+                            + "before the partition size is halved, must be in [0, 1], default 0.1.")
+                    .type(GraphQLFloat))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("deduplicate")
+                    .description("whether remove the duplicate argument values before partitioning, "
+                            + "the field returns the de-duplicated results if resultKey is not set.")
+                    .type(GraphQLBoolean))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("resultKey")
+                    .description("the key of result element which is equal to argument value, "
+                            + "used to restore the order and multiplicity of original argument values.")
+                    .type(GraphQLString))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("stream")
+                    .description("whether complete the elements of finished partitions before all partitions finished.")
+                    .type(GraphQLBoolean))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("hedgeAfterPercentile")
+                    .description("issue a duplicate invocation for the async partition which runs longer than "
+                            + "this percentile latency of recent partitions, must be in [1, 99].")
+                    .type(GraphQLInt))
+            .build();
+
+    // directive @batched(key: String!) on FIELD_DEFINITION
+    public final static GraphQLDirective BATCHED = GraphQLDirective.newDirective()
+            .name("batched")
+            .description("collect the fetches of field in list into one batch invocation.")
+            .validLocation(FIELD_DEFINITION)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("key")
+                    .description("the argument name of field, or the property name of source object, which is used as batch key.")
+                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+            .build();
+
+    public final static GraphQLDirective CACHED = GraphQLDirective.newDirective()
+            .name("cached")
+            .description("cache the result of field across requests.")
+            .validLocation(FIELD_DEFINITION)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("ttl")
+                    .description("the milliseconds for which the cached result is fresh.")
+                    .type(GraphQLNonNull.nonNull(GraphQLInt)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("staleWhileRevalidate")
+                    .description("the milliseconds after ttl for which the stale result is returned while it's refreshed asynchronously.")
+                    .type(GraphQLInt))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("key")
+                    .description("the property name of source object which is part of the cache key.")
+                    .type(GraphQLString))
+            .build();
+
+    public final static GraphQLDirective SINGLE_FLIGHT = GraphQLDirective.newDirective()
+            .name("singleFlight")
+            .description("coalesce the concurrent fetches of field with same arguments into one invocation.")
+            .validLocation(FIELD_DEFINITION)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("key")
+                    .description("the property name of source object which is part of the coalescing key.")
+                    .type(GraphQLString))
             .build();
 
     static {
@@ -262,10 +431,16 @@ public class Directives {
         tmpMap.put(DISTINCT.getName(), DISTINCT);
         tmpMap.put(SORT.getName(), SORT);
         tmpMap.put(SORT_BY.getName(), SORT_BY);
+        tmpMap.put(TOP_N.getName(), TOP_N);
+        tmpMap.put(SLICE.getName(), SLICE);
+        tmpMap.put(AGGREGATE.getName(), AGGREGATE);
         tmpMap.put(MAP.getName(), MAP);
         tmpMap.put(FETCH_SOURCE.getName(), FETCH_SOURCE);
         tmpMap.put(ARGUMENT_TRANSFORM.getName(), ARGUMENT_TRANSFORM);
         tmpMap.put(PARTITION.getName(), PARTITION);
+        tmpMap.put(BATCHED.getName(), BATCHED);
+        tmpMap.put(CACHED.getName(), CACHED);
+        tmpMap.put(SINGLE_FLIGHT.getName(), SINGLE_FLIGHT);
         CAL_DIRECTIVE_BY_NAME = Collections.unmodifiableMap(tmpMap);
     }
 
@@ -278,6 +453,9 @@ public class Directives {
         tmpMap.put(DISTINCT.getName(), DISTINCT);
         tmpMap.put(SORT.getName(), SORT);
         tmpMap.put(SORT_BY.getName(), SORT_BY);
+        tmpMap.put(TOP_N.getName(), TOP_N);
+        tmpMap.put(SLICE.getName(), SLICE);
+        tmpMap.put(AGGREGATE.getName(), AGGREGATE);
         tmpMap.put(MAP.getName(), MAP);
         tmpMap.put(FETCH_SOURCE.getName(), FETCH_SOURCE);
         tmpMap.put(ARGUMENT_TRANSFORM.getName(), ARGUMENT_TRANSFORM);
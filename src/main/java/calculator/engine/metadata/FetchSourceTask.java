@@ -20,8 +20,13 @@ package calculator.engine.metadata;
 import calculator.engine.annotation.Internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
 @Internal
@@ -41,12 +46,19 @@ public class FetchSourceTask {
 
     private final CompletableFuture<Object> taskFuture;
 
-    private final ArrayList<CompletableFuture<Object>> listElementFutures = new ArrayList<>();
+    // the futures of list elements indexed by the position of element, if the size of list is known before fetching elements.
+    private volatile AtomicReferenceArray<CompletableFuture<Object>> listElementFutureSlots;
+
+    // the futures of list elements whose position is unknown, e.g. the elements of nested list.
+    private final ConcurrentLinkedQueue<CompletableFuture<Object>> listElementFutures = new ConcurrentLinkedQueue<>();
 
     private final String mapper;
 
     private final String resultKey;
 
+    // the value of task is completed by AggregateDecorator with the aggregation of the fetched list.
+    private final boolean isAggregate;
+
     private final FetchSourceTask parentTask;
 
     private final ArrayList<FetchSourceTask> childrenTaskList = new ArrayList<>();
@@ -59,6 +71,7 @@ public class FetchSourceTask {
                             CompletableFuture<Object> taskFuture,
                             String mapper,
                             String resultKey,
+                            boolean isAggregate,
                             FetchSourceTask parentTask) {
         this.sourceName = sourceName;
         this.isAnnotatedNode = isAnnotatedNode;
@@ -68,6 +81,7 @@ public class FetchSourceTask {
         this.taskFuture = Objects.requireNonNull(taskFuture);
         this.mapper = mapper;
         this.resultKey = resultKey;
+        this.isAggregate = isAggregate;
         this.parentTask = parentTask;
     }
 
@@ -103,6 +117,10 @@ public class FetchSourceTask {
         return resultKey;
     }
 
+    public boolean isAggregate() {
+        return isAggregate;
+    }
+
     public FetchSourceTask getParentTask() {
         return parentTask;
     }
@@ -111,15 +129,104 @@ public class FetchSourceTask {
         return childrenTaskList;
     }
 
-    public ArrayList<CompletableFuture<Object>> getListElementFutures() {
-        return listElementFutures;
+    /**
+     * Get the futures of list elements, the elements with known position are in the order of position.
+     *
+     * @return the futures of list elements
+     */
+    public List<CompletableFuture<Object>> getListElementFutures() {
+        AtomicReferenceArray<CompletableFuture<Object>> slots = listElementFutureSlots;
+        List<CompletableFuture<Object>> elementFutures = new ArrayList<>(
+                (slots != null ? slots.length() : 0) + listElementFutures.size()
+        );
+        if (slots != null) {
+            for (int i = 0; i < slots.length(); i++) {
+                // the element is null or the field is not fetched.
+                CompletableFuture<Object> elementFuture = slots.get(i);
+                if (elementFuture != null) {
+                    elementFutures.add(elementFuture);
+                }
+            }
+        }
+        elementFutures.addAll(listElementFutures);
+        return elementFutures;
+    }
+
+    /**
+     * Accumulate the values of list elements into a pre-sized buffer as each element completed, and release the
+     * element futures held by this task, so that the futures and the values are not held together until all completed.
+     *
+     * <p>The returned future is completed with the values in the order of {@link #getListElementFutures()}, or completed
+     * exceptionally as soon as one of the elements is failed.
+     *
+     * @return the future of the values of list elements
+     */
+    public CompletableFuture<List<Object>> accumulateListElementValues() {
+        List<CompletableFuture<Object>> elementFutures = getListElementFutures();
+        releaseListElementFutures();
+
+        CompletableFuture<List<Object>> valuesFuture = new CompletableFuture<>();
+        if (elementFutures.isEmpty()) {
+            valuesFuture.complete(new ArrayList<>());
+            return valuesFuture;
+        }
+
+        // pre-sized and filled by position, each position is written by only one element.
+        List<Object> values = new ArrayList<>(Collections.nCopies(elementFutures.size(), null));
+        AtomicInteger pendingCount = new AtomicInteger(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            int position = i;
+            elementFutures.get(i).whenComplete((value, ex) -> {
+                if (ex != null) {
+                    valuesFuture.completeExceptionally(ex);
+                    return;
+                }
+
+                // the write is visible to the thread which counts down to zero.
+                values.set(position, value);
+                if (pendingCount.decrementAndGet() == 0) {
+                    valuesFuture.complete(values);
+                }
+            });
+        }
+        return valuesFuture;
+    }
+
+    /**
+     * Release the element futures held by this task, the element fetched later is not a part of the value of this task.
+     */
+    public void releaseListElementFutures() {
+        listElementFutureSlots = null;
+        listElementFutures.clear();
     }
 
     public void completeWithDummyValue() {
         taskFuture.complete(DUMMY_VALUE);
     }
 
-    public synchronized void addListElementResultFuture(CompletableFuture<Object> elementFuture) {
+    /**
+     * Allocate the slots for the futures of list elements, which must be invoked before any element is fetched.
+     *
+     * @param size the size of list
+     */
+    public void presizeListElementFutures(int size) {
+        if (listElementFutureSlots == null && listElementFutures.isEmpty()) {
+            listElementFutureSlots = new AtomicReferenceArray<>(size);
+        }
+    }
+
+    /**
+     * Add the future of list element.
+     *
+     * @param index         the position of element in list, or -1 if the position is unknown
+     * @param elementFuture the future of list element
+     */
+    public void addListElementResultFuture(int index, CompletableFuture<Object> elementFuture) {
+        AtomicReferenceArray<CompletableFuture<Object>> slots = listElementFutureSlots;
+        if (slots != null && index >= 0 && index < slots.length()) {
+            slots.set(index, elementFuture);
+            return;
+        }
         listElementFutures.add(elementFuture);
     }
 
@@ -149,6 +256,8 @@ public class FetchSourceTask {
 
         private String resultKey;
 
+        private boolean isAggregate;
+
         private FetchSourceTask parentTask;
 
         public Builder sourceName(String sourceName) {
@@ -196,6 +305,11 @@ public class FetchSourceTask {
             return this;
         }
 
+        public Builder isAggregate(boolean isAggregate) {
+            this.isAggregate = isAggregate;
+            return this;
+        }
+
         public FetchSourceTask build() {
             return new FetchSourceTask(
                     sourceName,
@@ -206,6 +320,7 @@ public class FetchSourceTask {
                     taskFuture,
                     mapper,
                     resultKey,
+                    isAggregate,
                     parentTask
             );
         }
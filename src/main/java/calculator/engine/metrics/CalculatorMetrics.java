@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.metrics;
+
+import calculator.engine.annotation.PublicApi;
+
+/**
+ * The metrics reported by calculator, all methods are no-op by default.
+ *
+ * <p>Implementations will be invoked on the fetching threads and should not block.
+ */
+@PublicApi
+public interface CalculatorMetrics {
+
+    CalculatorMetrics NOOP = new CalculatorMetrics() {
+    };
+
+    /**
+     * Invoked when the partition size of an adaptive {@code @partition} field is adjusted.
+     *
+     * @param fieldCoordinate the coordinate of field, e.g. {@code Query.userInfoList}
+     * @param partitionSize   the partition size which will be used by the following requests
+     */
+    default void partitionSize(String fieldCoordinate, int partitionSize) {
+    }
+
+    /**
+     * Invoked when a duplicate invocation is issued for a slow partition of hedged {@code @partition} field.
+     *
+     * @param fieldCoordinate the coordinate of field
+     */
+    default void hedgeIssued(String fieldCoordinate) {
+    }
+
+    /**
+     * Invoked when the duplicate invocation finished before the original one.
+     *
+     * @param fieldCoordinate the coordinate of field
+     */
+    default void hedgeWon(String fieldCoordinate) {
+    }
+
+    /**
+     * Invoked on each fetch of {@code @singleFlight} field, the coalescing ratio is the ratio of coalesced fetches.
+     *
+     * @param fieldCoordinate the coordinate of field
+     * @param coalesced       whether the fetch shares the result of an in-flight invocation
+     */
+    default void singleFlightFetch(String fieldCoordinate, boolean coalesced) {
+    }
+}
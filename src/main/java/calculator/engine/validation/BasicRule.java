@@ -19,12 +19,19 @@ package calculator.engine.validation;
 
 
 import calculator.config.Config;
+import calculator.engine.BatchDataFetcher;
 import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.Directives;
+import graphql.language.BooleanValue;
+import graphql.language.FloatValue;
 import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLCodeRegistry;
 import graphql.schema.GraphQLDirective;
 import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
 import graphql.schema.GraphQLNamedType;
 import graphql.schema.GraphQLSchemaElement;
 import graphql.schema.GraphQLType;
@@ -33,6 +40,7 @@ import graphql.schema.InputValueWithState;
 import graphql.util.TraversalControl;
 import graphql.util.TraverserContext;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -44,12 +52,23 @@ public class BasicRule extends AbstractRule {
 
     private final Config config;
 
-    BasicRule(Config config) {
+    private final GraphQLCodeRegistry codeRegistry;
+
+    BasicRule(Config config, GraphQLCodeRegistry codeRegistry) {
         this.config = config;
+        this.codeRegistry = codeRegistry;
     }
 
     @Override
     public TraversalControl visitGraphQLFieldDefinition(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
+        validatePartition(fieldDefinition, context);
+        validateBatched(fieldDefinition, context);
+        validateCached(fieldDefinition, context);
+        validateSingleFlight(fieldDefinition, context);
+        return TraversalControl.CONTINUE;
+    }
+
+    private void validatePartition(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
 
         Map<String, GraphQLArgument> argumentWithPartitionByName = fieldDefinition.getArguments().stream()
                 .filter(argument -> argument.getDirective(Directives.PARTITION.getName()) != null)
@@ -58,7 +77,7 @@ public class BasicRule extends AbstractRule {
                         Function.identity()
                 ));
         if (argumentWithPartitionByName.isEmpty()) {
-            return TraversalControl.CONTINUE;
+            return;
         }
 
         GraphQLNamedType parentNode = (GraphQLNamedType) context.getParentNode();
@@ -68,13 +87,13 @@ public class BasicRule extends AbstractRule {
         if (!GraphQLTypeUtil.isList(unwrapNonNullType)) {
             String errorMsg = String.format("@partition must be used on list type field, instead of {%s}.", fieldFullPath);
             addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
-            return TraversalControl.CONTINUE;
+            return;
         }
 
         if (argumentWithPartitionByName.size() > 1) {
             String errorMsg = String.format("more than one argument on {%s} use @partition.", fieldFullPath);
             addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
-            return TraversalControl.CONTINUE;
+            return;
         }
 
         GraphQLArgument argument = argumentWithPartitionByName.values().iterator().next();
@@ -84,7 +103,7 @@ public class BasicRule extends AbstractRule {
                     fieldFullPath + "." + argument.getName()
             );
             addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
-            return TraversalControl.CONTINUE;
+            return;
         }
 
 
@@ -94,9 +113,148 @@ public class BasicRule extends AbstractRule {
         if (!(sizeArgumentValue instanceof IntValue) || ((IntValue) sizeArgumentValue).getValue().intValue() <= 0) {
             String errorMsg = String.format("the size value of @partition on {%s} must be positive number.", fieldFullPath);
             addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
-            return TraversalControl.CONTINUE;
+            return;
         }
 
-        return TraversalControl.CONTINUE;
+        Object hedgeAfterPercentile = getArgumentValue(directive, "hedgeAfterPercentile");
+        if (hedgeAfterPercentile != null && (!(hedgeAfterPercentile instanceof IntValue)
+                || ((IntValue) hedgeAfterPercentile).getValue().intValue() < 1
+                || ((IntValue) hedgeAfterPercentile).getValue().intValue() > 99)) {
+            String errorMsg = String.format("the hedgeAfterPercentile value of @partition on {%s} must be in [1, 99].", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+            return;
+        }
+
+        for (String argumentName : Arrays.asList("concurrency", "targetLatency", "minSize", "maxSize")) {
+            Object argumentValue = getArgumentValue(directive, argumentName);
+            if (argumentValue != null
+                    && (!(argumentValue instanceof IntValue) || ((IntValue) argumentValue).getValue().intValue() <= 0)) {
+                String errorMsg = String.format("the %s value of @partition on {%s} must be positive number.", argumentName, fieldFullPath);
+                addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+                return;
+            }
+        }
+
+        Object maxFailureRatio = getArgumentValue(directive, "maxFailureRatio");
+        if (maxFailureRatio != null) {
+            double ratio = maxFailureRatio instanceof FloatValue ? ((FloatValue) maxFailureRatio).getValue().doubleValue()
+                    : maxFailureRatio instanceof IntValue ? ((IntValue) maxFailureRatio).getValue().doubleValue()
+                    : -1;
+            if (ratio < 0 || ratio > 1) {
+                String errorMsg = String.format("the maxFailureRatio value of @partition on {%s} must be in [0, 1].", fieldFullPath);
+                addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+                return;
+            }
+        }
+
+        Object resultKey = getArgumentValue(directive, "resultKey");
+        if (resultKey != null) {
+            Object deduplicate = getArgumentValue(directive, "deduplicate");
+            if (!(resultKey instanceof StringValue) || ((StringValue) resultKey).getValue().isEmpty()) {
+                String errorMsg = String.format("the resultKey value of @partition on {%s} must be non-empty string.", fieldFullPath);
+                addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+                return;
+            }
+
+            if (!(deduplicate instanceof BooleanValue) || !((BooleanValue) deduplicate).isValue()) {
+                String errorMsg = String.format("the resultKey of @partition on {%s} only works with deduplicate.", fieldFullPath);
+                addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+                return;
+            }
+        }
+
+        IntValue minSize = (IntValue) getArgumentValue(directive, "minSize");
+        IntValue maxSize = (IntValue) getArgumentValue(directive, "maxSize");
+        if (getArgumentValue(directive, "targetLatency") == null) {
+            if (minSize != null || maxSize != null) {
+                String errorMsg = String.format("the minSize and maxSize of @partition on {%s} only work with targetLatency.", fieldFullPath);
+                addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+            } else if (maxFailureRatio != null) {
+                String errorMsg = String.format("the maxFailureRatio of @partition on {%s} only works with targetLatency.", fieldFullPath);
+                addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+            }
+            return;
+        }
+
+        int size = ((IntValue) sizeArgumentValue).getValue().intValue();
+        if ((minSize != null && minSize.getValue().intValue() > size)
+                || (maxSize != null && maxSize.getValue().intValue() < size)) {
+            String errorMsg = String.format("the size value of @partition on {%s} must be between minSize and maxSize.", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+        }
+    }
+
+    private void validateBatched(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
+        GraphQLDirective directive = fieldDefinition.getDirective(Directives.BATCHED.getName());
+        if (directive == null) {
+            return;
+        }
+
+        GraphQLFieldsContainer parentNode = (GraphQLFieldsContainer) context.getParentNode();
+        String fieldFullPath = parentNode.getName() + "." + fieldDefinition.getName();
+
+        Object keyArgumentValue = getArgumentValue(directive, "key");
+        if (!(keyArgumentValue instanceof StringValue) || ((StringValue) keyArgumentValue).getValue().isEmpty()) {
+            String errorMsg = String.format("the key value of @batched on {%s} must be non-empty string.", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+            return;
+        }
+
+        DataFetcher<?> dataFetcher = codeRegistry.getDataFetcher(parentNode, fieldDefinition);
+        if (!(dataFetcher instanceof BatchDataFetcher)) {
+            String errorMsg = String.format("the DataFetcher of {%s} with @batched must implement BatchDataFetcher.", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+        }
+    }
+
+    private void validateCached(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
+        GraphQLDirective directive = fieldDefinition.getDirective(Directives.CACHED.getName());
+        if (directive == null) {
+            return;
+        }
+
+        GraphQLFieldsContainer parentNode = (GraphQLFieldsContainer) context.getParentNode();
+        String fieldFullPath = parentNode.getName() + "." + fieldDefinition.getName();
+
+        Object ttl = getArgumentValue(directive, "ttl");
+        if (!(ttl instanceof IntValue) || ((IntValue) ttl).getValue().intValue() <= 0) {
+            String errorMsg = String.format("the ttl value of @cached on {%s} must be positive number.", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+            return;
+        }
+
+        Object staleWhileRevalidate = getArgumentValue(directive, "staleWhileRevalidate");
+        if (staleWhileRevalidate != null
+                && (!(staleWhileRevalidate instanceof IntValue) || ((IntValue) staleWhileRevalidate).getValue().intValue() < 0)) {
+            String errorMsg = String.format("the staleWhileRevalidate value of @cached on {%s} can not be negative.", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+            return;
+        }
+
+        Object key = getArgumentValue(directive, "key");
+        if (key != null && (!(key instanceof StringValue) || ((StringValue) key).getValue().isEmpty())) {
+            String errorMsg = String.format("the key value of @cached on {%s} must be non-empty string.", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+        }
+    }
+
+    private void validateSingleFlight(GraphQLFieldDefinition fieldDefinition, TraverserContext<GraphQLSchemaElement> context) {
+        GraphQLDirective directive = fieldDefinition.getDirective(Directives.SINGLE_FLIGHT.getName());
+        if (directive == null) {
+            return;
+        }
+
+        Object key = getArgumentValue(directive, "key");
+        if (key != null && (!(key instanceof StringValue) || ((StringValue) key).getValue().isEmpty())) {
+            GraphQLFieldsContainer parentNode = (GraphQLFieldsContainer) context.getParentNode();
+            String fieldFullPath = parentNode.getName() + "." + fieldDefinition.getName();
+            String errorMsg = String.format("the key value of @singleFlight on {%s} must be non-empty string.", fieldFullPath);
+            addValidError(fieldDefinition.getDefinition().getSourceLocation(), errorMsg);
+        }
+    }
+
+    private Object getArgumentValue(GraphQLDirective directive, String argumentName) {
+        GraphQLArgument argument = directive.getArgument(argumentName);
+        return argument != null ? argument.getArgumentValue().getValue() : null;
     }
 }
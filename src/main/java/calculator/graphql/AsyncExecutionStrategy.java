@@ -17,7 +17,11 @@
 
 package calculator.graphql;
 
+import calculator.engine.BatchingDataFetcher;
+import calculator.engine.ExecutionEngineState;
+import calculator.engine.PartitionedList;
 import calculator.engine.annotation.Internal;
+import graphql.ExceptionWhileDataFetching;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
 import graphql.execution.AbortExecutionException;
@@ -42,14 +46,18 @@ import graphql.execution.instrumentation.parameters.InstrumentationExecutionStra
 import graphql.execution.instrumentation.parameters.InstrumentationFieldCompleteParameters;
 import graphql.util.FpKit;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
 
+import static calculator.common.CommonUtil.fieldPath;
 import static graphql.collect.ImmutableKit.map;
 import static graphql.execution.FieldValueInfo.CompleteValueType.LIST;
 
@@ -85,19 +93,29 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
 
         MergedSelectionSet fields = parameters.getFields();
         Set<String> fieldNames = fields.keySet();
-        List<CompletableFuture<FieldValueInfo>> futures = new ArrayList<>(fieldNames.size());
-        List<String> resolvedFields = new ArrayList<>(fieldNames.size());
-        for (String fieldName : fieldNames) {
-            MergedField currentField = fields.getSubField(fieldName);
-
-            ResultPath fieldPath = parameters.getPath().segment(mkNameForPath(currentField));
-            ExecutionStrategyParameters newParameters = parameters
-                    .transform(builder -> builder.field(currentField).path(fieldPath).parent(parameters));
-
-            resolvedFields.add(fieldName);
-            CompletableFuture<FieldValueInfo> future = resolveFieldWithInfo(executionContext, newParameters);
-            futures.add(future);
+        List<String> resolvedFields = new ArrayList<>(fieldNames);
+        CompletableFuture<FieldValueInfo>[] futureArray = new CompletableFuture[resolvedFields.size()];
+        ResultPath[] fieldPaths = new ResultPath[resolvedFields.size()];
+        for (int i = 0; i < resolvedFields.size(); i++) {
+            fieldPaths[i] = parameters.getPath().segment(mkNameForPath(fields.getSubField(resolvedFields.get(i))));
         }
+
+        // the fields on the way to the sources which have consumers are dispatched first,
+        // and the results are still in the order of fields.
+        Set<String> sourcePaths = getSourcePaths(executionContext);
+        if (!sourcePaths.isEmpty()) {
+            for (int i = 0; i < resolvedFields.size(); i++) {
+                if (sourcePaths.contains(fieldPath(fieldPaths[i]))) {
+                    futureArray[i] = resolveField(executionContext, parameters, fields.getSubField(resolvedFields.get(i)), fieldPaths[i]);
+                }
+            }
+        }
+        for (int i = 0; i < resolvedFields.size(); i++) {
+            if (futureArray[i] == null) {
+                futureArray[i] = resolveField(executionContext, parameters, fields.getSubField(resolvedFields.get(i)), fieldPaths[i]);
+            }
+        }
+        List<CompletableFuture<FieldValueInfo>> futures = Arrays.asList(futureArray);
         CompletableFuture<ExecutionResult> overallResult = new CompletableFuture<>();
         executionStrategyCtx.onDispatched(overallResult);
 
@@ -122,6 +140,23 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
         return overallResult;
     }
 
+    private CompletableFuture<FieldValueInfo> resolveField(ExecutionContext executionContext,
+                                                          ExecutionStrategyParameters parameters,
+                                                          MergedField currentField,
+                                                          ResultPath fieldPath) {
+        ExecutionStrategyParameters newParameters = parameters
+                .transform(builder -> builder.field(currentField).path(fieldPath).parent(parameters));
+        return resolveFieldWithInfo(executionContext, newParameters);
+    }
+
+    private Set<String> getSourcePaths(ExecutionContext executionContext) {
+        ExecutionEngineState engineState = ExecutionEngineState.getFromContext(executionContext.getGraphQLContext());
+        if (engineState == null) {
+            return Collections.emptySet();
+        }
+        return engineState.getSourcePaths();
+    }
+
     /**
      * Called to complete a list of value for a field based on a list type.  This iterates the values and calls
      * {@link #completeValue(ExecutionContext, ExecutionStrategyParameters)} for each value.
@@ -132,6 +167,9 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
      * @return a {@link FieldValueInfo}
      */
     protected FieldValueInfo completeValueForList(ExecutionContext executionContext, ExecutionStrategyParameters parameters, Iterable<Object> iterableValues) {
+        if (iterableValues instanceof PartitionedList) {
+            return completeValueForPartitionedList(executionContext, parameters, (PartitionedList) iterableValues);
+        }
 
         OptionalInt size = FpKit.toSize(iterableValues);
         ExecutionStepInfo executionStepInfo = parameters.getExecutionStepInfo();
@@ -144,36 +182,197 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
         );
 
         List<FieldValueInfo> fieldValueInfos = new ArrayList<>(size.orElse(1));
-        int index = 0;
-        for (Object item : iterableValues) {
-            ResultPath indexedPath = parameters.getPath().segment(index);
+        // the fetches of @batched fields in elements are dispatched once all elements are dispatched.
+        BatchingDataFetcher.enterBatchScope();
+        try {
+            int index = 0;
+            for (Object item : iterableValues) {
+                fieldValueInfos.add(completeListElement(executionContext, parameters, item, index, size.orElse(-1)));
+                index++;
+            }
+        } finally {
+            BatchingDataFetcher.exitBatchScope();
+        }
+
+        CompletableFuture<ExecutionResult> overallResult = new CompletableFuture<>();
+        completeListCtx.onDispatched(overallResult);
+        completeListResult(executionContext, fieldValueInfos, completeListCtx, overallResult);
+
+        return FieldValueInfo.newFieldValueInfo(LIST)
+                .fieldValue(overallResult)
+                .fieldValueInfos(fieldValueInfos)
+                .build();
+    }
 
-            ExecutionStepInfo stepInfoForListElement = executionStepInfoFactory.newExecutionStepInfoForListElement(executionStepInfo, index);
+    /**
+     * Complete the elements of streaming partitions when the partition and all the partitions before it are finished.
+     *
+     * <p>Partitions are dispatched in order because the index of element depends on the size of the previous partitions,
+     * so that the result path of each element is exact and the final order is deterministic.
+     *
+     * <p>The partitions may be dispatched on other threads after this method returned, so the {@code fieldValueInfos}
+     * of the returned {@link FieldValueInfo} is a {@link PartitionValueInfos}, and the field is reported to graphql-java
+     * by {@link #resolveFieldWithInfo} with all the element infos once all the partitions are dispatched.
+     */
+    private FieldValueInfo completeValueForPartitionedList(ExecutionContext executionContext,
+                                                           ExecutionStrategyParameters parameters,
+                                                           PartitionedList partitionedList) {
+        ExecutionStepInfo executionStepInfo = parameters.getExecutionStepInfo();
+
+        InstrumentationFieldCompleteParameters instrumentationParams = new InstrumentationFieldCompleteParameters(executionContext, parameters, () -> executionStepInfo, partitionedList);
+        Instrumentation instrumentation = executionContext.getInstrumentation();
+
+        InstrumentationContext<ExecutionResult> completeListCtx = instrumentation.beginFieldListComplete(
+                instrumentationParams, executionContext.getInstrumentationState()
+        );
+
+        // only appended by the partition callbacks, which run one after another, and guarded by itself for PartitionValueInfos.
+        List<FieldValueInfo> fieldValueInfos = new ArrayList<>();
+        CompletableFuture<Void> dispatchedFuture = CompletableFuture.completedFuture(null);
+        for (CompletableFuture<List<Object>> partition : partitionedList.getPartitions()) {
+            dispatchedFuture = dispatchedFuture.thenCombine(partition, (ignored, partitionResult) -> {
+                int fromIndex = fieldValueInfos.size();
+                List<FieldValueInfo> partitionValueInfos = new ArrayList<>(partitionResult.size());
+                BatchingDataFetcher.enterBatchScope();
+                try {
+                    for (Object item : partitionResult) {
+                        partitionValueInfos.add(completeListElement(
+                                executionContext, parameters, item, fromIndex + partitionValueInfos.size(), -1
+                        ));
+                    }
+                } finally {
+                    BatchingDataFetcher.exitBatchScope();
+                }
+                synchronized (fieldValueInfos) {
+                    fieldValueInfos.addAll(partitionValueInfos);
+                }
+                return null;
+            });
+        }
+
+        CompletableFuture<ExecutionResult> overallResult = new CompletableFuture<>();
+        dispatchedFuture.whenComplete((ignored, exception) -> {
+            completeListCtx.onDispatched(overallResult);
+            if (exception == null) {
+                completeListResult(executionContext, fieldValueInfos, completeListCtx, overallResult);
+                return;
+            }
+
+            Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                    ? exception.getCause()
+                    : exception;
+            executionContext.addError(new ExceptionWhileDataFetching(
+                    parameters.getPath(), cause, parameters.getField().getSingleField().getSourceLocation()
+            ));
+            try {
+                parameters.getNonNullFieldValidator().validate(parameters.getPath(), null);
+                ExecutionResultImpl executionResult = new ExecutionResultImpl(null, null);
+                completeListCtx.onCompleted(executionResult, cause);
+                overallResult.complete(executionResult);
+            } catch (NonNullableFieldWasNullException e) {
+                ExecutionResult executionResult = handleNonNullException(executionContext, overallResult, e);
+                completeListCtx.onCompleted(executionResult, e);
+            }
+        });
 
-            NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, stepInfoForListElement);
+        return FieldValueInfo.newFieldValueInfo(LIST)
+                .fieldValue(overallResult)
+                .fieldValueInfos(new PartitionValueInfos(fieldValueInfos, dispatchedFuture))
+                .build();
+    }
 
-            int finalIndex = index;
-            FetchedValue value = unboxPossibleDataFetcherResult(executionContext, parameters, item);
+    /**
+     * Complete the future of {@link FieldValueInfo} after the elements of streaming partitions are all dispatched,
+     * so that the consumers of {@code fieldValueInfos}, e.g. the field level tracking of DataLoader, see all the elements.
+     */
+    @Override
+    protected CompletableFuture<FieldValueInfo> resolveFieldWithInfo(ExecutionContext executionContext,
+                                                                     ExecutionStrategyParameters parameters) {
+        return super.resolveFieldWithInfo(executionContext, parameters).thenCompose(fieldValueInfo -> {
+            if (!(fieldValueInfo.getFieldValueInfos() instanceof PartitionValueInfos)) {
+                return CompletableFuture.completedFuture(fieldValueInfo);
+            }
 
-            ExecutionStrategyParameters newParameters = parameters.transform(builder ->
-                    builder.executionStepInfo(stepInfoForListElement)
-                            .nonNullFieldValidator(nonNullableFieldValidator)
-                            .listSize(size.orElse(-1)) // -1 signals that we don't know the size
-                            .localContext(value.getLocalContext())
-                            .currentListIndex(finalIndex)
-                            .path(indexedPath)
-                            .source(value.getFetchedValue())
+            PartitionValueInfos partitionValueInfos = (PartitionValueInfos) fieldValueInfo.getFieldValueInfos();
+            return partitionValueInfos.dispatchedFuture.handle((ignored, exception) ->
+                    FieldValueInfo.newFieldValueInfo(LIST)
+                            .fieldValue(fieldValueInfo.getFieldValue())
+                            .fieldValueInfos(partitionValueInfos.dispatchedValueInfos())
+                            .build()
             );
-            fieldValueInfos.add(completeValue(executionContext, newParameters));
-            index++;
+        });
+    }
+
+    /**
+     * The element infos of streaming partitions which are appended as the partitions are dispatched,
+     * it's read-only and reflects the elements dispatched so far.
+     */
+    private static class PartitionValueInfos extends AbstractList<FieldValueInfo> {
+
+        // guarded by itself.
+        private final List<FieldValueInfo> fieldValueInfos;
+
+        private final CompletableFuture<Void> dispatchedFuture;
+
+        PartitionValueInfos(List<FieldValueInfo> fieldValueInfos, CompletableFuture<Void> dispatchedFuture) {
+            this.fieldValueInfos = fieldValueInfos;
+            this.dispatchedFuture = dispatchedFuture;
+        }
+
+        List<FieldValueInfo> dispatchedValueInfos() {
+            synchronized (fieldValueInfos) {
+                return Collections.unmodifiableList(new ArrayList<>(fieldValueInfos));
+            }
+        }
+
+        @Override
+        public FieldValueInfo get(int index) {
+            synchronized (fieldValueInfos) {
+                return fieldValueInfos.get(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (fieldValueInfos) {
+                return fieldValueInfos.size();
+            }
         }
+    }
 
+    private FieldValueInfo completeListElement(ExecutionContext executionContext,
+                                               ExecutionStrategyParameters parameters,
+                                               Object item,
+                                               int index,
+                                               int listSize) {
+        ExecutionStepInfo executionStepInfo = parameters.getExecutionStepInfo();
+        ResultPath indexedPath = parameters.getPath().segment(index);
+
+        ExecutionStepInfo stepInfoForListElement = executionStepInfoFactory.newExecutionStepInfoForListElement(executionStepInfo, index);
+
+        NonNullableFieldValidator nonNullableFieldValidator = new NonNullableFieldValidator(executionContext, stepInfoForListElement);
+
+        FetchedValue value = unboxPossibleDataFetcherResult(executionContext, parameters, item);
+
+        ExecutionStrategyParameters newParameters = parameters.transform(builder ->
+                builder.executionStepInfo(stepInfoForListElement)
+                        .nonNullFieldValidator(nonNullableFieldValidator)
+                        .listSize(listSize) // -1 signals that we don't know the size
+                        .localContext(value.getLocalContext())
+                        .currentListIndex(index)
+                        .path(indexedPath)
+                        .source(value.getFetchedValue())
+        );
+        return completeValue(executionContext, newParameters);
+    }
+
+    private void completeListResult(ExecutionContext executionContext,
+                                    List<FieldValueInfo> fieldValueInfos,
+                                    InstrumentationContext<ExecutionResult> completeListCtx,
+                                    CompletableFuture<ExecutionResult> overallResult) {
         // 将列表元素对应的异步任务 List<CompletableFuture<Object>> 转换成所有元素结果集合对应的异步任务 CompletableFuture<List<Object>>
         CompletableFuture<List<ExecutionResult>> resultsFuture = Async.each(fieldValueInfos, (item, i) -> item.getFieldValue());
 
-        CompletableFuture<ExecutionResult> overallResult = new CompletableFuture<>();
-        completeListCtx.onDispatched(overallResult);
-
         resultsFuture.whenComplete((results, exception) -> {
             if (exception != null) {
                 ExecutionResult executionResult = handleNonNullException(executionContext, overallResult, exception);
@@ -196,10 +395,5 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
                 overallResult.complete(resultx);
             }
         });
-
-        return FieldValueInfo.newFieldValueInfo(LIST)
-                .fieldValue(overallResult)
-                .fieldValueInfos(fieldValueInfos)
-                .build();
     }
-}
\ No newline at end of file
+}
@@ -21,6 +21,8 @@ import calculator.config.Config;
 import calculator.engine.ExecutionEngine;
 import calculator.engine.SchemaWrapper;
 import calculator.engine.annotation.PublicApi;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
 import graphql.GraphQL;
 import graphql.execution.instrumentation.ChainedInstrumentation;
 import graphql.execution.instrumentation.Instrumentation;
@@ -28,9 +30,13 @@ import graphql.execution.preparsed.PreparsedDocumentProvider;
 import graphql.schema.GraphQLSchema;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 @PublicApi
@@ -47,6 +53,8 @@ public class DefaultGraphQLSourceBuilder implements GraphQLSource.Builder {
     private Consumer<GraphQL.Builder> graphQLTransform = ignored -> {
     };
 
+    private Function<ExecutionInput, Object> requestContextKey;
+
 
     @Override
     public GraphQLSource.Builder wrapperConfig(Config wrapperConfig) {
@@ -91,6 +99,12 @@ public class DefaultGraphQLSourceBuilder implements GraphQLSource.Builder {
         return this;
     }
 
+    @Override
+    public GraphQLSource.Builder requestSingleFlight(Function<ExecutionInput, Object> contextKey) {
+        this.requestContextKey = Objects.requireNonNull(contextKey, "contextKey can not be null.");
+        return this;
+    }
+
     @Override
     public GraphQLSource build() {
         Objects.requireNonNull(wrapperConfig);
@@ -113,7 +127,7 @@ public class DefaultGraphQLSourceBuilder implements GraphQLSource.Builder {
         }
         graphQLTransform.accept(graphQLBuilder);
 
-        return new DefaultGraphQLSource(wrappedSchema, graphQLBuilder.build());
+        return new DefaultGraphQLSource(wrappedSchema, graphQLBuilder.build(), requestContextKey);
     }
 
 
@@ -123,10 +137,15 @@ public class DefaultGraphQLSourceBuilder implements GraphQLSource.Builder {
 
         private final GraphQL graphQL;
 
-        DefaultGraphQLSource(GraphQLSchema wrappedSchema, GraphQL graphQL) {
+        // share in-flight executions if it's not null.
+        private final Function<ExecutionInput, Object> requestContextKey;
+
+        private final ConcurrentHashMap<List<Object>, SharedExecution> inFlightExecutions = new ConcurrentHashMap<>();
+
+        DefaultGraphQLSource(GraphQLSchema wrappedSchema, GraphQL graphQL, Function<ExecutionInput, Object> requestContextKey) {
             this.wrappedSchema = wrappedSchema;
             this.graphQL = graphQL;
-
+            this.requestContextKey = requestContextKey;
         }
 
         @Override
@@ -138,6 +157,37 @@ public class DefaultGraphQLSourceBuilder implements GraphQLSource.Builder {
         public GraphQL getGraphQL() {
             return graphQL;
         }
+
+        @Override
+        public CompletableFuture<ExecutionResult> executeAsync(ExecutionInput executionInput) {
+            Object contextKey = requestContextKey != null ? requestContextKey.apply(executionInput) : null;
+            if (contextKey == null) {
+                return graphQL.executeAsync(executionInput);
+            }
+
+            List<Object> executionKey = Arrays.asList(
+                    executionInput.getQuery(), executionInput.getOperationName(), executionInput.getVariables(), contextKey
+            );
+            while (true) {
+                SharedExecution sharedExecution = new SharedExecution(
+                        executionInput, released -> inFlightExecutions.remove(executionKey, released)
+                );
+                // subscribe before sharing, so that the execution will not be cancelled by the other subscribers.
+                CompletableFuture<ExecutionResult> resultFuture = sharedExecution.subscribe(executionInput);
+                SharedExecution inFlightExecution = inFlightExecutions.putIfAbsent(executionKey, sharedExecution);
+                if (inFlightExecution == null) {
+                    sharedExecution.execute(graphQL);
+                    return resultFuture;
+                }
+
+                CompletableFuture<ExecutionResult> sharedFuture = inFlightExecution.subscribe(executionInput);
+                if (sharedFuture != null) {
+                    return sharedFuture;
+                }
+                // the in-flight execution has been cancelled by all its subscribers.
+                inFlightExecutions.remove(executionKey, inFlightExecution);
+            }
+        }
     }
 
 }
@@ -18,14 +18,19 @@
 package calculator.graphql;
 
 import calculator.config.Config;
+import calculator.engine.ExecutionEngineState;
 import calculator.engine.annotation.PublicApi;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
 import graphql.GraphQL;
 import graphql.execution.instrumentation.Instrumentation;
 import graphql.execution.preparsed.PreparsedDocumentProvider;
 import graphql.schema.GraphQLSchema;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @PublicApi
 public interface GraphQLSource {
@@ -34,10 +39,57 @@ public interface GraphQLSource {
 
     GraphQL getGraphQL();
 
+    /**
+     * Execute the request, the identical requests in flight share one execution if
+     * {@link Builder#requestSingleFlight} is set.
+     *
+     * @param executionInput the input of request
+     * @return the result of request
+     */
+    default CompletableFuture<ExecutionResult> executeAsync(ExecutionInput executionInput) {
+        return getGraphQL().executeAsync(executionInput);
+    }
+
+    /**
+     * The blocking version of {@link #executeAsync(ExecutionInput)}.
+     *
+     * @param executionInput the input of request
+     * @return the result of request
+     */
+    default ExecutionResult execute(ExecutionInput executionInput) {
+        return executeAsync(executionInput).join();
+    }
+
     static Builder newGraphQLSource(){
         return new DefaultGraphQLSourceBuilder();
     }
 
+    /**
+     * Cancel the running fetches of the execution for {@code executionInput}, e.g. the client has disconnected.
+     *
+     * <p>The {@code CompletableFuture} returned by DataFetcher will be cancelled, and the fields
+     * which are not completed will be resolved with error.
+     *
+     * <p>If the request shares an in-flight execution by {@link Builder#requestSingleFlight}, only the result
+     * of this request is cancelled, and the shared execution is cancelled when all the requests sharing it are cancelled.
+     *
+     * @param executionInput the input of the execution to be cancelled
+     * @return true if the execution is found and cancelled
+     */
+    static boolean cancel(ExecutionInput executionInput) {
+        if (SharedExecution.cancelSubscriber(executionInput)) {
+            return true;
+        }
+
+        ExecutionEngineState engineState = ExecutionEngineState.getFromContext(executionInput.getGraphQLContext());
+        if (engineState == null) {
+            return false;
+        }
+
+        engineState.cancel();
+        return true;
+    }
+
     interface Builder {
 
         Builder wrapperConfig(Config wrapperConfig);
@@ -52,6 +104,18 @@ public interface GraphQLSource {
 
         Builder graphQLTransform(Consumer<GraphQL.Builder> builderConsumer);
 
+        /**
+         * Share the in-flight execution with the requests which have same query, operation name, variables
+         * and context key when executed by {@link GraphQLSource#executeAsync}.
+         *
+         * @param contextKey the key of request context which affects the result, e.g. user id;
+         *                   the request is not shared if the key is null
+         * @return this builder
+         */
+        default Builder requestSingleFlight(Function<ExecutionInput, Object> contextKey) {
+            throw new UnsupportedOperationException("requestSingleFlight is not supported by " + getClass().getName());
+        }
+
         GraphQLSource build();
 
     }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.graphql;
+
+import calculator.engine.ExecutionEngineState;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The execution shared by the identical requests in flight, each request subscribes its own result future,
+ * and the execution is cancelled only when all the subscribed results are cancelled.
+ */
+class SharedExecution {
+
+    private final ExecutionInput executionInput;
+
+    // called when the execution can not be shared anymore, i.e. completed or cancelled.
+    private final Consumer<SharedExecution> onReleased;
+
+    private final CompletableFuture<ExecutionResult> resultFuture = new CompletableFuture<>();
+
+    // guarded by this.
+    private final Set<CompletableFuture<ExecutionResult>> subscribers = new HashSet<>();
+
+    // guarded by this.
+    private boolean cancelled = false;
+
+    SharedExecution(ExecutionInput executionInput, Consumer<SharedExecution> onReleased) {
+        this.executionInput = executionInput;
+        this.onReleased = onReleased;
+    }
+
+    /**
+     * Subscribe the result of execution for the request.
+     *
+     * @param subscriberInput the input of request
+     * @return the result of request, or null if the execution has been cancelled and can not be shared
+     */
+    CompletableFuture<ExecutionResult> subscribe(ExecutionInput subscriberInput) {
+        CompletableFuture<ExecutionResult> subscriber = new CompletableFuture<>();
+        synchronized (this) {
+            if (cancelled) {
+                return null;
+            }
+            subscribers.add(subscriber);
+        }
+        subscriberInput.getGraphQLContext().put(SharedExecution.class, subscriber);
+
+        subscriber.whenComplete((ignore, ex) -> {
+            if (subscriber.isCancelled()) {
+                unsubscribe(subscriber);
+            }
+        });
+        resultFuture.whenComplete((result, ex) -> {
+            if (ex != null) {
+                subscriber.completeExceptionally(ex);
+            } else {
+                subscriber.complete(result);
+            }
+        });
+        return subscriber;
+    }
+
+    void execute(GraphQL graphQL) {
+        CompletableFuture<ExecutionResult> executionFuture;
+        try {
+            executionFuture = graphQL.executeAsync(executionInput);
+        } catch (Throwable e) {
+            onReleased.accept(this);
+            resultFuture.completeExceptionally(e);
+            throw e;
+        }
+
+        executionFuture.whenComplete((result, ex) -> {
+            onReleased.accept(this);
+            if (ex != null) {
+                resultFuture.completeExceptionally(ex);
+            } else {
+                resultFuture.complete(result);
+            }
+        });
+        // all the subscribers may be cancelled before the state of execution is created.
+        if (isCancelled()) {
+            cancelExecution();
+        }
+    }
+
+    private void unsubscribe(CompletableFuture<ExecutionResult> subscriber) {
+        synchronized (this) {
+            subscribers.remove(subscriber);
+            if (cancelled || !subscribers.isEmpty()) {
+                return;
+            }
+            cancelled = true;
+        }
+
+        onReleased.accept(this);
+        cancelExecution();
+    }
+
+    private synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void cancelExecution() {
+        ExecutionEngineState engineState = ExecutionEngineState.getFromContext(executionInput.getGraphQLContext());
+        if (engineState != null) {
+            engineState.cancel();
+        }
+    }
+
+    /**
+     * Cancel the result subscribed by the request, the shared execution keeps running for the other subscribers.
+     *
+     * @param subscriberInput the input of request
+     * @return true if the request has subscribed a shared execution
+     */
+    static boolean cancelSubscriber(ExecutionInput subscriberInput) {
+        if (subscriberInput.getGraphQLContext() == null) {
+            return false;
+        }
+
+        CompletableFuture<ExecutionResult> subscriber = subscriberInput.getGraphQLContext().get(SharedExecution.class);
+        if (subscriber == null) {
+            return false;
+        }
+
+        subscriber.cancel(false);
+        return true;
+    }
+}
@@ -17,6 +17,9 @@
 package calculator.validation;
 
 import calculator.engine.annotation.Internal;
+import calculator.engine.handler.ListAggregator;
+import calculator.engine.handler.SortHandler;
+import calculator.engine.handler.SortKey;
 import calculator.engine.metadata.Directives;
 import calculator.engine.script.ScriptEvaluator;
 import calculator.engine.script.ValidateInfo;
@@ -24,15 +27,23 @@ import graphql.analysis.QueryVisitorFieldEnvironment;
 import graphql.analysis.QueryVisitorFragmentSpreadEnvironment;
 import graphql.analysis.QueryVisitorInlineFragmentEnvironment;
 import graphql.language.Argument;
+import graphql.language.BooleanValue;
 import graphql.language.Directive;
 import graphql.language.Field;
+import graphql.language.IntValue;
 import graphql.language.SourceLocation;
+import graphql.language.Value;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLList;
 import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLTypeUtil;
 import graphql.util.TraverserContext;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,9 +55,11 @@ import static calculator.common.CommonUtil.getDependencySources;
 import static calculator.common.CommonUtil.isValidEleName;
 import static calculator.common.CommonUtil.parseValue;
 import static calculator.common.GraphQLUtil.getTopTaskEnv;
+import static calculator.common.GraphQLUtil.isInList;
 import static calculator.common.GraphQLUtil.isLeafField;
 import static calculator.common.GraphQLUtil.parentPathSet;
 import static calculator.common.GraphQLUtil.pathForTraverse;
+import static calculator.engine.metadata.Directives.AGGREGATE;
 import static calculator.engine.metadata.Directives.ARGUMENT_TRANSFORM;
 import static calculator.engine.metadata.Directives.DISTINCT;
 import static calculator.engine.metadata.Directives.FETCH_SOURCE;
@@ -54,9 +67,12 @@ import static calculator.engine.metadata.Directives.FILTER;
 import static calculator.engine.metadata.Directives.INCLUDE_BY;
 import static calculator.engine.metadata.Directives.MAP;
 import static calculator.engine.metadata.Directives.MOCK;
+import static calculator.engine.metadata.Directives.PARTITION;
 import static calculator.engine.metadata.Directives.SKIP_BY;
+import static calculator.engine.metadata.Directives.SLICE;
 import static calculator.engine.metadata.Directives.SORT;
 import static calculator.engine.metadata.Directives.SORT_BY;
+import static calculator.engine.metadata.Directives.TOP_N;
 import static calculator.validation.CalculatorSchemaValidationErrorType.InvalidExpression;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toSet;
@@ -65,6 +81,10 @@ import static java.util.stream.Collectors.toSet;
 @Internal
 public class BasicRule extends AbstractRule {
 
+    private static final List<String> LIST_DIRECTIVES = Arrays.asList(
+            FILTER.getName(), DISTINCT.getName(), SORT.getName(), SORT_BY.getName()
+    );
+
     private final ScriptEvaluator scriptEvaluator;
 
     // <sourceName, annotatedField>
@@ -79,6 +99,9 @@ public class BasicRule extends AbstractRule {
     // <fieldFullPath, List<ancestorNode>>
     private final Map<String, Set<String>> fieldWithAncestorPath = new LinkedHashMap<>();
 
+    // the fields whose elements are completed as the partitions are finished.
+    private final Set<String> streamPartitionFields = new HashSet<>();
+
     public BasicRule(ScriptEvaluator scriptEvaluator) {
         this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
     }
@@ -111,6 +134,20 @@ public class BasicRule extends AbstractRule {
 
         Set<String> argumentsOnField = environment.getField().getArguments().stream().map(Argument::getName).collect(toSet());
 
+        // the list of streaming partitions is not available until all partitions are finished.
+        if (isStreamPartition(environment.getFieldDefinition())) {
+            streamPartitionFields.add(fieldFullPath);
+            boolean withListDirective = environment.getField().getDirectives().stream().anyMatch(directiveOnField ->
+                    LIST_DIRECTIVES.contains(directiveOnField.getName())
+                            || Objects.equals(directiveOnField.getName(), TOP_N.getName())
+                            || Objects.equals(directiveOnField.getName(), SLICE.getName())
+                            || Objects.equals(directiveOnField.getName(), AGGREGATE.getName())
+            );
+            if (withListDirective) {
+                String errorMsg = String.format("list directives can not be used on the streaming @partition field {%s}.", fieldFullPath);
+                addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+            }
+        }
 
         for (Directive directive : environment.getField().getDirectives()) {
             String directiveName = directive.getName();
@@ -215,23 +252,22 @@ public class BasicRule extends AbstractRule {
                     continue;
                 }
 
-                String key = (String) parseValue(
-                        directive.getArgument("key").getValue()
-                );
-                if (key == null || key.isEmpty()) {
-                    String errorMsg = String.format("sort key used on {%s} can not be null.", fieldFullPath);
+                List<SortKey> sortKeys = SortHandler.getSortKeys(directive);
+                if (sortKeys == null || sortKeys.isEmpty()) {
+                    String errorMsg = String.format("invalid sort key used on {%s}, key must be in the form of '<key> [asc|desc] [nullsFirst|nullsLast]'.", fieldFullPath);
                     addValidError(InvalidExpression, location, errorMsg);
                     continue;
                 }
 
-                boolean validKey = environment.getField().getSelectionSet().getSelections().stream()
+                Set<String> resultKeys = environment.getField().getSelectionSet().getSelections().stream()
                         .map(selection -> ((Field) selection).getResultKey())
-                        .anyMatch(key::equals);
-
-                if (!validKey) {
-                    String errorMsg = String.format("non-exist key name '%s' for @sort on {%s}.", key, fieldFullPath);
-                    addValidError(InvalidExpression, location, errorMsg);
-                    continue;
+                        .collect(toSet());
+                for (SortKey sortKey : sortKeys) {
+                    if (!resultKeys.contains(sortKey.getKey())) {
+                        String errorMsg = String.format("non-exist key name '%s' for @sort on {%s}.", sortKey.getKey(), fieldFullPath);
+                        addValidError(InvalidExpression, location, errorMsg);
+                        break;
+                    }
                 }
 
             } else if (Objects.equals(directiveName, SORT_BY.getName())) {
@@ -267,6 +303,143 @@ public class BasicRule extends AbstractRule {
                 checkAndSetSourceUsedByFieldInfo(fieldFullPath,directive);
                 fieldWithAncestorPath.put(fieldFullPath,parentPathSet(environment));
 
+            } else if (Objects.equals(directiveName, TOP_N.getName())) {
+                String comparator = (String) parseValue(
+                        directive.getArgument("comparator").getValue()
+                );
+
+                ValidateInfo validateInfo = scriptEvaluator.isValidScript(comparator);
+                if (!validateInfo.isValidScript()) {
+                    String errorMsg = String.format("invalid comparator '%s' for @topN on {%s}: %s",
+                            comparator, fieldFullPath, validateInfo.getErrorMsg()
+                    );
+                    addValidError(InvalidExpression, location, errorMsg);
+                    continue;
+                }
+
+                Value<?> n = directive.getArgument("n").getValue();
+                if (!(n instanceof IntValue) || ((IntValue) n).getValue().signum() <= 0) {
+                    String errorMsg = String.format("n of @topN on {%s} must be positive int.", fieldFullPath);
+                    addValidError(InvalidExpression, location, errorMsg);
+                    continue;
+                }
+
+                GraphQLType innerType = GraphQLTypeUtil.unwrapNonNull(
+                        environment.getFieldDefinition().getType()
+                );
+
+                if (!GraphQLTypeUtil.isList(innerType)) {
+                    // 使用'{}'，和 graphql 中的数组表示 '[]' 作区分
+                    String errorMsg = String.format("@topN must annotated on list type, instead of {%s}.", fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
+                // @topN drops elements before they are completed, which would change the result of other list directives.
+                boolean withListDirective = environment.getField().getDirectives().stream().anyMatch(
+                        directiveOnField -> LIST_DIRECTIVES.contains(directiveOnField.getName())
+                );
+                if (withListDirective) {
+                    String errorMsg = String.format("@topN can not be used with %s on {%s}.", LIST_DIRECTIVES, fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
+                // the comparator is evaluated on the fetched elements, only 'ele' can be used for the list of leaf type.
+                if (isLeafField(environment.getFieldDefinition())
+                        && !validateExpressionArgumentExist(environment.getField(), directive, comparator, fieldFullPath, environment)) {
+                    continue;
+                }
+
+                fieldWithAncestorPath.put(fieldFullPath, parentPathSet(environment));
+
+            } else if (Objects.equals(directiveName, SLICE.getName())) {
+                Argument offset = directive.getArgument("offset");
+                if (offset != null && !(offset.getValue() instanceof IntValue && ((IntValue) offset.getValue()).getValue().signum() >= 0)) {
+                    String errorMsg = String.format("offset of @slice on {%s} must be non-negative int.", fieldFullPath);
+                    addValidError(InvalidExpression, location, errorMsg);
+                    continue;
+                }
+
+                Value<?> limit = directive.getArgument("limit").getValue();
+                if (!(limit instanceof IntValue) || ((IntValue) limit).getValue().signum() <= 0) {
+                    String errorMsg = String.format("limit of @slice on {%s} must be positive int.", fieldFullPath);
+                    addValidError(InvalidExpression, location, errorMsg);
+                    continue;
+                }
+
+                GraphQLType innerType = GraphQLTypeUtil.unwrapNonNull(
+                        environment.getFieldDefinition().getType()
+                );
+
+                if (!GraphQLTypeUtil.isList(innerType)) {
+                    // 使用'{}'，和 graphql 中的数组表示 '[]' 作区分
+                    String errorMsg = String.format("@slice must annotated on list type, instead of {%s}.", fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
+                // the list is sliced after the other list directives are applied.
+                List<Directive> directivesOnField = environment.getField().getDirectives();
+                boolean listDirectiveAfterSlice = directivesOnField.subList(directivesOnField.indexOf(directive) + 1, directivesOnField.size())
+                        .stream().anyMatch(directiveOnField ->
+                                LIST_DIRECTIVES.contains(directiveOnField.getName()) || Objects.equals(directiveOnField.getName(), TOP_N.getName())
+                        );
+                if (listDirectiveAfterSlice) {
+                    String errorMsg = String.format("@slice must be the last list directive on {%s}.", fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
+                fieldWithAncestorPath.put(fieldFullPath, parentPathSet(environment));
+
+            } else if (Objects.equals(directiveName, AGGREGATE.getName())) {
+                String sourceName = getArgumentFromDirective(directive, "name");
+                checkAndSetSourceName(sourceName, fieldFullPath, location);
+
+                String op = getArgumentFromDirective(directive, "op");
+                if (!ListAggregator.isValidOp(op)) {
+                    String errorMsg = String.format("invalid op '%s' for @aggregate on {%s}, should be one of %s.",
+                            op, fieldFullPath, Arrays.toString(ListAggregator.Op.values())
+                    );
+                    addValidError(InvalidExpression, location, errorMsg);
+                    continue;
+                }
+
+                GraphQLType innerType = GraphQLTypeUtil.unwrapNonNull(
+                        environment.getFieldDefinition().getType()
+                );
+
+                if (!GraphQLTypeUtil.isList(innerType)) {
+                    // 使用'{}'，和 graphql 中的数组表示 '[]' 作区分
+                    String errorMsg = String.format("@aggregate must annotated on list type, instead of {%s}.", fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
+                if (isInList(environment)) {
+                    String errorMsg = String.format("@aggregate can not be annotated on the field in list, {%s}.", fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
+                // the fetched list is aggregated, the other list directives and @fetchSource would be confused with it.
+                boolean withOtherDirective = environment.getField().getDirectives().stream().anyMatch(directiveOnField ->
+                        LIST_DIRECTIVES.contains(directiveOnField.getName())
+                                || Objects.equals(directiveOnField.getName(), TOP_N.getName())
+                                || Objects.equals(directiveOnField.getName(), SLICE.getName())
+                                || Objects.equals(directiveOnField.getName(), FETCH_SOURCE.getName())
+                );
+                if (withOtherDirective) {
+                    String errorMsg = String.format("@aggregate can not be used with list directives or @fetchSource on {%s}.", fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
+                checkAndSetFieldWithTopTask(fieldFullPath, directive, environment);
+                checkAndSetSourceUsedByFieldInfo(fieldFullPath, directive);
+                fieldWithAncestorPath.put(fieldFullPath, parentPathSet(environment));
+
             } else if (Objects.equals(directiveName, DISTINCT.getName())) {
 
                 String comparator = directive.getArgument("comparator") == null ?
@@ -360,23 +533,17 @@ public class BasicRule extends AbstractRule {
                 fieldWithAncestorPath.put(fieldFullPath,parentPathSet(environment));
 
             } else if (Objects.equals(directiveName, FETCH_SOURCE.getName())) {
+                if (streamPartitionFields.contains(fieldFullPath)
+                        || parentPathSet(environment).stream().anyMatch(streamPartitionFields::contains)) {
+                    String errorMsg = String.format("@fetchSource can not be used on or under the streaming @partition field, {%s}.", fieldFullPath);
+                    addValidError(CalculatorSchemaValidationErrorType.InvalidLocation, location, errorMsg);
+                    continue;
+                }
+
                 String sourceName = (String) parseValue(
                         directive.getArgument("name").getValue()
                 );
-
-                // 验证节点名称是否已经被其他字段使用
-                if (sourceWithAnnotatedField.containsKey(sourceName)) {
-                    String errorMsg = String.format("duplicate source name '%s' for {%s} and {%s}.",
-                            sourceName, sourceWithAnnotatedField.get(sourceName), fieldFullPath
-                    );
-                    addValidError(InvalidExpression, location, errorMsg);
-                } else {
-                    sourceWithAnnotatedField.put(sourceName, fieldFullPath);
-                    if (!isValidEleName(sourceName)) {
-                        String errorMsg = String.format("invalid source name '%s' for {%s}.", sourceName, fieldFullPath);
-                        addValidError(InvalidExpression, location, errorMsg);
-                    }
-                }
+                checkAndSetSourceName(sourceName, fieldFullPath, location);
 
                 String sourceConvert = getArgumentFromDirective(directive, "sourceConvert");
                 if (sourceConvert != null) {
@@ -409,6 +576,37 @@ public class BasicRule extends AbstractRule {
         }
     }
 
+    private static boolean isStreamPartition(GraphQLFieldDefinition fieldDefinition) {
+        for (GraphQLArgument argument : fieldDefinition.getArguments()) {
+            GraphQLDirective partitionDirective = argument.getDirective(PARTITION.getName());
+            if (partitionDirective == null || partitionDirective.getArgument("stream") == null) {
+                continue;
+            }
+
+            Object stream = partitionDirective.getArgument("stream").getArgumentValue().getValue();
+            if (stream instanceof BooleanValue && ((BooleanValue) stream).isValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkAndSetSourceName(String sourceName, String fieldFullPath, SourceLocation location) {
+        // 验证节点名称是否已经被其他字段使用
+        if (sourceWithAnnotatedField.containsKey(sourceName)) {
+            String errorMsg = String.format("duplicate source name '%s' for {%s} and {%s}.",
+                    sourceName, sourceWithAnnotatedField.get(sourceName), fieldFullPath
+            );
+            addValidError(InvalidExpression, location, errorMsg);
+        } else {
+            sourceWithAnnotatedField.put(sourceName, fieldFullPath);
+            if (!isValidEleName(sourceName)) {
+                String errorMsg = String.format("invalid source name '%s' for {%s}.", sourceName, fieldFullPath);
+                addValidError(InvalidExpression, location, errorMsg);
+            }
+        }
+    }
+
     private void checkAndSetFieldWithTopTask(String fieldFullPath, Directive directive, QueryVisitorFieldEnvironment visitorFieldEnvironment) {
         Argument sourceArgument = directive.getArgument("dependencySources");
 
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.common;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+public class DistinctKeySetTest {
+
+    @Test
+    public void distinctByKeyValue() {
+        DistinctKeySet distinctKeys = new DistinctKeySet(0, false);
+
+        // "Aa" and "BB" have same hash code.
+        assert distinctKeys.add("Aa");
+        assert distinctKeys.add("BB");
+        assert !distinctKeys.add("Aa");
+
+        assert distinctKeys.add(1);
+        assert !distinctKeys.add(1L);
+        assert distinctKeys.add(0);
+        assert !distinctKeys.add((short) 0);
+
+        assert distinctKeys.add(1.5);
+        assert !distinctKeys.add(1.5f);
+        assert distinctKeys.add(0.0);
+        assert distinctKeys.add(-0.0);
+        assert distinctKeys.add(Double.NaN);
+        assert !distinctKeys.add(Double.NaN);
+
+        assert distinctKeys.add(null);
+        assert !distinctKeys.add(null);
+    }
+
+    @Test
+    public void distinctLargeKeyCount() {
+        DistinctKeySet distinctKeys = new DistinctKeySet(16, false);
+        for (int i = 0; i < 100000; i++) {
+            assert distinctKeys.add(i * 31L);
+            assert distinctKeys.add("key_" + i);
+        }
+        for (int i = 0; i < 100000; i++) {
+            assert !distinctKeys.add(i * 31L);
+            assert !distinctKeys.add("key_" + i);
+        }
+    }
+
+    @Test
+    public void distinctByIdentity() {
+        DistinctKeySet distinctKeys = new DistinctKeySet(0, true);
+        String key = "key";
+        assert distinctKeys.add(key);
+        assert !distinctKeys.add(key);
+        assert distinctKeys.add(new String(key));
+    }
+
+    @Test
+    public void distinctCollection() {
+        List<Object> list = new ArrayList<>(Arrays.asList("Aa", "BB", "Aa", null, 1, null, 1L, 2));
+        CollectionUtil.distinctCollection(list, ele -> ele);
+        assert list.toString().equals("[Aa, BB, null, 1, 2]");
+    }
+
+    @Test
+    public void distinctCollectionByIntegerKey() {
+        List<Object> list = new ArrayList<>(Arrays.asList("a", "bb", "c", "dd", "eee"));
+        Function<Object, Integer> lengthKey = ele -> ((String) ele).length();
+        CollectionUtil.distinctCollection(list, lengthKey);
+        assert list.toString().equals("[a, bb, eee]");
+    }
+}
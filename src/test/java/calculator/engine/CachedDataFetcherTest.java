@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.cache.FieldCacheEntry;
+import calculator.engine.cache.LruFieldCache;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static calculator.engine.CachedDataFetcher.newCachedDataFetcher;
+
+public class CachedDataFetcherTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicInteger invokeCount = new AtomicInteger();
+
+    private DataFetchingEnvironment environment(Map<String, Object> arguments) {
+        return DataFetchingEnvironmentImpl.newDataFetchingEnvironment().arguments(arguments).build();
+    }
+
+    @Test
+    public void cacheKeyIgnoreInputObjectFieldOrder() throws Exception {
+        CachedDataFetcher cachedDataFetcher = newCachedDataFetcher()
+                .fieldCoordinate("Query.itemList")
+                .ttl(100)
+                .delegate(environment -> invokeCount.incrementAndGet())
+                .fieldCache(new LruFieldCache(10))
+                .executor(Runnable::run)
+                .clock(clock::get)
+                .build();
+
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("onSale", true);
+        filter.put("maxPrice", 1000);
+        Map<String, Object> reversedFilter = new LinkedHashMap<>();
+        reversedFilter.put("maxPrice", 1000);
+        reversedFilter.put("onSale", true);
+
+        Object result = cachedDataFetcher.get(environment(Collections.singletonMap("filter", filter)));
+        Object cachedResult = cachedDataFetcher.get(environment(Collections.singletonMap("filter", reversedFilter)));
+        assert Objects.equals(result, 1);
+        assert Objects.equals(cachedResult, 1);
+        assert invokeCount.get() == 1;
+    }
+
+    @Test
+    public void cacheKeyNotCollideBySameToString() throws Exception {
+        FieldKey fieldKey = new FieldKey("Query.itemList", null);
+
+        Map<String, Object> stringArgument = Collections.singletonMap("itemId", "1");
+        Map<String, Object> intArgument = Collections.singletonMap("itemId", 1);
+        Map<String, Object> longArgument = Collections.singletonMap("itemId", 1L);
+        assert Objects.equals(stringArgument.toString(), intArgument.toString());
+        assert !Objects.equals(fieldKey.of(environment(stringArgument)), fieldKey.of(environment(intArgument)));
+        assert !Objects.equals(fieldKey.of(environment(intArgument)), fieldKey.of(environment(longArgument)));
+
+        // the string value containing separators.
+        Map<String, Object> twoArguments = new LinkedHashMap<>();
+        twoArguments.put("a", "x");
+        twoArguments.put("b", "y");
+        Map<String, Object> oneArgument = Collections.singletonMap("a", "x, b=y");
+        assert Objects.equals(twoArguments.toString(), oneArgument.toString());
+        assert !Objects.equals(fieldKey.of(environment(twoArguments)), fieldKey.of(environment(oneArgument)));
+
+        Map<String, Object> listArgument = Collections.singletonMap("ids", Arrays.asList("1, 2", "3"));
+        Map<String, Object> otherListArgument = Collections.singletonMap("ids", Arrays.asList("1", "2, 3"));
+        assert Objects.equals(listArgument.toString(), otherListArgument.toString());
+        assert !Objects.equals(fieldKey.of(environment(listArgument)), fieldKey.of(environment(otherListArgument)));
+    }
+
+    @Test
+    public void staleWhileRevalidate() throws Exception {
+        CachedDataFetcher cachedDataFetcher = newCachedDataFetcher()
+                .fieldCoordinate("Query.categoryList")
+                .ttl(100)
+                .staleWhileRevalidate(50)
+                .delegate(environment -> invokeCount.incrementAndGet())
+                .fieldCache(new LruFieldCache(10))
+                .executor(Runnable::run)
+                .clock(clock::get)
+                .build();
+
+        DataFetchingEnvironment environment = environment(new LinkedHashMap<>());
+        assert Objects.equals(cachedDataFetcher.get(environment), 1);
+
+        clock.set(99);
+        assert Objects.equals(cachedDataFetcher.get(environment), 1);
+        assert invokeCount.get() == 1;
+
+        // stale result is returned, and the result is refreshed on executor.
+        clock.set(120);
+        assert Objects.equals(cachedDataFetcher.get(environment), 1);
+        assert invokeCount.get() == 2;
+        assert Objects.equals(cachedDataFetcher.get(environment), 2);
+
+        // expired result is not returned.
+        clock.set(300);
+        assert Objects.equals(cachedDataFetcher.get(environment), 3);
+        assert invokeCount.get() == 3;
+    }
+
+    @Test
+    public void notCacheResultWithErrors() throws Exception {
+        CachedDataFetcher cachedDataFetcher = newCachedDataFetcher()
+                .fieldCoordinate("Query.categoryList")
+                .ttl(100)
+                .delegate(environment -> DataFetcherResult.newResult()
+                        .data(invokeCount.incrementAndGet())
+                        .error(GraphqlErrorBuilder.newError().message("mock error").build())
+                        .build())
+                .fieldCache(new LruFieldCache(10))
+                .executor(Runnable::run)
+                .clock(clock::get)
+                .build();
+
+        DataFetchingEnvironment environment = environment(new LinkedHashMap<>());
+        cachedDataFetcher.get(environment);
+        cachedDataFetcher.get(environment);
+        assert invokeCount.get() == 2;
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedEntry() {
+        LruFieldCache fieldCache = new LruFieldCache(2);
+        fieldCache.put("a", new FieldCacheEntry(1, 0));
+        fieldCache.put("b", new FieldCacheEntry(2, 0));
+        fieldCache.get("a");
+        fieldCache.put("c", new FieldCacheEntry(3, 0));
+
+        assert fieldCache.size() == 2;
+        assert fieldCache.get("a") != null;
+        assert fieldCache.get("b") == null;
+    }
+}
@@ -35,6 +35,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static calculator.util.TestUtil.listsWithSameElements;
 
@@ -104,4 +106,43 @@ public class CompletableFutureResultTest {
         );
 
     }
+
+    @Test
+    public void cancelCompletableFutureResultTest() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CompletableFuture<Object> neverCompletedFuture = new CompletableFuture<>();
+        DataFetcher<Object> commodityListDataFetcher = environment -> {
+            fetchStarted.countDown();
+            return neverCompletedFuture;
+        };
+
+        Map<String, Map<String, DataFetcher>> dfInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        dfInfoMap.get("Commodity").put("itemList", commodityListDataFetcher);
+        GraphQLSource graphqlSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dfInfoMap);
+
+        String query = ""
+                + "query {\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2])\n" +
+                "        {\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionInput input = ExecutionInput.newExecutionInput(query).build();
+        CompletableFuture<ExecutionResult> resultFuture = graphqlSource.getGraphQL().executeAsync(input);
+        // the side effects must not be in assert statement, which is not executed without '-ea'.
+        boolean started = fetchStarted.await(5, TimeUnit.SECONDS);
+        assert started;
+        assert !resultFuture.isDone();
+
+        boolean cancelled = GraphQLSource.cancel(input);
+        assert cancelled;
+        ExecutionResult executionResult = resultFuture.get(5, TimeUnit.SECONDS);
+        assert neverCompletedFuture.isCancelled();
+        assert executionResult.getErrors().size() == 1;
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert data.get("commodity").get("itemList") == null;
+    }
 }
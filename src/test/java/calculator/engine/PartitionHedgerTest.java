@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.metrics.CalculatorMetrics;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PartitionHedgerTest {
+
+    private final AtomicInteger hedgeIssued = new AtomicInteger();
+
+    private final AtomicInteger hedgeWon = new AtomicInteger();
+
+    private final CalculatorMetrics metrics = new CalculatorMetrics() {
+        @Override
+        public void hedgeIssued(String fieldCoordinate) {
+            hedgeIssued.incrementAndGet();
+        }
+
+        @Override
+        public void hedgeWon(String fieldCoordinate) {
+            hedgeWon.incrementAndGet();
+        }
+    };
+
+    @Test
+    public void notHedgeWithoutEnoughSamples() throws Exception {
+        PartitionHedger hedger = new PartitionHedger("Query.itemList", 50, new HedgeBudget(1), Runnable::run, metrics);
+
+        CompletableFuture<Object> primary = new CompletableFuture<>();
+        CompletableFuture<Object> result = hedger.hedge(primary, () -> CompletableFuture.completedFuture("hedge"));
+        Thread.sleep(50);
+        assert !result.isDone();
+        assert hedgeIssued.get() == 0;
+
+        primary.complete("primary");
+        assert result.join().equals("primary");
+    }
+
+    @Test
+    public void hedgeSlowPartition() throws Exception {
+        PartitionHedger hedger = new PartitionHedger("Query.itemList", 50, new HedgeBudget(1), Runnable::run, metrics);
+        warmUp(hedger);
+        assert hedger.getHedgeDelayNanos() > 0;
+
+        CompletableFuture<Object> primary = new CompletableFuture<>();
+        CompletableFuture<Object> result = hedger.hedge(primary, () -> CompletableFuture.completedFuture("hedge"));
+        assert result.get(5, TimeUnit.SECONDS).equals("hedge");
+        // the primary is cancelled after the result is completed by hedge.
+        for (int i = 0; i < 100 && !primary.isCancelled(); i++) {
+            Thread.sleep(10);
+        }
+        assert primary.isCancelled();
+        assert hedgeIssued.get() == 1;
+        assert hedgeWon.get() == 1;
+    }
+
+    @Test
+    public void failedHedgeDoNotAffectPrimary() throws Exception {
+        PartitionHedger hedger = new PartitionHedger("Query.itemList", 50, new HedgeBudget(1), Runnable::run, metrics);
+        warmUp(hedger);
+
+        CompletableFuture<Object> primary = new CompletableFuture<>();
+        CompletableFuture<Object> result = hedger.hedge(primary, () -> {
+            throw new RuntimeException("mock exception");
+        });
+        Thread.sleep(50);
+        assert hedgeIssued.get() == 1;
+        assert !result.isDone();
+
+        primary.complete("primary");
+        assert result.join().equals("primary");
+        assert hedgeWon.get() == 0;
+    }
+
+    @Test
+    public void notHedgeWhenBudgetExhausted() throws Exception {
+        PartitionHedger hedger = new PartitionHedger("Query.itemList", 50, new HedgeBudget(0), Runnable::run, metrics);
+        warmUp(hedger);
+
+        CompletableFuture<Object> primary = new CompletableFuture<>();
+        CompletableFuture<Object> result = hedger.hedge(primary, () -> CompletableFuture.completedFuture("hedge"));
+        Thread.sleep(50);
+        assert !result.isDone();
+        assert hedgeIssued.get() == 0;
+    }
+
+    @Test
+    public void budgetLimitsHedgeRatio() {
+        HedgeBudget budget = new HedgeBudget(0.5);
+        assert !budget.tryAcquire();
+
+        budget.deposit();
+        assert !budget.tryAcquire();
+
+        budget.deposit();
+        assert budget.tryAcquire();
+        assert !budget.tryAcquire();
+    }
+
+    private void warmUp(PartitionHedger hedger) {
+        for (int i = 0; i < PartitionHedger.MIN_SAMPLES; i++) {
+            hedger.hedge(CompletableFuture.completedFuture("primary"), () -> null).join();
+        }
+    }
+}
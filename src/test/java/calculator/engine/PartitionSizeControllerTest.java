@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine;
+
+import calculator.engine.metrics.CalculatorMetrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public class PartitionSizeControllerTest {
+
+    private static final long TARGET_LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    public void additiveIncreaseAndMultiplicativeDecrease() {
+        List<Integer> reportedSize = new ArrayList<>();
+        CalculatorMetrics metrics = new CalculatorMetrics() {
+            @Override
+            public void partitionSize(String fieldCoordinate, int partitionSize) {
+                assert Objects.equals(fieldCoordinate, "Query.userInfoList");
+                reportedSize.add(partitionSize);
+            }
+        };
+        PartitionSizeController controller = new PartitionSizeController(
+                "Query.userInfoList", 20, 5, 23, TARGET_LATENCY, PartitionSizeController.DEFAULT_MAX_FAILURE_RATIO, metrics
+        );
+
+        recordWindow(controller, FAST, 0, 0);
+        assert controller.getCurrentSize() == 22;
+
+        // capped by maxSize
+        recordWindow(controller, FAST, 0, 0);
+        assert controller.getCurrentSize() == 23;
+        recordWindow(controller, FAST, 0, 0);
+        assert controller.getCurrentSize() == 23;
+
+        // the max latency is not p99 latency
+        recordWindow(controller, FAST, 0, 1);
+        assert controller.getCurrentSize() == 23;
+
+        // p99 latency exceeds target latency
+        recordWindow(controller, FAST, 0, 2);
+        assert controller.getCurrentSize() == 11;
+
+        // failure ratio exceeds maxFailureRatio, floored at minSize
+        recordWindow(controller, FAST, 11, 0);
+        assert controller.getCurrentSize() == 5;
+        recordWindow(controller, FAST, 11, 0);
+        assert controller.getCurrentSize() == 5;
+
+        assert Objects.equals(reportedSize, Arrays.asList(22, 23, 11, 5));
+    }
+
+    @Test
+    public void toleratedFailureRatio() {
+        PartitionSizeController controller = new PartitionSizeController(
+                "Query.userInfoList", 20, 5, 40, TARGET_LATENCY, 0.1, CalculatorMetrics.NOOP
+        );
+
+        // a transient failure does not shrink the size
+        recordWindow(controller, FAST, 1, 0);
+        assert controller.getCurrentSize() == 22;
+        recordWindow(controller, FAST, 10, 0);
+        assert controller.getCurrentSize() == 24;
+        recordWindow(controller, FAST, 11, 0);
+        assert controller.getCurrentSize() == 12;
+
+        // shrink on any failure if maxFailureRatio is 0
+        PartitionSizeController strictController = new PartitionSizeController(
+                "Query.userInfoList", 20, 5, 40, TARGET_LATENCY, 0, CalculatorMetrics.NOOP
+        );
+        recordWindow(strictController, FAST, 1, 0);
+        assert strictController.getCurrentSize() == 10;
+    }
+
+    @Test
+    public void keepSizeUntilWindowIsFull() {
+        PartitionSizeController controller = new PartitionSizeController(
+                "Query.userInfoList", 20, 5, 40, TARGET_LATENCY, PartitionSizeController.DEFAULT_MAX_FAILURE_RATIO, CalculatorMetrics.NOOP
+        );
+
+        for (int i = 0; i < PartitionSizeController.WINDOW_SIZE - 1; i++) {
+            controller.record(SLOW, true);
+        }
+        assert controller.getCurrentSize() == 20;
+    }
+
+    // the first failedCount invocations are failed, and the first slowCount invocations are SLOW.
+    private void recordWindow(PartitionSizeController controller, long latency, int failedCount, int slowCount) {
+        for (int i = 0; i < PartitionSizeController.WINDOW_SIZE; i++) {
+            controller.record(i < slowCount ? SLOW : latency, i < failedCount);
+        }
+    }
+}
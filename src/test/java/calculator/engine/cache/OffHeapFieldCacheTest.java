@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.cache;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class OffHeapFieldCacheTest {
+
+    private static Map<String, Object> category(int categoryId, int childCount) {
+        Map<String, Object> category = new LinkedHashMap<>();
+        category.put("categoryId", categoryId);
+        category.put("name", "类目_" + categoryId);
+        category.put("weight", categoryId * 1.5);
+        category.put("leaf", childCount == 0);
+        List<Object> children = new ArrayList<>();
+        for (int i = 0; i < childCount; i++) {
+            children.add(category(categoryId * 100 + i, 0));
+        }
+        category.put("children", children);
+        return category;
+    }
+
+    @Test
+    public void encodeSimpleCollection() {
+        Map<String, Object> value = category(1, 3);
+        value.put("price", new BigDecimal("-12.305"));
+        value.put("total", new BigInteger("123456789012345678901234567890"));
+        value.put("updateTime", -1L);
+        value.put("tags", Arrays.asList("a", null, 'b'));
+
+        Object decoded = FieldValueCodec.decode(FieldValueCodec.encode(value));
+        assert Objects.equals(
+                decoded.toString(),
+                value.toString().replace("'b'", "b")
+        );
+        assert Objects.equals(((Map) decoded).get("price"), new BigDecimal("-12.305"));
+        assert ((Map) decoded).get("updateTime") instanceof Long;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notEncodeOtherObject() {
+        FieldValueCodec.encode(Arrays.asList(1, new Object()));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedResultWhenCapacityIsExceeded() {
+        OffHeapFieldCache fieldCache = new OffHeapFieldCache(4096, 1024);
+        Object value = category(1, 20);
+        int encodedSize = FieldValueCodec.encode(value).length;
+        assert encodedSize > 1024 && encodedSize <= 2048;
+
+        fieldCache.put("a", new FieldCacheEntry(value, 1));
+        fieldCache.put("b", new FieldCacheEntry(value, 2));
+        fieldCache.get("a");
+        fieldCache.put("c", new FieldCacheEntry(value, 3));
+
+        assert fieldCache.size() == 2;
+        assert fieldCache.usedBytes() == encodedSize * 2L;
+        assert fieldCache.get("b") == null;
+        assert Objects.equals(fieldCache.get("a").getValue(), value);
+        assert fieldCache.get("c").getWriteTime() == 3;
+
+        // the result larger than capacity is ignored.
+        fieldCache.put("d", new FieldCacheEntry(category(1, 100), 4));
+        assert fieldCache.get("d") == null;
+        assert fieldCache.size() == 2;
+    }
+
+    @Test
+    public void storeLargeResultOffHeap() {
+        LruFieldCache heapCache = new LruFieldCache(10);
+        OffHeapFieldCache offHeapCache = new OffHeapFieldCache(64 * 1024);
+        TieredFieldCache fieldCache = new TieredFieldCache(heapCache, offHeapCache, 1024);
+
+        Object largeValue = category(1, 50);
+        fieldCache.put("large", new FieldCacheEntry(largeValue, 1));
+        fieldCache.put("small", new FieldCacheEntry(category(2, 0), 1));
+        fieldCache.put("object", new FieldCacheEntry(new Object(), 1));
+
+        assert offHeapCache.size() == 1;
+        assert heapCache.size() == 2;
+        assert Objects.equals(fieldCache.get("large").getValue(), largeValue);
+        assert fieldCache.get("large").getValue() != largeValue;
+
+        fieldCache.invalidate("large");
+        assert fieldCache.get("large") == null;
+        assert offHeapCache.usedBytes() == 0;
+    }
+}
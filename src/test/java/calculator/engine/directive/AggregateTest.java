@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.DefaultConfig;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import calculator.validation.Validator;
+import graphql.ExecutionResult;
+import graphql.ParseAndValidateResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.PropertyDataFetcher;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AggregateTest {
+
+    private final AtomicInteger emailFetchCount = new AtomicInteger();
+
+    private final GraphQLSource graphQLSource;
+
+    {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        dataFetcherInfoMap.computeIfAbsent("User", ignored -> new HashMap<>()).put("email", environment -> {
+            emailFetchCount.incrementAndGet();
+            return PropertyDataFetcher.fetching("email").get(environment);
+        });
+        graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+    }
+
+    @Test
+    public void aggregateCase_01() {
+        String query = "" +
+                "query aggregateCase_01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @aggregate(name: \"ageSum\", op: \"SUM\", key: \"age\", dropList: true)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            email\n" +
+                "        }\n" +
+                "    }\n" +
+                "    commodity{\n" +
+                "        item(itemId: 1){\n" +
+                "            itemId\n" +
+                "            ageSum: itemId @map(mapper: \"ageSum\", dependencySources: \"ageSum\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[]}, commodity={item={itemId=1, ageSum=210}}}"
+        );
+        // the elements of dropped list are not completed.
+        assert emailFetchCount.get() == 0;
+    }
+
+    @Test
+    public void groupByCase_01() {
+        String query = "" +
+                "query groupByCase_01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,11,2,12,21])\n" +
+                "        @aggregate(name: \"countByAge\", op: \"COUNT\", groupBy: \"age\")\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "    commodity{\n" +
+                "        item(itemId: 1){\n" +
+                "            name @map(mapper: \"str(countByAge)\", dependencySources: \"countByAge\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=1}, {userId=11}, {userId=2}, {userId=12}, {userId=21}]}, commodity={item={name={10=3, 20=2}}}}"
+        );
+    }
+
+    @Test
+    public void invalidAggregate() {
+        String query = "" +
+                "query invalidAggregate{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3])\n" +
+                "        @aggregate(name: \"ageMedian\", op: \"MEDIAN\", key: \"age\")\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "    commodity{\n" +
+                "        item(itemId: 1){\n" +
+                "            itemId @map(mapper: \"ageMedian\", dependencySources: \"ageMedian\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert validateResult.isFailure();
+        assert validateResult.getErrors().get(0).getMessage().contains("invalid op 'MEDIAN' for @aggregate on {consumer.userInfoList}");
+    }
+}
@@ -19,7 +19,9 @@ package calculator.engine.directive;
 
 import calculator.config.Config;
 import calculator.config.DefaultConfig;
+import calculator.engine.service.CommodityServiceClient;
 import calculator.engine.service.ConsumerServiceClient;
+import calculator.engine.service.MarketingServiceClient;
 import calculator.graphql.DefaultGraphQLSourceBuilder;
 import calculator.graphql.GraphQLSource;
 import calculator.util.GraphQLSourceHolder;
@@ -41,6 +43,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static calculator.util.TestUtil.listsWithSameElements;
 
@@ -571,4 +578,78 @@ public class ArgumentTransformTest {
         );
     }
 
+    private static final String INLINE_QUERY = "" +
+            "query argumentTransformWithSource{\n" +
+            "    marketing{\n" +
+            "        coupon(couponId: 2){\n" +
+            "            bindingItemIds @fetchSource(name: \"itemIdList\")\n" +
+            "        }\n" +
+            "    }\n" +
+            "    commodity{\n" +
+            "        itemList(itemIds: 1)\n" +
+            "        @argumentTransform(argumentName: \"itemIds\", operateType: MAP, dependencySources: \"itemIdList\", expression: \"itemIdList\")\n" +
+            "        {\n" +
+            "            itemId\n" +
+            "        }\n" +
+            "    }\n" +
+            "}";
+
+    private static GraphQLSource syncGraphQLSource(DataFetcher<?> couponDataFetcher, AtomicInteger submitCount) {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        // all the fetchers are sync, so the order of execution is deterministic.
+        dataFetcherInfoMap.get("Query").put("marketing", environment -> Collections.emptyMap());
+        dataFetcherInfoMap.get("Query").put("commodity", environment -> Collections.emptyMap());
+        dataFetcherInfoMap.get("Marketing").put("coupon", couponDataFetcher);
+        dataFetcherInfoMap.get("Commodity").put("itemList", environment ->
+                CommodityServiceClient.batchItemBaseInfoByIds(environment.getArgument("itemIds"))
+        );
+
+        Executor executor = command -> {
+            submitCount.incrementAndGet();
+            ForkJoinPool.commonPool().execute(command);
+        };
+        return GraphQLSourceHolder.getGraphQLByDataFetcherMap(
+                dataFetcherInfoMap, DefaultConfig.newConfig().threadPool(executor).build()
+        );
+    }
+
+    @Test
+    public void inlineIfSourcesCompleted_case01() {
+        AtomicInteger submitCount = new AtomicInteger();
+        GraphQLSource graphQLSource = syncGraphQLSource(
+                environment -> MarketingServiceClient.getCouponInfoById(environment.getArgument("couponId")), submitCount
+        );
+
+        ParseAndValidateResult validateResult = Validator.validateQuery(INLINE_QUERY, graphQLSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(INLINE_QUERY);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, List<Map<String, Object>>>> data = executionResult.getData();
+        assert data.get("commodity").get("itemList").size() == 10;
+        assert Objects.equals(data.get("commodity").get("itemList").get(0).toString(), "{itemId=2}");
+        // the source has been completed, so the argument is transformed and the fetcher is invoked on the calling thread.
+        assert submitCount.get() == 0;
+    }
+
+    @Test
+    public void asyncIfSourcesPending_case01() throws Exception {
+        AtomicInteger submitCount = new AtomicInteger();
+        CompletableFuture<Object> couponFuture = new CompletableFuture<>();
+        GraphQLSource graphQLSource = syncGraphQLSource(environment -> couponFuture, submitCount);
+
+        CompletableFuture<ExecutionResult> resultFuture = graphQLSource.getGraphQL().executeAsync(
+                ExecutionInput.newExecutionInput(INLINE_QUERY).build()
+        );
+        assert !resultFuture.isDone();
+        assert submitCount.get() == 0;
+
+        couponFuture.complete(MarketingServiceClient.getCouponInfoById(2));
+        ExecutionResult executionResult = resultFuture.get(5, TimeUnit.SECONDS);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, List<Map<String, Object>>>> data = executionResult.getData();
+        assert data.get("commodity").get("itemList").size() == 10;
+        assert Objects.equals(data.get("commodity").get("itemList").get(0).toString(), "{itemId=2}");
+        assert submitCount.get() == 1;
+    }
 }
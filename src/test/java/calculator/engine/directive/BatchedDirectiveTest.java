@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.DefaultConfig;
+import calculator.engine.BatchDataFetcher;
+import calculator.engine.SchemaWrapper;
+import calculator.exception.WrapperSchemaException;
+import calculator.graphql.DefaultGraphQLSourceBuilder;
+import calculator.graphql.GraphQLSource;
+import calculator.util.TestUtil;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.TypeRuntimeWiring;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class BatchedDirectiveTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private static final String SCHEMA = "" +
+            "directive @batched(key: String!) on FIELD_DEFINITION\n" +
+            "\n" +
+            "type Query {\n" +
+            "    itemList(itemIds: [Int]): [Item]\n" +
+            "    seller(sellerId: Int): Seller @batched(key: \"sellerId\")\n" +
+            "}\n" +
+            "\n" +
+            "type Item {\n" +
+            "    itemId: Int\n" +
+            "    sellerId: Int\n" +
+            "    seller: Seller @batched(key: \"sellerId\")\n" +
+            "}\n" +
+            "\n" +
+            "type Seller {\n" +
+            "    sellerId: Int\n" +
+            "    name: String\n" +
+            "}";
+
+    private final List<List<Object>> batchKeys = new CopyOnWriteArrayList<>();
+
+    private final DataFetcher<Object> itemListDataFetcher = environment -> {
+        List<Integer> itemIds = environment.getArgument("itemIds");
+        List<Object> items = new ArrayList<>();
+        for (Integer itemId : itemIds) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("itemId", itemId);
+            item.put("sellerId", itemId % 3);
+            items.add(item);
+        }
+        return items;
+    };
+
+    private final BatchDataFetcher sellerDataFetcher = new BatchDataFetcher() {
+        @Override
+        public Object batchGet(List<Object> keys, DataFetchingEnvironment environment) {
+            batchKeys.add(keys);
+            Map<Object, Object> sellerById = new LinkedHashMap<>();
+            for (Object key : keys) {
+                Map<String, Object> seller = new LinkedHashMap<>();
+                seller.put("sellerId", key);
+                seller.put("name", key + "_seller");
+                sellerById.put(key, seller);
+            }
+            return CompletableFuture.completedFuture(sellerById);
+        }
+
+        @Override
+        public Object get(DataFetchingEnvironment environment) {
+            throw new UnsupportedOperationException("fetch seller one by one.");
+        }
+    };
+
+    private GraphQLSource graphQLSource() {
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                SCHEMA,
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query")
+                                .dataFetcher("itemList", itemListDataFetcher)
+                                .dataFetcher("seller", sellerDataFetcher))
+                        .type(TypeRuntimeWiring.newTypeWiring("Item").dataFetcher("seller", sellerDataFetcher))
+                        .build()
+        );
+        return new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(graphQLSchema).build();
+    }
+
+    @Test
+    public void batchFetchesInList() {
+        String query = "" +
+                "query {\n" +
+                "    itemList(itemIds: [1,2,3,4,5]){\n" +
+                "        itemId\n" +
+                "        seller {\n" +
+                "            sellerId\n" +
+                "            name\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionResult result = graphQLSource().getGraphQL().execute(ExecutionInput.newExecutionInput(query).build());
+        assert result.getErrors().isEmpty();
+        assert Objects.equals(batchKeys.toString(), "[[1, 2, 0]]");
+        assert Objects.equals(
+                ((Map) result.getData()).get("itemList").toString(),
+                "[{itemId=1, seller={sellerId=1, name=1_seller}}, {itemId=2, seller={sellerId=2, name=2_seller}}, " +
+                        "{itemId=3, seller={sellerId=0, name=0_seller}}, {itemId=4, seller={sellerId=1, name=1_seller}}, " +
+                        "{itemId=5, seller={sellerId=2, name=2_seller}}]"
+        );
+    }
+
+    @Test
+    public void fetchImmediatelyOutOfList() {
+        String query = "" +
+                "query {\n" +
+                "    seller(sellerId: 7){\n" +
+                "        sellerId\n" +
+                "        name\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionResult result = graphQLSource().getGraphQL().execute(ExecutionInput.newExecutionInput(query).build());
+        assert result.getErrors().isEmpty();
+        assert Objects.equals(batchKeys.toString(), "[[7]]");
+        assert Objects.equals(((Map) result.getData()).get("seller").toString(), "{sellerId=7, name=7_seller}");
+    }
+
+    @Test
+    public void batchedFieldMustUseBatchDataFetcher() {
+        expectedException.expect(WrapperSchemaException.class);
+        expectedException.expectMessage("errorClassification: InvalidAppliedDirectiveArgument, "
+                + "location: SourceLocation{line=11, column=5}, "
+                + "msg: the DataFetcher of {Item.seller} with @batched must implement BatchDataFetcher.\n");
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                SCHEMA,
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query")
+                                .dataFetcher("itemList", itemListDataFetcher)
+                                .dataFetcher("seller", sellerDataFetcher))
+                        .build()
+        );
+        SchemaWrapper.wrap(DefaultConfig.newConfig().build(), graphQLSchema);
+    }
+}
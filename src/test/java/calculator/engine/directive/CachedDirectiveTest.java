@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.DefaultConfig;
+import calculator.engine.SchemaWrapper;
+import calculator.exception.WrapperSchemaException;
+import calculator.graphql.DefaultGraphQLSourceBuilder;
+import calculator.graphql.GraphQLSource;
+import calculator.util.TestUtil;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.TypeRuntimeWiring;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachedDirectiveTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final AtomicInteger invokeCount = new AtomicInteger();
+
+    private final DataFetcher<Object> categoryListDataFetcher = environment -> {
+        invokeCount.incrementAndGet();
+        int level = environment.getArgument("level");
+        List<Object> categoryList = new ArrayList<>();
+        for (int i = 1; i <= level; i++) {
+            Map<String, Object> category = new LinkedHashMap<>();
+            category.put("categoryId", i);
+            category.put("name", "category_" + i);
+            categoryList.add(category);
+        }
+        return categoryList;
+    };
+
+    private GraphQLSchema schema(String ttl) {
+        String schema = "" +
+                "directive @cached(ttl: Int!, staleWhileRevalidate: Int, key: String) on FIELD_DEFINITION\n" +
+                "\n" +
+                "type Query {\n" +
+                "    categoryList(level: Int): [Category] @cached(ttl: " + ttl + ")\n" +
+                "}\n" +
+                "\n" +
+                "type Category {\n" +
+                "    categoryId: Int\n" +
+                "    name: String\n" +
+                "}";
+        return TestUtil.schemaBySpec(
+                schema,
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("categoryList", categoryListDataFetcher))
+                        .build()
+        );
+    }
+
+    @Test
+    public void cacheFieldResultAcrossRequests() {
+        GraphQLSource graphQLSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(schema("60000")).build();
+
+        String query = "" +
+                "query($level: Int) {\n" +
+                "    categoryList(level: $level){\n" +
+                "        categoryId\n" +
+                "        name\n" +
+                "    }\n" +
+                "}";
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("level", 2);
+        ExecutionResult result = graphQLSource.getGraphQL().execute(
+                ExecutionInput.newExecutionInput(query).variables(variables).build()
+        );
+        ExecutionResult cachedResult = graphQLSource.getGraphQL().execute(
+                ExecutionInput.newExecutionInput(query).variables(variables).build()
+        );
+        assert result.getErrors().isEmpty();
+        assert Objects.equals(result.getData().toString(), cachedResult.getData().toString());
+        assert Objects.equals(
+                result.getData().toString(),
+                "{categoryList=[{categoryId=1, name=category_1}, {categoryId=2, name=category_2}]}"
+        );
+        assert invokeCount.get() == 1;
+
+        variables.put("level", 1);
+        ExecutionResult otherResult = graphQLSource.getGraphQL().execute(
+                ExecutionInput.newExecutionInput(query).variables(variables).build()
+        );
+        assert Objects.equals(otherResult.getData().toString(), "{categoryList=[{categoryId=1, name=category_1}]}");
+        assert invokeCount.get() == 2;
+    }
+
+    @Test
+    public void cacheFieldResultByParentKey() {
+        String schema = "" +
+                "directive @cached(ttl: Int!, staleWhileRevalidate: Int, key: String) on FIELD_DEFINITION\n" +
+                "\n" +
+                "type Query {\n" +
+                "    shopList: [Shop]\n" +
+                "}\n" +
+                "\n" +
+                "type Shop {\n" +
+                "    shopId: Int\n" +
+                "    owner: String @cached(ttl: 60000, key: \"shopId\")\n" +
+                "}";
+        DataFetcher<Object> shopListDataFetcher = environment -> {
+            List<Object> shopList = new ArrayList<>();
+            for (int shopId = 1; shopId <= 2; shopId++) {
+                shopList.add(Collections.singletonMap("shopId", shopId));
+            }
+            return shopList;
+        };
+        DataFetcher<Object> ownerDataFetcher = environment -> {
+            invokeCount.incrementAndGet();
+            return "owner_" + ((Map<String, Object>) environment.getSource()).get("shopId");
+        };
+        GraphQLSchema originalSchema = TestUtil.schemaBySpec(
+                schema,
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("shopList", shopListDataFetcher))
+                        .type(TypeRuntimeWiring.newTypeWiring("Shop").dataFetcher("owner", ownerDataFetcher))
+                        .build()
+        );
+        GraphQLSource graphQLSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(originalSchema).build();
+
+        String query = "query { shopList { shopId owner } }";
+        ExecutionResult result = graphQLSource.getGraphQL().execute(query);
+        assert result.getErrors().isEmpty();
+        // the parents with different key value do not share the cached result.
+        assert Objects.equals(
+                result.getData().toString(), "{shopList=[{shopId=1, owner=owner_1}, {shopId=2, owner=owner_2}]}"
+        );
+        assert invokeCount.get() == 2;
+
+        ExecutionResult cachedResult = graphQLSource.getGraphQL().execute(query);
+        assert Objects.equals(result.getData().toString(), cachedResult.getData().toString());
+        assert invokeCount.get() == 2;
+    }
+
+    @Test
+    public void ttlMustBePositive() {
+        expectedException.expect(WrapperSchemaException.class);
+        expectedException.expectMessage("errorClassification: InvalidAppliedDirectiveArgument, "
+                + "location: SourceLocation{line=4, column=5}, "
+                + "msg: the ttl value of @cached on {Query.categoryList} must be positive number.\n");
+
+        SchemaWrapper.wrap(DefaultConfig.newConfig().build(), schema("0"));
+    }
+}
@@ -19,18 +19,33 @@ package calculator.engine.directive;
 
 import calculator.config.Config;
 import calculator.config.DefaultConfig;
+import calculator.engine.ExecutionEngineState;
+import calculator.engine.service.CommodityServiceClient;
+import calculator.engine.service.MarketingServiceClient;
 import calculator.graphql.DefaultGraphQLSourceBuilder;
 import calculator.graphql.GraphQLSource;
 import calculator.util.GraphQLSourceHolder;
 import calculator.engine.script.AviatorScriptEvaluator;
 import calculator.validation.Validator;
+import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.ParseAndValidateResult;
+import graphql.schema.AsyncDataFetcher;
+import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLSchema;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FetchSourceTest {
     private static final GraphQLSchema originalSchema = GraphQLSourceHolder.getDefaultSchema();
@@ -127,4 +142,206 @@ public class FetchSourceTest {
                 "[{userId=2, name=2_name, age=20}, {userId=3, name=3_name, age=30}, {userId=4, name=4_name, age=40}]"
         );
     }
+
+    @Test
+    public void sourcePathDispatchedFirst() {
+        List<String> dispatchedFields = new CopyOnWriteArrayList<>();
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        for (String fieldName : Arrays.asList("consumer", "commodity", "marketing")) {
+            dataFetcherInfoMap.get("Query").put(fieldName, environment -> {
+                dispatchedFields.add(fieldName);
+                return Collections.emptyMap();
+            });
+        }
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+
+        String query = "" +
+                "query sourcePathDispatchedFirst{\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: 1)\n" +
+                "        @argumentTransform(argumentName: \"itemIds\", operateType: MAP,dependencySources: \"itemIdList\",expression: \"itemIdList\")\n" +
+                "        {\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "    consumer{\n" +
+                "        userInfo(userId: 1){\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "    marketing{\n" +
+                "        coupon(couponId: 1){\n" +
+                "            bindingItemIds\n" +
+                "            @fetchSource(name: \"itemIdList\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(dispatchedFields.toString(), "[marketing, commodity, consumer]");
+        // the result is still in the order of query.
+        Map<String, Object> data = executionResult.getData();
+        assert Objects.equals(data.keySet().toString(), "[commodity, consumer, marketing]");
+        assert Objects.equals(
+                data.get("marketing").toString(), "{coupon={bindingItemIds=[1, 2, 3, 4, 5, 6, 7, 8, 9, 10]}}"
+        );
+        assert Objects.equals(
+                data.get("commodity").toString(),
+                "{itemList=[{itemId=1}, {itemId=2}, {itemId=3}, {itemId=4}, {itemId=5}, {itemId=6}, {itemId=7}, {itemId=8}, {itemId=9}, {itemId=10}]}"
+        );
+    }
+
+    private static final String DEPENDENT_QUERY = "" +
+            "query dependentOnSource{\n" +
+            "    marketing{\n" +
+            "        coupon(couponId: 2){\n" +
+            "            bindingItemIds @fetchSource(name: \"itemIdList\")\n" +
+            "        }\n" +
+            "    }\n" +
+            "    commodity{\n" +
+            "        itemList(itemIds: 1)\n" +
+            "        @argumentTransform(argumentName: \"itemIds\", operateType: MAP, dependencySources: \"itemIdList\", expression: \"itemIdList\")\n" +
+            "        {\n" +
+            "            itemId\n" +
+            "        }\n" +
+            "    }\n" +
+            "}";
+
+    // the async itemList fetcher depends on the source fetched by coupon.
+    private static GraphQLSource dependentGraphQLSource(DataFetcher<?> couponDataFetcher,
+                                                        AtomicInteger itemListFetchCount,
+                                                        AtomicInteger submitCount) {
+        Executor executor = command -> {
+            submitCount.incrementAndGet();
+            ForkJoinPool.commonPool().execute(command);
+        };
+
+        DataFetcher<Object> itemListDataFetcher = environment -> {
+            itemListFetchCount.incrementAndGet();
+            List<Number> itemIds = environment.getArgument("itemIds");
+            if (itemIds == null) {
+                return null;
+            }
+            return CommodityServiceClient.batchItemBaseInfoByIds(itemIds);
+        };
+
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        dataFetcherInfoMap.get("Query").put("marketing", environment -> Collections.emptyMap());
+        dataFetcherInfoMap.get("Query").put("commodity", environment -> Collections.emptyMap());
+        dataFetcherInfoMap.get("Marketing").put("coupon", couponDataFetcher);
+        dataFetcherInfoMap.get("Commodity").put("itemList", AsyncDataFetcher.async(itemListDataFetcher, executor));
+        return GraphQLSourceHolder.getGraphQLByDataFetcherMap(
+                dataFetcherInfoMap, DefaultConfig.newConfig().threadPool(executor).build()
+        );
+    }
+
+    @Test
+    public void consumerFetchedAfterSource() throws Exception {
+        AtomicInteger itemListFetchCount = new AtomicInteger();
+        AtomicInteger submitCount = new AtomicInteger();
+        CompletableFuture<Object> couponFuture = new CompletableFuture<>();
+        GraphQLSource graphQLSource = dependentGraphQLSource(environment -> couponFuture, itemListFetchCount, submitCount);
+
+        ParseAndValidateResult validateResult = Validator.validateQuery(DEPENDENT_QUERY, graphQLSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        CompletableFuture<ExecutionResult> resultFuture = graphQLSource.getGraphQL().executeAsync(
+                ExecutionInput.newExecutionInput(DEPENDENT_QUERY).build()
+        );
+        // the consumer is neither fetched nor waiting for the source on a thread of executor.
+        assert !resultFuture.isDone();
+        assert itemListFetchCount.get() == 0;
+        assert submitCount.get() == 0;
+
+        couponFuture.complete(MarketingServiceClient.getCouponInfoById(2));
+        ExecutionResult executionResult = resultFuture.get(5, TimeUnit.SECONDS);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, List<Map<String, Object>>>> data = executionResult.getData();
+        assert data.get("commodity").get("itemList").size() == 10;
+        assert Objects.equals(data.get("commodity").get("itemList").get(0).toString(), "{itemId=2}");
+        assert itemListFetchCount.get() == 1;
+        assert submitCount.get() == 1;
+    }
+
+    @Test
+    public void consumerCompletedIfSourceParentIsNull() throws Exception {
+        AtomicInteger itemListFetchCount = new AtomicInteger();
+        GraphQLSource graphQLSource = dependentGraphQLSource(environment -> null, itemListFetchCount, new AtomicInteger());
+
+        // 'bindingItemIds' is never fetched, the source is completed with null when coupon is resolved as null.
+        ExecutionResult executionResult = graphQLSource.getGraphQL().executeAsync(
+                ExecutionInput.newExecutionInput(DEPENDENT_QUERY).build()
+        ).get(5, TimeUnit.SECONDS);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert data.get("marketing").get("coupon") == null;
+        assert data.get("commodity").get("itemList") == null;
+        assert itemListFetchCount.get() == 1;
+    }
+
+    @Test
+    public void consumerCompletedIfSourceParentFailed() throws Exception {
+        AtomicInteger itemListFetchCount = new AtomicInteger();
+        CompletableFuture<Object> couponFuture = new CompletableFuture<>();
+        couponFuture.completeExceptionally(new RuntimeException("coupon service unavailable"));
+        GraphQLSource graphQLSource = dependentGraphQLSource(environment -> couponFuture, itemListFetchCount, new AtomicInteger());
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().executeAsync(
+                ExecutionInput.newExecutionInput(DEPENDENT_QUERY).build()
+        ).get(5, TimeUnit.SECONDS);
+        assert executionResult.getErrors().size() == 1;
+        assert executionResult.getErrors().get(0).getMessage().contains("coupon service unavailable");
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert data.get("marketing").get("coupon") == null;
+        assert data.get("commodity").get("itemList") == null;
+        assert itemListFetchCount.get() == 1;
+    }
+
+    @Test
+    public void criticalPathOfChainedSources() {
+        String query = "" +
+                "query criticalPathOfChainedSources{\n" +
+                "    marketing{\n" +
+                "        coupon(couponId: 1){\n" +
+                "            bindingItemIds @fetchSource(name: \"itemIdList\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: 1)\n" +
+                "        @argumentTransform(argumentName: \"itemIds\", operateType: MAP, dependencySources: \"itemIdList\", expression: \"itemIdList\")\n" +
+                "        {\n" +
+                "            sellerId @fetchSource(name: \"sellerIds\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: 1)\n" +
+                "        @argumentTransform(argumentName: \"userIds\", operateType: MAP, dependencySources: \"sellerIds\", expression: \"sellerIds\")\n" +
+                "        {\n" +
+                "            userId @fetchSource(name: \"userIds\")\n" +
+                "        }\n" +
+                "        userInfo(userId: 1){\n" +
+                "            userId @fetchSource(name: \"userId\")\n" +
+                "            name @map(mapper: \"str(userIds)\", dependencySources: \"userIds\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    business{\n" +
+                "        sellerInfo(sellerId: 1){\n" +
+                "            sellerId @map(mapper: \"userId\", dependencySources: \"userId\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionInput executionInput = ExecutionInput.newExecutionInput(query).build();
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(executionInput);
+        assert executionResult.getErrors().isEmpty();
+
+        ExecutionEngineState engineState = ExecutionEngineState.getFromContext(executionInput.getGraphQLContext());
+        // 'userId' is not fetched under any consumer, so it is not in the chain.
+        assert Objects.equals(engineState.getCriticalPath().toString(), "[itemIdList, sellerIds, userIds]");
+    }
 }
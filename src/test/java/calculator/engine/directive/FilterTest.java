@@ -24,6 +24,7 @@ import calculator.engine.script.ListContain;
 import calculator.graphql.DefaultGraphQLSourceBuilder;
 import calculator.graphql.GraphQLSource;
 import calculator.util.GraphQLSourceHolder;
+import calculator.util.TestUtil;
 import calculator.validation.Validator;
 import com.googlecode.aviator.AviatorEvaluator;
 import graphql.ExecutionInput;
@@ -31,12 +32,17 @@ import graphql.ExecutionResult;
 import graphql.ParseAndValidateResult;
 import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLSchema;
+import graphql.schema.PropertyDataFetcher;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.TypeRuntimeWiring;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FilterTest {
 
@@ -164,4 +170,200 @@ public class FilterTest {
         );
     }
 
+    @Test
+    public void filterPushdown_case01() {
+        AtomicInteger emailFetchCount = new AtomicInteger();
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        dataFetcherInfoMap.computeIfAbsent("User", ignored -> new HashMap<>()).put("email", environment -> {
+            emailFetchCount.incrementAndGet();
+            return PropertyDataFetcher.fetching("email").get(environment);
+        });
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+
+        String query = "" +
+                "query filterPushdown_case01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @filter(predicate: \"userId%3 == 0\")\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            email\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=3, email=3dugk@foxmail.com}, {userId=6, email=6dugk@foxmail.com}]}}"
+        );
+        // the filtered-out elements are not completed.
+        assert emailFetchCount.get() == 2;
+
+        // the predicate using alias can not be pushed down, and the list is filtered after completed.
+        String aliasQuery = "" +
+                "query filterPushdown_case01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @filter(predicate: \"id%3 == 0\")\n" +
+                "        {\n" +
+                "            id: userId\n" +
+                "            email\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        emailFetchCount.set(0);
+        executionResult = graphQLSource.getGraphQL().execute(aliasQuery);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{id=3, email=3dugk@foxmail.com}, {id=6, email=6dugk@foxmail.com}]}}"
+        );
+        assert emailFetchCount.get() == 6;
+    }
+
+    @Test
+    public void filterPushdownByPropertyFetcher_case01() {
+        AtomicInteger nameFetchCount = new AtomicInteger();
+        GraphQLSchema schema = TestUtil.schemaBySpec(
+                "type Query { items: [Item] }\n" +
+                        "type Item { id: Int, label: String, status: Status, name: String }\n" +
+                        "enum Status { ON_SALE, OFF_SALE }",
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("items", environment -> Arrays.asList(
+                                new Item(1), new Item(2), new Item(3), new Item(4)
+                        )))
+                        .type(TypeRuntimeWiring.newTypeWiring("Item").dataFetcher("name", environment -> {
+                            nameFetchCount.incrementAndGet();
+                            return "item_" + ((Item) environment.getSource()).getId();
+                        }))
+                        .build()
+        );
+        GraphQLSource graphQLSource = GraphQLSource.newGraphQLSource()
+                .wrapperConfig(wrapperConfig)
+                .originalSchema(schema)
+                .build();
+
+        // inherited property.
+        ExecutionResult inheritedResult = graphQLSource.getGraphQL().execute(
+                "query { items @filter(predicate: \"id == 1\") { id name } }"
+        );
+        assert inheritedResult.getErrors().isEmpty();
+        assert Objects.equals(inheritedResult.getData().toString(), "{items=[{id=1, name=item_1}]}");
+        assert nameFetchCount.get() == 1;
+
+        // getter without field.
+        nameFetchCount.set(0);
+        ExecutionResult getterResult = graphQLSource.getGraphQL().execute(
+                "query { items @filter(predicate: \"label == 'label_2'\") { label name } }"
+        );
+        assert getterResult.getErrors().isEmpty();
+        assert Objects.equals(getterResult.getData().toString(), "{items=[{label=label_2, name=item_2}]}");
+        assert nameFetchCount.get() == 1;
+
+        // enum property is serialized as the name of enum value.
+        nameFetchCount.set(0);
+        ExecutionResult enumResult = graphQLSource.getGraphQL().execute(
+                "query { items @filter(predicate: \"status == 'ON_SALE'\") { id status name } }"
+        );
+        assert enumResult.getErrors().isEmpty();
+        assert Objects.equals(
+                enumResult.getData().toString(),
+                "{items=[{id=2, status=ON_SALE, name=item_2}, {id=4, status=ON_SALE, name=item_4}]}"
+        );
+        assert nameFetchCount.get() == 2;
+
+        // slice is pushed down after the filter.
+        nameFetchCount.set(0);
+        ExecutionResult sliceResult = graphQLSource.getGraphQL().execute(
+                "query { items @filter(predicate: \"status == 'ON_SALE'\") @slice(limit: 1) { id status name } }"
+        );
+        assert sliceResult.getErrors().isEmpty();
+        assert Objects.equals(sliceResult.getData().toString(), "{items=[{id=2, status=ON_SALE, name=item_2}]}");
+        assert nameFetchCount.get() == 1;
+    }
+
+    @Test
+    public void filterNotPushdownWithFetchSource() {
+        AtomicInteger nameFetchCount = new AtomicInteger();
+        GraphQLSchema schema = TestUtil.schemaBySpec(
+                "type Query { items: [Item], labels: String }\n" +
+                        "type Item { id: Int, label: String, name: String }",
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query")
+                                .dataFetcher("items", environment -> Arrays.asList(
+                                        new Item(1), new Item(2), new Item(3), new Item(4)
+                                ))
+                                .dataFetcher("labels", environment -> null)
+                        )
+                        .type(TypeRuntimeWiring.newTypeWiring("Item").dataFetcher("name", environment -> {
+                            nameFetchCount.incrementAndGet();
+                            return "item_" + ((Item) environment.getSource()).getId();
+                        }))
+                        .build()
+        );
+        GraphQLSource graphQLSource = GraphQLSource.newGraphQLSource()
+                .wrapperConfig(wrapperConfig)
+                .originalSchema(schema)
+                .build();
+
+        // the source under the filtered list is collected from all the elements, as the list is filtered after completed.
+        String query = "" +
+                "query {\n" +
+                "    items @filter(predicate: \"id == 1\") @slice(limit: 1) {\n" +
+                "        id\n" +
+                "        label @fetchSource(name: \"labels\")\n" +
+                "        name\n" +
+                "    }\n" +
+                "    labels @map(mapper: \"str(labels)\", dependencySources: \"labels\")\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{items=[{id=1, label=label_1, name=item_1}], labels=[label_1, label_2, label_3, label_4]}"
+        );
+        assert nameFetchCount.get() == 4;
+    }
+
+    public enum ItemStatus {
+        ON_SALE, OFF_SALE
+    }
+
+    public static class BaseItem {
+
+        private final int id;
+
+        BaseItem(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+
+    public static class Item extends BaseItem {
+
+        private final ItemStatus status;
+
+        Item(int id) {
+            super(id);
+            this.status = id % 2 == 0 ? ItemStatus.ON_SALE : ItemStatus.OFF_SALE;
+        }
+
+        public String getLabel() {
+            return "label_" + getId();
+        }
+
+        public ItemStatus getStatus() {
+            return status;
+        }
+    }
 }
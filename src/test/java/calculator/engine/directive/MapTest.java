@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.DefaultConfig;
+import calculator.engine.service.CommodityServiceClient;
+import calculator.engine.service.ConsumerServiceClient;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import calculator.validation.Validator;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ParseAndValidateResult;
+import graphql.schema.DataFetcher;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MapTest {
+
+    private static final String QUERY = "" +
+            "query mapWithSource{\n" +
+            "    consumer{\n" +
+            "        userInfo(userId: 2){\n" +
+            "            userId @fetchSource(name: \"userId\")\n" +
+            "        }\n" +
+            "    }\n" +
+            "    commodity{\n" +
+            "        itemList(itemIds: [1,2,3]){\n" +
+            "            itemId\n" +
+            "            userId: itemId @map(mapper: \"userId\", dependencySources: \"userId\")\n" +
+            "        }\n" +
+            "    }\n" +
+            "}";
+
+    private static final String EXPECTED_ITEM_LIST = "[{itemId=1, userId=2}, {itemId=2, userId=2}, {itemId=3, userId=2}]";
+
+    private static GraphQLSource graphQLSource(DataFetcher<?> userInfoDataFetcher, AtomicInteger submitCount) {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        // all the fetchers are sync, so the order of execution is deterministic.
+        dataFetcherInfoMap.get("Query").put("consumer", environment -> Collections.emptyMap());
+        dataFetcherInfoMap.get("Query").put("commodity", environment -> Collections.emptyMap());
+        dataFetcherInfoMap.get("Consumer").put("userInfo", userInfoDataFetcher);
+        dataFetcherInfoMap.get("Commodity").put("itemList", environment ->
+                CommodityServiceClient.batchItemBaseInfoByIds(environment.getArgument("itemIds"))
+        );
+
+        Executor executor = command -> {
+            submitCount.incrementAndGet();
+            ForkJoinPool.commonPool().execute(command);
+        };
+        return GraphQLSourceHolder.getGraphQLByDataFetcherMap(
+                dataFetcherInfoMap, DefaultConfig.newConfig().threadPool(executor).build()
+        );
+    }
+
+    @Test
+    public void inlineIfSourcesCompleted_case01() {
+        AtomicInteger submitCount = new AtomicInteger();
+        GraphQLSource graphQLSource = graphQLSource(
+                environment -> ConsumerServiceClient.getUserInfoById(environment.getArgument("userId"), "defaultVersion"),
+                submitCount
+        );
+
+        ParseAndValidateResult validateResult = Validator.validateQuery(QUERY, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(QUERY);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(data.get("commodity").get("itemList").toString(), EXPECTED_ITEM_LIST);
+        // the source has been completed when the elements are fetched, so the mapper is evaluated on the calling thread.
+        assert submitCount.get() == 0;
+    }
+
+    @Test
+    public void asyncIfSourcesPending_case01() throws Exception {
+        AtomicInteger submitCount = new AtomicInteger();
+        CompletableFuture<Object> userInfoFuture = new CompletableFuture<>();
+        GraphQLSource graphQLSource = graphQLSource(environment -> userInfoFuture, submitCount);
+
+        CompletableFuture<ExecutionResult> resultFuture = graphQLSource.getGraphQL().executeAsync(
+                ExecutionInput.newExecutionInput(QUERY).build()
+        );
+        assert !resultFuture.isDone();
+        // the elements wait for the source without occupying the threads of executor.
+        assert submitCount.get() == 0;
+
+        userInfoFuture.complete(ConsumerServiceClient.getUserInfoById(2, "defaultVersion"));
+        ExecutionResult executionResult = resultFuture.get(5, TimeUnit.SECONDS);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(data.get("commodity").get("itemList").toString(), EXPECTED_ITEM_LIST);
+        assert submitCount.get() == ((List<?>) data.get("commodity").get("itemList")).size();
+    }
+}
@@ -19,6 +19,7 @@ package calculator.engine.directive;
 
 import calculator.config.DefaultConfig;
 import calculator.engine.SchemaWrapper;
+import calculator.engine.metrics.CalculatorMetrics;
 import calculator.exception.WrapperSchemaException;
 import calculator.graphql.DefaultGraphQLSourceBuilder;
 import calculator.graphql.GraphQLSource;
@@ -28,16 +29,32 @@ import calculator.validation.Validator;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.ParseAndValidateResult;
+import graphql.execution.FieldValueInfo;
+import graphql.execution.instrumentation.ExecutionStrategyInstrumentationContext;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionStrategyParameters;
+import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.TypeRuntimeWiring;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PartitionDirectiveTest {
 
@@ -129,6 +146,412 @@ public class PartitionDirectiveTest {
     }
 
 
+    @Test
+    public void concurrencyMustBePositiveNumber() throws Exception {
+        expectedException.expect(WrapperSchemaException.class);
+        expectedException.expectMessage("errorClassification: InvalidAppliedDirectiveArgument, "
+                + "location: SourceLocation{line=5, column=5}, "
+                + "msg: the concurrency value of @partition on {Query.listField} must be positive number.\n");
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, concurrency: Int) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "\n" +
+                        "    listField(arg: [Int] @partition(size:5, concurrency: 0)): [Int]\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring().build()
+        );
+        GraphQLSchema wrappedSchema = SchemaWrapper.wrap(DefaultConfig.newConfig().build(), graphQLSchema);
+    }
+
+    @Test
+    public void invokePartitionConcurrently() {
+        AtomicInteger runningCount = new AtomicInteger();
+        AtomicInteger maxRunningCount = new AtomicInteger();
+        DataFetcher<List<Object>> listFieldDataFetcher = environment -> {
+            int running = runningCount.incrementAndGet();
+            maxRunningCount.accumulateAndGet(running, Math::max);
+            Thread.sleep(20);
+            runningCount.decrementAndGet();
+            return environment.getArgument("arg");
+        };
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, concurrency: Int) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "\n" +
+                        "    listField(arg: [Int] @partition(size:2, concurrency: 2)): [Int]\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring().type(
+                        TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("listField", listFieldDataFetcher)
+                ).build()
+        );
+        GraphQLSource concurrentSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().threadPool(Executors.newFixedThreadPool(4)).build())
+                .originalSchema(graphQLSchema).build();
+
+        ExecutionInput input = ExecutionInput.newExecutionInput("query { listField(arg: [1,2,3,4,5,6,7]) }").build();
+        ExecutionResult result = concurrentSource.getGraphQL().execute(input);
+        assert result.getErrors().isEmpty();
+        assert Objects.equals(
+                ((Map) result.getData()).get("listField").toString(), "[1, 2, 3, 4, 5, 6, 7]"
+        );
+        assert maxRunningCount.get() <= 2;
+    }
+
+
+    @Test
+    public void minSizeAndMaxSizeRequireTargetLatency() throws Exception {
+        expectedException.expect(WrapperSchemaException.class);
+        expectedException.expectMessage("errorClassification: InvalidAppliedDirectiveArgument, "
+                + "location: SourceLocation{line=5, column=5}, "
+                + "msg: the minSize and maxSize of @partition on {Query.listField} only work with targetLatency.\n");
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, targetLatency: Int, minSize: Int, maxSize: Int) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "\n" +
+                        "    listField(arg: [Int] @partition(size:5, maxSize: 10)): [Int]\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring().build()
+        );
+        GraphQLSchema wrappedSchema = SchemaWrapper.wrap(DefaultConfig.newConfig().build(), graphQLSchema);
+    }
+
+    @Test
+    public void adaptivePartitionSize() {
+        List<Integer> partitionSizes = new CopyOnWriteArrayList<>();
+        DataFetcher<List<Object>> listFieldDataFetcher = environment -> {
+            List<Object> arg = environment.getArgument("arg");
+            partitionSizes.add(arg.size());
+            return arg;
+        };
+        List<String> reportedSizes = new CopyOnWriteArrayList<>();
+        CalculatorMetrics metrics = new CalculatorMetrics() {
+            @Override
+            public void partitionSize(String fieldCoordinate, int partitionSize) {
+                reportedSizes.add(fieldCoordinate + ":" + partitionSize);
+            }
+        };
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, targetLatency: Int, minSize: Int, maxSize: Int) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "\n" +
+                        "    listField(arg: [Int] @partition(size:4, targetLatency: 1000, minSize: 2, maxSize: 8)): [Int]\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring().type(
+                        TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("listField", listFieldDataFetcher)
+                ).build()
+        );
+        GraphQLSource adaptiveSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().metrics(metrics).build())
+                .originalSchema(graphQLSchema).build();
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            ids.add(i);
+        }
+        String query = "query($ids: [Int]) { listField(arg: $ids) }";
+
+        ExecutionResult firstResult = adaptiveSource.getGraphQL().execute(
+                ExecutionInput.newExecutionInput(query).variables(Collections.singletonMap("ids", ids)).build()
+        );
+        assert firstResult.getErrors().isEmpty();
+        assert Objects.equals(((Map) firstResult.getData()).get("listField"), ids);
+        assert partitionSizes.stream().allMatch(size -> size == 4);
+        assert Objects.equals(reportedSizes, Collections.singletonList("Query.listField:5"));
+
+        partitionSizes.clear();
+        ExecutionResult secondResult = adaptiveSource.getGraphQL().execute(
+                ExecutionInput.newExecutionInput(query).variables(Collections.singletonMap("ids", ids)).build()
+        );
+        assert Objects.equals(((Map) secondResult.getData()).get("listField"), ids);
+        assert partitionSizes.stream().allMatch(size -> size == 5);
+    }
+
+
+    @Test
+    public void deduplicateArgumentAndFanOutResult() {
+        List<Object> downstreamArguments = new CopyOnWriteArrayList<>();
+        DataFetcher<List<Object>> userListDataFetcher = environment -> {
+            List<Object> userIds = environment.getArgument("userIds");
+            downstreamArguments.add(userIds);
+            List<Object> users = new ArrayList<>();
+            for (Object userId : userIds) {
+                // user 3 is not exist
+                if (!Objects.equals(userId, 3)) {
+                    Map<String, Object> user = new LinkedHashMap<>();
+                    user.put("userId", ((Integer) userId).longValue());
+                    user.put("name", userId + "_name");
+                    users.add(user);
+                }
+            }
+            return users;
+        };
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, deduplicate: Boolean, resultKey: String) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "    userInfoList(userIds: [Int] @partition(size: 2, deduplicate: true, resultKey: \"userId\")): [User]\n" +
+                        "}\n" +
+                        "\n" +
+                        "type User {\n" +
+                        "    userId: Int\n" +
+                        "    name: String\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring().type(
+                        TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("userInfoList", userListDataFetcher)
+                ).build()
+        );
+        GraphQLSource dedupSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(graphQLSchema).build();
+
+        ExecutionInput input = ExecutionInput.newExecutionInput("query { userInfoList(userIds: [1,2,1,3,2,4,1]) { userId name } }").build();
+        ExecutionResult result = dedupSource.getGraphQL().execute(input);
+        assert result.getErrors().isEmpty();
+        assert Objects.equals(downstreamArguments.toString(), "[[1, 2], [3, 4]]");
+        assert Objects.equals(
+                ((Map) result.getData()).get("userInfoList").toString(),
+                "[{userId=1, name=1_name}, {userId=2, name=2_name}, {userId=1, name=1_name}, " +
+                        "{userId=2, name=2_name}, {userId=4, name=4_name}, {userId=1, name=1_name}]"
+        );
+    }
+
+    @Test
+    public void resultKeyRequireDeduplicate() throws Exception {
+        expectedException.expect(WrapperSchemaException.class);
+        expectedException.expectMessage("errorClassification: InvalidAppliedDirectiveArgument, "
+                + "location: SourceLocation{line=5, column=5}, "
+                + "msg: the resultKey of @partition on {Query.listField} only works with deduplicate.\n");
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, deduplicate: Boolean, resultKey: String) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "\n" +
+                        "    listField(arg: [Int] @partition(size:5, resultKey: \"id\")): [Int]\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring().build()
+        );
+        GraphQLSchema wrappedSchema = SchemaWrapper.wrap(DefaultConfig.newConfig().build(), graphQLSchema);
+    }
+
+
+    @Test
+    public void streamPartitionResult() throws Exception {
+        CompletableFuture<Object> secondPartition = new CompletableFuture<>();
+        DataFetcher<Object> userListDataFetcher = environment -> {
+            List<Object> userIds = environment.getArgument("userIds");
+            List<Object> users = new ArrayList<>();
+            for (Object userId : userIds) {
+                users.add(Collections.singletonMap("userId", userId));
+            }
+            if (userIds.contains(3)) {
+                return secondPartition.thenApply(ignored -> users);
+            }
+            return CompletableFuture.completedFuture(users);
+        };
+        // the second partition will not be finished until the element of first partition is completed.
+        DataFetcher<Object> nameDataFetcher = environment -> {
+            Object userId = ((Map) environment.getSource()).get("userId");
+            if (Objects.equals(userId, 1)) {
+                secondPartition.complete(null);
+            }
+            return userId + "_name";
+        };
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, stream: Boolean) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "    userInfoList(userIds: [Int] @partition(size: 2, stream: true)): [User]\n" +
+                        "}\n" +
+                        "\n" +
+                        "type User {\n" +
+                        "    userId: Int\n" +
+                        "    name: String\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("userInfoList", userListDataFetcher))
+                        .type(TypeRuntimeWiring.newTypeWiring("User").dataFetcher("name", nameDataFetcher))
+                        .build()
+        );
+        GraphQLSource streamSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(graphQLSchema).build();
+
+        ExecutionInput input = ExecutionInput.newExecutionInput("query { userInfoList(userIds: [1,2,3,4,5]) { userId name } }").build();
+        ExecutionResult result = streamSource.getGraphQL().executeAsync(input).get(5, TimeUnit.SECONDS);
+        assert result.getErrors().isEmpty();
+        assert Objects.equals(
+                ((Map) result.getData()).get("userInfoList").toString(),
+                "[{userId=1, name=1_name}, {userId=2, name=2_name}, {userId=3, name=3_name}, " +
+                        "{userId=4, name=4_name}, {userId=5, name=5_name}]"
+        );
+    }
+
+    @Test
+    public void streamPartitionFieldValueInfos() throws Exception {
+        CompletableFuture<Object> secondPartition = new CompletableFuture<>();
+        DataFetcher<Object> userListDataFetcher = environment -> {
+            List<Object> userIds = environment.getArgument("userIds");
+            List<Object> users = new ArrayList<>();
+            for (Object userId : userIds) {
+                users.add(Collections.singletonMap("userId", userId));
+            }
+            if (userIds.contains(3)) {
+                return secondPartition.thenApply(ignored -> users);
+            }
+            return CompletableFuture.completedFuture(users);
+        };
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, stream: Boolean) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "    userInfoList(userIds: [Int] @partition(size: 2, stream: true)): [User]\n" +
+                        "}\n" +
+                        "\n" +
+                        "type User {\n" +
+                        "    userId: Int\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("userInfoList", userListDataFetcher))
+                        .build()
+        );
+
+        // the element infos of root field reported to instrumentation, e.g. the field level tracking of DataLoader.
+        List<Integer> elementInfoSizes = new CopyOnWriteArrayList<>();
+        Instrumentation fieldValuesInstrumentation = new SimpleInstrumentation() {
+            @Override
+            public ExecutionStrategyInstrumentationContext beginExecutionStrategy(InstrumentationExecutionStrategyParameters parameters,
+                                                                                  InstrumentationState state) {
+                boolean isRoot = parameters.getExecutionStrategyParameters().getPath().isRootPath();
+                return new ExecutionStrategyInstrumentationContext() {
+                    @Override
+                    public void onDispatched(CompletableFuture<ExecutionResult> result) {
+                    }
+
+                    @Override
+                    public void onCompleted(ExecutionResult result, Throwable t) {
+                    }
+
+                    @Override
+                    public void onFieldValuesInfo(List<FieldValueInfo> fieldValueInfoList) {
+                        if (isRoot) {
+                            elementInfoSizes.add(fieldValueInfoList.get(0).getFieldValueInfos().size());
+                        }
+                    }
+                };
+            }
+        };
+        GraphQLSource streamSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(graphQLSchema)
+                .instrumentation(fieldValuesInstrumentation)
+                .build();
+
+        CompletableFuture<ExecutionResult> resultFuture = streamSource.getGraphQL().executeAsync(
+                ExecutionInput.newExecutionInput("query { userInfoList(userIds: [1,2,3,4,5]) { userId } }").build()
+        );
+        // the field is not reported until all the partitions are dispatched.
+        assert elementInfoSizes.isEmpty();
+
+        secondPartition.complete(null);
+        ExecutionResult result = resultFuture.get(5, TimeUnit.SECONDS);
+        assert result.getErrors().isEmpty();
+        assert Objects.equals(elementInfoSizes.toString(), "[5]");
+    }
+
+    @Test
+    public void streamPartitionWithListDirectiveOrSource() {
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, stream: Boolean) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "    userInfoList(userIds: [Int] @partition(size: 2, stream: true)): [User]\n" +
+                        "    batchUserInfoList(userIds: [Int] @partition(size: 2)): [User]\n" +
+                        "}\n" +
+                        "\n" +
+                        "type User {\n" +
+                        "    userId: Int\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring().build()
+        );
+        GraphQLSchema wrappedSchema = SchemaWrapper.wrap(DefaultConfig.newConfig().build(), graphQLSchema);
+
+        ParseAndValidateResult filterResult = Validator.validateQuery(
+                "query { userInfoList(userIds: [1,2,3]) @filter(predicate: \"userId > 1\") { userId } }",
+                wrappedSchema, DefaultConfig.newConfig().build()
+        );
+        assert filterResult.isFailure();
+        assert Objects.equals(
+                filterResult.getErrors().get(0).getMessage(),
+                "list directives can not be used on the streaming @partition field {userInfoList}."
+        );
+
+        ParseAndValidateResult sourceResult = Validator.validateQuery(
+                "query { userInfoList(userIds: [1,2,3]) { userId @fetchSource(name: \"userIds\") } }",
+                wrappedSchema, DefaultConfig.newConfig().build()
+        );
+        assert sourceResult.isFailure();
+        assert Objects.equals(
+                sourceResult.getErrors().get(0).getMessage(),
+                "@fetchSource can not be used on or under the streaming @partition field, {userInfoList.userId}."
+        );
+
+        ParseAndValidateResult batchResult = Validator.validateQuery(
+                "query { batchUserInfoList(userIds: [1,2,3]) @filter(predicate: \"userId > 1\") { userId } }",
+                wrappedSchema, DefaultConfig.newConfig().build()
+        );
+        assert !batchResult.isFailure();
+    }
+
+    @Test
+    public void streamPartitionFailed() throws Exception {
+        DataFetcher<Object> userListDataFetcher = environment -> {
+            List<Object> userIds = environment.getArgument("userIds");
+            CompletableFuture<Object> users = new CompletableFuture<>();
+            if (userIds.contains(3)) {
+                users.completeExceptionally(new RuntimeException("mock exception"));
+            } else {
+                users.complete(Collections.singletonList(Collections.singletonMap("userId", userIds.get(0))));
+            }
+            return users;
+        };
+
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "directive @partition(size: Int!, stream: Boolean) on ARGUMENT_DEFINITION\n" +
+                        "\n" +
+                        "type Query {\n" +
+                        "    userInfoList(userIds: [Int] @partition(size: 2, stream: true)): [User]\n" +
+                        "}\n" +
+                        "\n" +
+                        "type User {\n" +
+                        "    userId: Int\n" +
+                        "}",
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("userInfoList", userListDataFetcher))
+                        .build()
+        );
+        GraphQLSource streamSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(graphQLSchema).build();
+
+        ExecutionInput input = ExecutionInput.newExecutionInput("query { userInfoList(userIds: [1,2,3,4]) { userId } }").build();
+        ExecutionResult result = streamSource.getGraphQL().executeAsync(input).get(5, TimeUnit.SECONDS);
+        assert result.getErrors().size() == 1;
+        assert result.getErrors().get(0).getMessage().contains("mock exception");
+        assert ((Map) result.getData()).get("userInfoList") == null;
+    }
+
+
     private static final GraphQLSchema originalSchema = GraphQLSourceHolder.getSchemaWithPartition();
     private static final GraphQLSource graphqlSource = new DefaultGraphQLSourceBuilder()
             .wrapperConfig(DefaultConfig.newConfig().build()).originalSchema(originalSchema).build();
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.DefaultConfig;
+import calculator.engine.metrics.CalculatorMetrics;
+import calculator.graphql.DefaultGraphQLSourceBuilder;
+import calculator.graphql.GraphQLSource;
+import calculator.util.TestUtil;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.TypeRuntimeWiring;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightDirectiveTest {
+
+    private static final String SCHEMA = "" +
+            "directive @singleFlight(key: String) on FIELD_DEFINITION\n" +
+            "\n" +
+            "type Query {\n" +
+            "    campaignInfo(campaignId: Int): Campaign @singleFlight\n" +
+            "}\n" +
+            "\n" +
+            "type Campaign {\n" +
+            "    campaignId: Int\n" +
+            "    name: String\n" +
+            "}";
+
+    private final AtomicInteger invokeCount = new AtomicInteger();
+
+    private final AtomicInteger fetchCount = new AtomicInteger();
+
+    private final AtomicInteger coalescedCount = new AtomicInteger();
+
+    private final CompletableFuture<Object> downstreamFuture = new CompletableFuture<>();
+
+    private final DataFetcher<Object> campaignInfoDataFetcher = environment -> {
+        invokeCount.incrementAndGet();
+        return downstreamFuture;
+    };
+
+    private final CalculatorMetrics metrics = new CalculatorMetrics() {
+        @Override
+        public void singleFlightFetch(String fieldCoordinate, boolean coalesced) {
+            fetchCount.incrementAndGet();
+            if (coalesced) {
+                coalescedCount.incrementAndGet();
+            }
+        }
+    };
+
+    @Test
+    public void coalesceConcurrentFetches() {
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                SCHEMA,
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("campaignInfo", campaignInfoDataFetcher))
+                        .build()
+        );
+        GraphQLSource graphQLSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(DefaultConfig.newConfig().metrics(metrics).build())
+                .originalSchema(graphQLSchema).build();
+
+        String query = "" +
+                "query($campaignId: Int) {\n" +
+                "    campaignInfo(campaignId: $campaignId){\n" +
+                "        campaignId\n" +
+                "        name\n" +
+                "    }\n" +
+                "}";
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("campaignId", 1);
+        ExecutionInput executionInput = ExecutionInput.newExecutionInput(query).variables(variables).build();
+        CompletableFuture<ExecutionResult> firstResult = graphQLSource.getGraphQL().executeAsync(executionInput);
+        CompletableFuture<ExecutionResult> secondResult = graphQLSource.getGraphQL().executeAsync(
+                ExecutionInput.newExecutionInput(query).variables(variables).build()
+        );
+
+        Map<String, Object> campaign = new LinkedHashMap<>();
+        campaign.put("campaignId", 1);
+        campaign.put("name", "campaign_1");
+        downstreamFuture.complete(campaign);
+
+        assert Objects.equals(firstResult.join().getData().toString(), "{campaignInfo={campaignId=1, name=campaign_1}}");
+        assert Objects.equals(secondResult.join().getData().toString(), "{campaignInfo={campaignId=1, name=campaign_1}}");
+        assert invokeCount.get() == 1;
+        assert fetchCount.get() == 2;
+        assert coalescedCount.get() == 1;
+
+        // the fetch after the shared invocation is finished invokes delegate again.
+        graphQLSource.getGraphQL().execute(ExecutionInput.newExecutionInput(query).variables(variables).build());
+        assert invokeCount.get() == 2;
+    }
+}
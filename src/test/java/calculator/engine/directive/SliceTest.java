@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.DefaultConfig;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import calculator.validation.Validator;
+import graphql.ExecutionResult;
+import graphql.ParseAndValidateResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.PropertyDataFetcher;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SliceTest {
+
+    private final AtomicInteger emailFetchCount = new AtomicInteger();
+
+    private final GraphQLSource graphQLSource;
+
+    {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        dataFetcherInfoMap.computeIfAbsent("User", ignored -> new HashMap<>()).put("email", environment -> {
+            emailFetchCount.incrementAndGet();
+            return PropertyDataFetcher.fetching("email").get(environment);
+        });
+        graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+    }
+
+    private ExecutionResult execute(String query) {
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        return executionResult;
+    }
+
+    @Test
+    public void sliceCase_01() {
+        String query = "" +
+                "query sliceCase_01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @slice(offset: 1, limit: 2)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            email\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionResult executionResult = execute(query);
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=2, email=2dugk@foxmail.com}, {userId=3, email=3dugk@foxmail.com}]}}"
+        );
+        // the dropped elements are not completed.
+        assert emailFetchCount.get() == 2;
+    }
+
+    @Test
+    public void sliceAfterFilter() {
+        String query = "" +
+                "query sliceAfterFilter{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @filter(predicate: \"userId%2 == 0\")\n" +
+                "        @slice(limit: 2)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            email\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionResult executionResult = execute(query);
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=2, email=2dugk@foxmail.com}, {userId=4, email=4dugk@foxmail.com}]}}"
+        );
+        assert emailFetchCount.get() == 2;
+    }
+
+    @Test
+    public void sliceAfterSort() {
+        String query = "" +
+                "query sliceAfterSort{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @sort(key: \"userId\", reversed: true)\n" +
+                "        @slice(offset: 1, limit: 10)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionResult executionResult = execute(query);
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=5}, {userId=4}, {userId=3}, {userId=2}, {userId=1}]}}"
+        );
+    }
+
+    @Test
+    public void invalidSlice() {
+        String query = "" +
+                "query invalidSlice{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @slice(limit: 2)\n" +
+                "        @sort(key: \"userId\")\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert validateResult.isFailure();
+        assert validateResult.getErrors().get(0).getMessage().contains("@slice must be the last list directive on {consumer.userInfoList}.");
+    }
+}
@@ -94,6 +94,61 @@ public class SortTest {
         );
     }
 
+    @Test
+    public void multiKeySortCase_01() {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+
+        String query = "" +
+                "query multiKeySortCase_01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [3,13,1,11,2])\n" +
+                "        @sort(key: [\"age desc\", \"userId\"])\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            age\n" +
+                "        }\n" +
+                "        reversedList: userInfoList(userIds: [3,13,1,11,2])\n" +
+                "        @sort(key: [\"age desc\", \"userId\"], reversed: true)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            age\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=3, age=30}, {userId=13, age=30}, {userId=2, age=20}, {userId=1, age=10}, {userId=11, age=10}], " +
+                        "reversedList=[{userId=11, age=10}, {userId=1, age=10}, {userId=2, age=20}, {userId=13, age=30}, {userId=3, age=30}]}}"
+        );
+    }
+
+    @Test
+    public void invalidSortKeyCase_01() {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+
+        String query = "" +
+                "query invalidSortKeyCase_01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [3,13,1,11,2])\n" +
+                "        @sort(key: [\"age down\", \"userId\"])\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            age\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert validateResult.isFailure();
+        assert validateResult.getErrors().get(0).getMessage().contains("invalid sort key used on {consumer.userInfoList}");
+    }
+
     @Test
     public void sortByCase_01() {
         Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
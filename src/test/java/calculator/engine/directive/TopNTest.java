@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.DefaultConfig;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import calculator.validation.Validator;
+import graphql.ExecutionResult;
+import graphql.ParseAndValidateResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.PropertyDataFetcher;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TopNTest {
+
+    @Test
+    public void topNCase_01() {
+        AtomicInteger emailFetchCount = new AtomicInteger();
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        dataFetcherInfoMap.computeIfAbsent("User", ignored -> new HashMap<>()).put("email", environment -> {
+            emailFetchCount.incrementAndGet();
+            return PropertyDataFetcher.fetching("email").get(environment);
+        });
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+
+        String query = "" +
+                "query topNCase_01{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [3,6,1,5,2,4])\n" +
+                "        @topN(comparator: \"userId\", n: 3, reversed: true)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            email\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=6, email=6dugk@foxmail.com}, {userId=5, email=5dugk@foxmail.com}, {userId=4, email=4dugk@foxmail.com}]}}"
+        );
+        // the dropped elements are not completed.
+        assert emailFetchCount.get() == 3;
+    }
+
+    @Test
+    public void topNCase_02() {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+
+        String query = "" +
+                "query topNCase_02{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4])\n" +
+                "        @topN(comparator: \"userId%2\", n: 10)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={userInfoList=[{userId=2}, {userId=4}, {userId=1}, {userId=3}]}}"
+        );
+    }
+
+    @Test
+    public void invalidTopN() {
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(GraphQLSourceHolder.defaultDataFetcherInfo());
+
+        String query = "" +
+                "query invalidTopN{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4])\n" +
+                "        @topN(comparator: \"userId\", n: 0)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert validateResult.isFailure();
+        assert validateResult.getErrors().get(0).getMessage().contains("n of @topN on {consumer.userInfoList} must be positive int.");
+
+        String queryWithSort = "" +
+                "query invalidTopN{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [1,2,3,4])\n" +
+                "        @sort(key: \"userId\")\n" +
+                "        @topN(comparator: \"userId\", n: 2)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        validateResult = Validator.validateQuery(queryWithSort, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert validateResult.isFailure();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import static java.util.Comparator.nullsLast;
+
+public class IndexSorterTest {
+
+    private static List<ListElement> elements(int size, IntFunction<Object> keyGenerator) {
+        List<ListElement> elements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Object[] element = {keyGenerator.apply(i), i};
+            elements.add(new ListElement(element, null));
+        }
+        return elements;
+    }
+
+    private static Object key(ListElement element) {
+        return ((Object[]) element.getElement())[0];
+    }
+
+    private static void assertSameAsComparatorSort(List<ListElement> elements, boolean reversed, ForkJoinPool pool) {
+        List<ListElement> expected = new ArrayList<>(elements);
+        expected.sort(Comparator.comparing(
+                IndexSorterTest::key,
+                nullsLast((v1, v2) -> reversed
+                        ? ((Comparable<Object>) v2).compareTo(v1)
+                        : ((Comparable<Object>) v1).compareTo(v2))
+        ));
+
+        AtomicInteger extractCount = new AtomicInteger();
+        IndexSorter.sort(elements, element -> {
+            extractCount.incrementAndGet();
+            return key(element);
+        }, reversed, pool);
+
+        assert extractCount.get() == elements.size();
+        for (int i = 0; i < elements.size(); i++) {
+            // same element instance, so the order of equal keys is kept.
+            assert elements.get(i) == expected.get(i);
+        }
+    }
+
+    @Test
+    public void sortByPrimitiveKeys() {
+        Random random = new Random(7);
+        for (boolean reversed : new boolean[]{false, true}) {
+            assertSameAsComparatorSort(elements(1000, i -> i % 10 == 0 ? null : random.nextInt(50)), reversed, null);
+            assertSameAsComparatorSort(elements(1000, i -> i % 10 == 0 ? null : (long) random.nextInt(50)), reversed, null);
+            assertSameAsComparatorSort(elements(1000, i -> i % 10 == 0 ? null : random.nextInt(50) / 4.0), reversed, null);
+        }
+    }
+
+    @Test
+    public void sortByComparableKeys() {
+        Random random = new Random(7);
+        for (boolean reversed : new boolean[]{false, true}) {
+            assertSameAsComparatorSort(elements(1000, i -> i % 10 == 0 ? null : "key_" + random.nextInt(50)), reversed, null);
+            assertSameAsComparatorSort(elements(20, i -> "key_" + random.nextInt(5)), reversed, null);
+        }
+    }
+
+    @Test
+    public void parallelSortIsStable() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(7);
+        for (boolean reversed : new boolean[]{false, true}) {
+            assertSameAsComparatorSort(elements(50000, i -> i % 10 == 0 ? null : random.nextInt(100)), reversed, pool);
+            assertSameAsComparatorSort(elements(50000, i -> i % 10 == 0 ? null : "key_" + random.nextInt(100)), reversed, pool);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void sortByMultiKeys() {
+        Random random = new Random(13);
+        for (ForkJoinPool pool : new ForkJoinPool[]{null, new ForkJoinPool(4)}) {
+            List<ListElement> elements = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                Object[] element = {
+                        i % 7 == 0 ? null : random.nextInt(10),
+                        i % 5 == 0 ? null : "key_" + random.nextInt(10),
+                        i
+                };
+                elements.add(new ListElement(element, null));
+            }
+
+            // first key in descending order with nulls first, second key in ascending order with nulls last.
+            List<ListElement> expected = new ArrayList<>(elements);
+            expected.sort(Comparator
+                    .comparing((ListElement element) -> (Integer) ((Object[]) element.getElement())[0],
+                            Comparator.nullsFirst(Comparator.<Integer>reverseOrder()))
+                    .thenComparing(element -> (String) ((Object[]) element.getElement())[1],
+                            nullsLast(Comparator.<String>naturalOrder()))
+            );
+
+            List<Function<ListElement, Object>> keyExtractors = Arrays.asList(
+                    element -> ((Object[]) element.getElement())[0],
+                    element -> ((Object[]) element.getElement())[1]
+            );
+            IndexSorter.sort(elements, keyExtractors, new boolean[]{true, false}, new boolean[]{true, false}, pool);
+            for (int i = 0; i < elements.size(); i++) {
+                assert elements.get(i) == expected.get(i);
+            }
+
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void parseSortKey() {
+        SortKey sortKey = SortKey.parse("price");
+        assert sortKey.getKey().equals("price") && !sortKey.isDescending() && !sortKey.isNullsFirst();
+
+        sortKey = SortKey.parse(" price  DESC nullsFirst ");
+        assert sortKey.getKey().equals("price") && sortKey.isDescending() && sortKey.isNullsFirst();
+
+        sortKey = SortKey.parse("price nullsFirst");
+        assert !sortKey.isDescending() && sortKey.isNullsFirst();
+
+        assert SortKey.parse("") == null;
+        assert SortKey.parse("price down") == null;
+        assert SortKey.parse("price nullsFirst desc") == null;
+        assert SortKey.parse("price desc asc") == null;
+    }
+
+    @Test
+    public void topIndexesSameAsSortPrefix() {
+        Random random = new Random(11);
+        for (boolean reversed : new boolean[]{false, true}) {
+            for (int n : new int[]{1, 20, 999, 1000, 2000}) {
+                List<ListElement> elements = elements(1000, i -> i % 10 == 0 ? null : random.nextInt(50));
+                Object[] keys = elements.stream().map(IndexSorterTest::key).toArray();
+                int[] topIndexes = TopNSelector.topIndexes(keys, n, reversed);
+
+                List<ListElement> sorted = new ArrayList<>(elements);
+                IndexSorter.sort(sorted, IndexSorterTest::key, reversed, null);
+                assert topIndexes.length == Math.min(n, elements.size());
+                for (int i = 0; i < topIndexes.length; i++) {
+                    assert elements.get(topIndexes[i]) == sorted.get(i);
+                }
+            }
+        }
+    }
+}
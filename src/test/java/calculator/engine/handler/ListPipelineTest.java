@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.handler;
+
+import calculator.engine.DefaultObjectMapper;
+import calculator.engine.ExecutionEngineState;
+import calculator.engine.ObjectMapper;
+import calculator.engine.script.AviatorScriptEvaluator;
+import graphql.language.Argument;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.StringValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ListPipelineTest {
+
+    private final AtomicInteger convertCount = new AtomicInteger();
+
+    private final ObjectMapper objectMapper = new ObjectMapper() {
+        private final ObjectMapper delegate = new DefaultObjectMapper();
+
+        @Override
+        public Object toSimpleCollection(Object object) {
+            convertCount.incrementAndGet();
+            return delegate.toSimpleCollection(object);
+        }
+    };
+
+    private final FieldValueHandlerComposite handlerComposite = new FieldValueHandlerComposite();
+
+    private final ExecutionEngineState engineState = ExecutionEngineState.newExecutionState().build();
+
+    {
+        handlerComposite.addFieldValueHandler(new FilterHandler());
+        handlerComposite.addFieldValueHandler(new DistinctHandler());
+        handlerComposite.addFieldValueHandler(new SortHandler());
+        handlerComposite.addFieldValueHandler(new SortByHandler());
+    }
+
+    private static Directive directive(String name, Argument... arguments) {
+        return Directive.newDirective().name(name).arguments(Arrays.asList(arguments)).build();
+    }
+
+    private static Argument argument(String name, String value) {
+        return Argument.newArgument(name, StringValue.of(value)).build();
+    }
+
+    private ListStage stage(Directive directive) {
+        HandleEnvironment handleEnvironment = new HandleEnvironment(
+                directive, null, null, Runnable::run, objectMapper, AviatorScriptEvaluator.getDefaultInstance(), engineState
+        );
+        return handlerComposite.createStage(handleEnvironment);
+    }
+
+    private ListPipeline pipeline(Directive... directives) {
+        List<ListStage> stages = new ArrayList<>();
+        for (Directive directive : directives) {
+            stages.add(stage(directive));
+        }
+        return ListPipeline.compile(stages);
+    }
+
+    private static List<Object> itemList() {
+        List<Object> itemList = new ArrayList<>();
+        int[][] itemInfos = {{1, 10, 300}, {2, 20, 100}, {3, 10, 200}, {4, 30, 500}, {5, 20, 400}, {6, 40, 50}};
+        for (int[] itemInfo : itemInfos) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("itemId", itemInfo[0]);
+            item.put("sellerId", itemInfo[1]);
+            item.put("price", itemInfo[2]);
+            itemList.add(item);
+        }
+        return itemList;
+    }
+
+    private static String itemIds(List<Object> itemList) {
+        List<Object> itemIds = new ArrayList<>();
+        for (Object item : itemList) {
+            itemIds.add(((Map) item).get("itemId"));
+        }
+        return itemIds.toString();
+    }
+
+    @Test
+    public void convertEachElementOnce() {
+        List<Object> itemList = itemList();
+        pipeline(
+                directive("filter", argument("predicate", "price > 60")),
+                directive("distinct", argument("comparator", "sellerId")),
+                directive("sort", argument("key", "price")),
+                directive("sortBy", argument("comparator", "itemId"),
+                        Argument.newArgument("reversed", BooleanValue.of(true)).build())
+        ).apply(itemList, objectMapper, Integer.MAX_VALUE, Runnable::run);
+
+        assert Objects.equals(itemIds(itemList), "[4, 2, 1]");
+        assert convertCount.get() == 6;
+    }
+
+    @Test
+    public void filterAfterSortIsAppliedBeforeSort() {
+        List<Object> itemList = itemList();
+        pipeline(
+                directive("sort", argument("key", "sellerId")),
+                directive("filter", argument("predicate", "price >= 200"))
+        ).apply(itemList, objectMapper, Integer.MAX_VALUE, Runnable::run);
+
+        assert Objects.equals(itemIds(itemList), "[1, 3, 5, 4]");
+        assert convertCount.get() == 6;
+    }
+
+    @Test
+    public void parallelPipelineHasSameResult() {
+        Random random = new Random(7);
+        List<Object> itemList = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("itemId", i);
+            item.put("price", random.nextInt(1000));
+            itemList.add(item);
+        }
+        List<Object> parallelItemList = new ArrayList<>(itemList);
+
+        Directive[] directives = {
+                directive("filter", argument("predicate", "price % 3 != 0")),
+                directive("sortBy", argument("comparator", "price / 10"))
+        };
+        pipeline(directives).apply(itemList, objectMapper, Integer.MAX_VALUE, Runnable::run);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        pipeline(directives).apply(parallelItemList, objectMapper, 1000, pool);
+        pool.shutdown();
+
+        assert Objects.equals(itemList, parallelItemList);
+    }
+
+    @Test
+    public void distinctAfterSortKeepsFirstSortedElement() {
+        List<Object> itemList = itemList();
+        pipeline(
+                directive("sort", argument("key", "price")),
+                directive("distinct", argument("comparator", "sellerId"))
+        ).apply(itemList, objectMapper, Integer.MAX_VALUE, Runnable::run);
+
+        assert Objects.equals(itemIds(itemList), "[6, 2, 3, 4]");
+    }
+
+    @Test
+    public void sortStageIsParsedOncePerDirective() {
+        Directive sort = directive("sort", argument("key", "price"));
+        Directive sortBy = directive("sortBy", argument("comparator", "itemId"),
+                Argument.newArgument("reversed", BooleanValue.of(true)).build());
+        assert stage(sort) == stage(sort);
+        assert stage(sortBy) == stage(sortBy);
+        // the directives are distinguished by node, even if they have the same arguments.
+        assert stage(sort) != stage(directive("sort", argument("key", "price")));
+
+        // the reused stage sorts each list independently.
+        for (int i = 0; i < 2; i++) {
+            List<Object> sortedList = itemList();
+            pipeline(sort).apply(sortedList, objectMapper, Integer.MAX_VALUE, Runnable::run);
+            assert Objects.equals(itemIds(sortedList), "[6, 2, 3, 1, 5, 4]");
+
+            List<Object> sortedByList = itemList();
+            pipeline(sortBy).apply(sortedByList, objectMapper, Integer.MAX_VALUE, Runnable::run);
+            assert Objects.equals(itemIds(sortedByList), "[6, 5, 4, 3, 2, 1]");
+        }
+    }
+}
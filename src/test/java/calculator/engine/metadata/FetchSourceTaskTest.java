@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.metadata;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.stream.Collectors.toList;
+
+public class FetchSourceTaskTest {
+
+    private static FetchSourceTask inListTask() {
+        return FetchSourceTask.newFetchSourceTask()
+                .sourceName("nameList")
+                .isAnnotatedNode(true)
+                .isInList(true)
+                .taskFuture(new CompletableFuture<>())
+                .build();
+    }
+
+    @Test
+    public void elementFuturesInOrderOfPosition() {
+        FetchSourceTask task = inListTask();
+        task.presizeListElementFutures(4);
+        task.addListElementResultFuture(3, CompletableFuture.completedFuture("d"));
+        task.addListElementResultFuture(0, CompletableFuture.completedFuture("a"));
+        // the element at index 1 is null and its fields are not fetched.
+        task.addListElementResultFuture(2, CompletableFuture.completedFuture("c"));
+        // the position of element in nested list is unknown.
+        task.addListElementResultFuture(-1, CompletableFuture.completedFuture("e"));
+
+        List<Object> values = task.getListElementFutures().stream().map(CompletableFuture::join).collect(toList());
+        assert values.toString().equals("[a, c, d, e]");
+    }
+
+    @Test
+    public void accumulateListElementValues() {
+        CompletableFuture<Object> first = new CompletableFuture<>();
+        CompletableFuture<Object> second = new CompletableFuture<>();
+        FetchSourceTask task = inListTask();
+        task.presizeListElementFutures(2);
+        task.addListElementResultFuture(0, first);
+        task.addListElementResultFuture(1, second);
+
+        CompletableFuture<List<Object>> valuesFuture = task.accumulateListElementValues();
+        // the futures are released once the values are accumulated by callbacks.
+        assert task.getListElementFutures().isEmpty();
+
+        second.complete("b");
+        assert !valuesFuture.isDone();
+        first.complete("a");
+        assert valuesFuture.join().toString().equals("[a, b]");
+
+        // completed exceptionally without waiting the other elements.
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        task.addListElementResultFuture(-1, pending);
+        task.addListElementResultFuture(-1, failed);
+        valuesFuture = task.accumulateListElementValues();
+        failed.completeExceptionally(new RuntimeException("mock exception"));
+        assert valuesFuture.isCompletedExceptionally();
+
+        assert inListTask().accumulateListElementValues().join().isEmpty();
+    }
+}
@@ -89,4 +89,47 @@ public class ExecutionEngineStateParserTest {
         assert bindingItemIdsTask.isTopTask();
         assert bindingItemIdsTask.getResultKey().equals("bindingItemIds");
     }
+
+    @Test
+    public void consumerAndCriticalPath() {
+        String query = ""
+                + "query {\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: 1)\n" +
+                "        @argumentTransform(argumentName: \"itemIds\", operateType: MAP,dependencySources: \"itemIdList\",expression: \"itemIdList\")\n" +
+                "        {\n" +
+                "            itemId\n" +
+                "            @fetchSource(name: \"itemIds\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    marketing{\n" +
+                "        coupon(couponId: 1){\n" +
+                "            bindingItemIds\n" +
+                "            @fetchSource(name: \"itemIdList\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    consumer{\n" +
+                "        userInfo(userId: 1){\n" +
+                "            name\n" +
+                "            @map(mapper: \"str(itemIds)\", dependencySources: \"itemIds\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, wrappedSchema, wrapperConfig);
+        assert !validateResult.isFailure();
+
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(wrappedSchema)
+                .document(Parser.parse(query))
+                .variables(Collections.emptyMap()).build();
+
+        ExecutionEngineStateParser stateParser = new ExecutionEngineStateParser();
+        traverser.visitDepthFirst(stateParser);
+        ExecutionEngineState engineState = stateParser.getExecutionEngineState();
+
+        assert Objects.equal(engineState.getConsumerBySourceName().toString(), "{itemIdList=[commodity.itemList], itemIds=[consumer.userInfo.name]}");
+        // 'itemIds' is fetched by the consumer of 'itemIdList'.
+        assert Objects.equal(engineState.getCriticalPath().toString(), "[itemIdList, itemIds]");
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.graphql;
+
+import calculator.config.DefaultConfig;
+import calculator.util.TestUtil;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.TypeRuntimeWiring;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestSingleFlightTest {
+
+    private final AtomicInteger invokeCount = new AtomicInteger();
+
+    private final CompletableFuture<Object> downstreamFuture = new CompletableFuture<>();
+
+    private GraphQLSource graphQLSource() {
+        DataFetcher<Object> visitCountDataFetcher = environment -> {
+            invokeCount.incrementAndGet();
+            return downstreamFuture;
+        };
+        GraphQLSchema graphQLSchema = TestUtil.schemaBySpec(
+                "type Query { visitCount(pageId: Int): Int }",
+                RuntimeWiring.newRuntimeWiring()
+                        .type(TypeRuntimeWiring.newTypeWiring("Query").dataFetcher("visitCount", visitCountDataFetcher))
+                        .build()
+        );
+        return GraphQLSource.newGraphQLSource()
+                .wrapperConfig(DefaultConfig.newConfig().build())
+                .originalSchema(graphQLSchema)
+                .requestSingleFlight(executionInput -> executionInput.getGraphQLContext().get("userId"))
+                .build();
+    }
+
+    private ExecutionInput executionInput(int pageId, Object userId) {
+        return ExecutionInput.newExecutionInput("query($pageId: Int) { visitCount(pageId: $pageId) }")
+                .variables(Collections.singletonMap("pageId", pageId))
+                .graphQLContext(userId != null ? Collections.singletonMap("userId", userId) : Collections.emptyMap())
+                .build();
+    }
+
+    @Test
+    public void shareInFlightExecution() {
+        GraphQLSource graphQLSource = graphQLSource();
+
+        CompletableFuture<ExecutionResult> firstResult = graphQLSource.executeAsync(executionInput(1, 7));
+        CompletableFuture<ExecutionResult> sharedResult = graphQLSource.executeAsync(executionInput(1, 7));
+        CompletableFuture<ExecutionResult> otherUserResult = graphQLSource.executeAsync(executionInput(1, 8));
+        CompletableFuture<ExecutionResult> otherVariablesResult = graphQLSource.executeAsync(executionInput(2, 7));
+        CompletableFuture<ExecutionResult> notSharedResult = graphQLSource.executeAsync(executionInput(1, null));
+        downstreamFuture.complete(100);
+
+        for (CompletableFuture<ExecutionResult> result
+                : new CompletableFuture[]{firstResult, sharedResult, otherUserResult, otherVariablesResult, notSharedResult}) {
+            assert Objects.equals(result.join().getData().toString(), "{visitCount=100}");
+        }
+        assert invokeCount.get() == 4;
+
+        graphQLSource.execute(executionInput(1, 7));
+        assert invokeCount.get() == 5;
+    }
+
+    @Test
+    public void cancelFollowerOnly() {
+        GraphQLSource graphQLSource = graphQLSource();
+
+        ExecutionInput leaderInput = executionInput(1, 7);
+        ExecutionInput followerInput = executionInput(1, 7);
+        CompletableFuture<ExecutionResult> leaderResult = graphQLSource.executeAsync(leaderInput);
+        CompletableFuture<ExecutionResult> followerResult = graphQLSource.executeAsync(followerInput);
+
+        boolean cancelled = GraphQLSource.cancel(followerInput);
+        assert cancelled;
+        assert followerResult.isCancelled();
+        assert !downstreamFuture.isCancelled();
+
+        downstreamFuture.complete(100);
+        assert Objects.equals(leaderResult.join().getData().toString(), "{visitCount=100}");
+        assert invokeCount.get() == 1;
+    }
+
+    @Test
+    public void cancelLeaderOnly() {
+        GraphQLSource graphQLSource = graphQLSource();
+
+        ExecutionInput leaderInput = executionInput(1, 7);
+        CompletableFuture<ExecutionResult> leaderResult = graphQLSource.executeAsync(leaderInput);
+        CompletableFuture<ExecutionResult> followerResult = graphQLSource.executeAsync(executionInput(1, 7));
+
+        boolean cancelled = GraphQLSource.cancel(leaderInput);
+        assert cancelled;
+        assert leaderResult.isCancelled();
+        assert !downstreamFuture.isCancelled();
+
+        downstreamFuture.complete(100);
+        assert Objects.equals(followerResult.join().getData().toString(), "{visitCount=100}");
+        assert invokeCount.get() == 1;
+    }
+
+    @Test
+    public void cancelAllSubscribers() {
+        GraphQLSource graphQLSource = graphQLSource();
+
+        ExecutionInput leaderInput = executionInput(1, 7);
+        ExecutionInput followerInput = executionInput(1, 7);
+        CompletableFuture<ExecutionResult> leaderResult = graphQLSource.executeAsync(leaderInput);
+        CompletableFuture<ExecutionResult> followerResult = graphQLSource.executeAsync(followerInput);
+
+        boolean followerCancelled = GraphQLSource.cancel(followerInput);
+        assert followerCancelled;
+        assert !downstreamFuture.isCancelled();
+        boolean leaderCancelled = GraphQLSource.cancel(leaderInput);
+        assert leaderCancelled;
+        assert leaderResult.isCancelled();
+        assert followerResult.isCancelled();
+        assert downstreamFuture.isCancelled();
+
+        // the cancelled execution is not shared anymore.
+        graphQLSource.executeAsync(executionInput(1, 7));
+        assert invokeCount.get() == 2;
+    }
+}